@@ -0,0 +1,37 @@
+package cs3500.reversi.bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmark suite with the GC profiler attached and writes the results as JSON, so two
+ * runs can be compared with the usual JMH tooling. An optional first argument is a regular
+ * expression selecting the benchmarks to run, and an optional second one the output file.
+ */
+public final class BenchmarkMain {
+
+  private BenchmarkMain() {
+  }
+
+  /**
+   * Runs the selected benchmarks.
+   *
+   * @param args optional include pattern and result file.
+   * @throws RunnerException if JMH fails to run a benchmark.
+   */
+  public static void main(String[] args) throws RunnerException {
+    String include = args.length > 0 ? args[0] : "cs3500\\.reversi\\.bench\\..*";
+    String resultFile = args.length > 1 ? args[1] : "bench_output.json";
+    Options options = new OptionsBuilder()
+            .include(include)
+            .addProfiler(GCProfiler.class)
+            .resultFormat(ResultFormatType.JSON)
+            .result(resultFile)
+            .build();
+    new Runner(options).run();
+  }
+}
@@ -0,0 +1,143 @@
+package cs3500.reversi.bench;
+
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import cs3500.reversi.model.CellColor;
+import cs3500.reversi.model.CoordinateSystem;
+import cs3500.reversi.model.IBoard;
+import cs3500.reversi.model.IGame;
+
+/**
+ * Throughput of the model operations the strategies and controllers call most often. Run it with
+ * the GC profiler ({@link BenchmarkMain} does) to also see the allocation rate per operation.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class ModelBenchmark {
+
+  /**
+   * A game that is rebuilt before every call, for operations that change the position.
+   */
+  @State(Scope.Thread)
+  public static class FreshGame {
+    IGame game;
+    CoordinateSystem move;
+
+    /**
+     * Replays the opening of the shared position into a new game.
+     *
+     * @param position the position to copy.
+     */
+    @Setup(Level.Invocation)
+    public void setUpGame(PositionState position) {
+      game = position.newGame(position.opening);
+      move = position.nextLegalMove();
+    }
+  }
+
+  /**
+   * Scans every cell of the board with {@code potentialFlips}, which is a direct call to
+   * {@code AbstractReversiGame.canCapture}. This is the sweep every strategy performs.
+   *
+   * @param position the position to scan.
+   * @return the total number of flips, so the work is not optimized away.
+   */
+  @Benchmark
+  public int canCaptureAllCells(PositionState position) {
+    IBoard board = position.game.getGrid();
+    int flips = 0;
+    for (int q = 0; q < board.getRows(); q++) {
+      for (int r = 0; r < board.getNumberOfColumnsInRow(q); r++) {
+        flips += position.game.potentialFlips(q, r, position.toMove);
+      }
+    }
+    return flips;
+  }
+
+  /**
+   * Computes the captures of a single legal move.
+   *
+   * @param position the position to look at.
+   * @return the number of flips of the move.
+   */
+  @Benchmark
+  public int canCaptureLegalMove(PositionState position) {
+    CoordinateSystem move = position.nextLegalMove();
+    return position.game.potentialFlips(move.getQ(), move.getR(), position.toMove);
+  }
+
+  /**
+   * Plays a legal move on a game with listeners attached, including all notifications.
+   *
+   * @param fresh a game rebuilt before this call.
+   * @return the game after the move.
+   */
+  @Benchmark
+  public IGame makeMove(FreshGame fresh) {
+    fresh.game.makeMove(fresh.move.getQ(), fresh.move.getR(),
+            fresh.game.getCurrentPlayer().getColor());
+    return fresh.game;
+  }
+
+  /**
+   * Checks whether the side to move has any legal move.
+   *
+   * @param position the position to look at.
+   * @return whether a legal move exists.
+   */
+  @Benchmark
+  public boolean hasValidMoveForPlayer(PositionState position) {
+    return position.game.hasValidMoveForPlayer(position.toMove);
+  }
+
+  /**
+   * Checks whether the side not to move has any legal move, which scans more of the board when
+   * it has few moves.
+   *
+   * @param position the position to look at.
+   * @return whether a legal move exists.
+   */
+  @Benchmark
+  public boolean hasValidMoveForOpponent(PositionState position) {
+    CellColor opponent = position.toMove == CellColor.BLACK ? CellColor.WHITE : CellColor.BLACK;
+    return position.game.hasValidMoveForPlayer(opponent);
+  }
+
+  /**
+   * Copies the whole game, as the strategies do before every decision.
+   *
+   * @param position the position to copy.
+   * @return the copy.
+   */
+  @Benchmark
+  public IGame cloneGame(PositionState position) {
+    return position.game.cloneGame();
+  }
+
+  /**
+   * Copies the cell map, as every board notification does.
+   *
+   * @param position the position to copy.
+   * @return the copy.
+   */
+  @Benchmark
+  public HashMap<CoordinateSystem, CellColor> getBoard(PositionState position) {
+    return position.game.getGrid().getBoard();
+  }
+}
@@ -0,0 +1,115 @@
+package cs3500.reversi.bench;
+
+import java.util.List;
+import java.util.Random;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import cs3500.reversi.model.CellColor;
+import cs3500.reversi.model.CoordinateSystem;
+import cs3500.reversi.model.IBoard;
+import cs3500.reversi.model.IGame;
+import cs3500.reversi.players.HumanPlayer;
+import cs3500.reversi.tournament.BoardType;
+import cs3500.reversi.tournament.HeadlessGame;
+
+/**
+ * A reproducible game position shared by the model and strategy benchmarks. The position is
+ * reached by playing seeded random moves until the requested fraction of the empty cells has been
+ * filled, and it always leaves the side to move with at least one legal move. Where no seed
+ * reaches that fill, as on the smallest boards where every game ends early, the longest
+ * opening that some seed reaches is used instead.
+ */
+@State(Scope.Thread)
+public class PositionState {
+  private static final int SEEDS_PER_LENGTH = 100;
+
+  /**
+   * The board as "type:size".
+   */
+  @Param({"hex:3", "hex:4", "hex:6", "square:6", "square:8", "square:12"})
+  public String board;
+
+  /**
+   * The fraction of the initially empty cells filled before measuring.
+   */
+  @Param({"0.0", "0.3", "0.6"})
+  public double fill;
+
+  BoardType type;
+  int size;
+  IGame game;
+  CellColor toMove;
+  List<CoordinateSystem> opening;
+  List<CoordinateSystem> legalMoves;
+  private int cursor;
+
+  /**
+   * Builds the position once per trial.
+   */
+  @Setup(Level.Trial)
+  public void setUpPosition() {
+    String[] parts = board.split(":");
+    type = BoardType.parse(parts[0]);
+    size = Integer.parseInt(parts[1]);
+
+    IGame empty = newGame(List.of());
+    int empties = cellCount(empty.getGrid()) - empty.getScore(CellColor.BLACK)
+            - empty.getScore(CellColor.WHITE);
+    // Small boards can end before the requested fill, so shorter openings are tried in turn.
+    for (int plies = (int) (empties * fill); plies >= 0; plies--) {
+      for (long seed = 0; seed < SEEDS_PER_LENGTH; seed++) {
+        opening = HeadlessGame.randomOpening(type, size, plies, new Random(seed));
+        if (opening.size() < plies) {
+          continue;
+        }
+        game = newGame(opening);
+        toMove = game.getCurrentPlayer().getColor();
+        legalMoves = HeadlessGame.legalMoves(game, toMove);
+        if (!legalMoves.isEmpty()) {
+          return;
+        }
+      }
+    }
+    throw new IllegalStateException("No playable position on " + board);
+  }
+
+  /**
+   * Creates a fresh started game with listeners attached and the given moves played.
+   *
+   * @param moves the moves to replay.
+   * @return the new game.
+   */
+  IGame newGame(List<CoordinateSystem> moves) {
+    IGame fresh = HeadlessGame.newStartedGame(type, size, new HumanPlayer(CellColor.BLACK),
+            new HumanPlayer(CellColor.WHITE));
+    for (CoordinateSystem move : moves) {
+      fresh.makeMove(move.getQ(), move.getR(), fresh.getCurrentPlayer().getColor());
+    }
+    return fresh;
+  }
+
+  /**
+   * Cycles through the legal moves of the position so consecutive calls do not keep
+   * measuring the same cell.
+   *
+   * @return the next legal move.
+   */
+  CoordinateSystem nextLegalMove() {
+    CoordinateSystem move = legalMoves.get(cursor);
+    cursor = (cursor + 1) % legalMoves.size();
+    return move;
+  }
+
+  private static int cellCount(IBoard board) {
+    int cells = 0;
+    for (int q = 0; q < board.getRows(); q++) {
+      cells += board.getNumberOfColumnsInRow(q);
+    }
+    return cells;
+  }
+}
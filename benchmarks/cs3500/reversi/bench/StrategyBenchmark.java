@@ -0,0 +1,61 @@
+package cs3500.reversi.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import cs3500.reversi.model.MoveAction;
+import cs3500.reversi.model.strategy.ReversiStrategies;
+import cs3500.reversi.tournament.StrategyCatalog;
+
+/**
+ * Throughput of a full move decision for every strategy in the {@link StrategyCatalog}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Thread)
+public class StrategyBenchmark {
+
+  /**
+   * The catalog name of the strategy to measure; kept in step with the catalog. Without solution
+   * tables, "perfect" measures the table lookup plus its alpha-beta fallback.
+   */
+  @Param({"maximum", "avoid", "corner", "alphabeta", "probcut", "mobility", "pattern",
+      "perfect"})
+  public String strategyName;
+
+  private ReversiStrategies strategy;
+
+  /**
+   * Creates the strategy once per trial.
+   */
+  @Setup(Level.Trial)
+  public void setUpStrategy() {
+    strategy = StrategyCatalog.create(strategyName);
+  }
+
+  /**
+   * Asks the strategy for a move in the shared position.
+   *
+   * @param position the position to decide in.
+   * @return the chosen move.
+   */
+  @Benchmark
+  public MoveAction chooseMove(PositionState position) {
+    return strategy.chooseMove(position.game, position.toMove);
+  }
+}
@@ -1,5 +1,7 @@
 package cs3500.reversi;
 
+import java.util.Arrays;
+
 import cs3500.reversi.controller.GameController;
 import cs3500.reversi.controller.HumanPlayerController;
 import cs3500.reversi.controller.MachinePlayerController;
@@ -8,6 +10,7 @@ import cs3500.reversi.model.GameStartCoordinator;
 import cs3500.reversi.model.IGame;
 import cs3500.reversi.model.ReversiSquareGame;
 import cs3500.reversi.model.StartGameListener;
+import cs3500.reversi.model.strategy.AlphaBetaStrategy;
 import cs3500.reversi.model.strategy.AvoidNextToCorners;
 import cs3500.reversi.model.strategy.CaptureCorner;
 import cs3500.reversi.model.strategy.MaximumCapture;
@@ -16,6 +19,7 @@ import cs3500.reversi.players.HumanPlayer;
 import cs3500.reversi.players.IPlayer;
 import cs3500.reversi.model.ReversiHexGame;
 import cs3500.reversi.players.MachinePlayer;
+import cs3500.reversi.tournament.Tournament;
 import cs3500.reversi.view.ReversiBasicView;
 import cs3500.reversi.view.ReversiSquareView;
 import cs3500.reversi.view.ReversiView;
@@ -30,14 +34,21 @@ public final class Reversi {
    * Main method to start the Reversi game.
    * Initializes players, the game model, and the game view.
    * Sets up a Reversi game with a 6x6 board (size can be changed).
+   * If the first argument is "tournament" the remaining arguments are handed to
+   * {@link Tournament} and no window is opened.
    *
-   * @param args Command line arguments (not used as of now).
+   * @param args Command line arguments: board type, player 1 type, player 2 type and strategy.
    */
   public static void main(String[] args) {
+    if (args.length > 0 && args[0].equals("tournament")) {
+      Tournament.main(Arrays.copyOfRange(args, 1, args.length));
+      return;
+    }
+
     String player1Type = "human"; // Default type for player 1
     String player2Type = "machine"; // Default type for player 2
     String boardType = "hex";
-    String[] strategies = {"strategy1", "strategy2", "strategy3"};
+    String[] strategies = {"strategy1", "strategy2", "strategy3", "strategy4"};
     int strategyIndex = -1; // Default value indicating no strategy found
 
     String strategy;
@@ -55,20 +66,8 @@ public final class Reversi {
 
 
     // Initialize players
-    IPlayer player1 = null;
-    IPlayer player2 = null;
-    if (player1Type.equals("human") && player2Type.equals("human")) {
-      player1 = new HumanPlayer(CellColor.BLACK);
-      player2 = new HumanPlayer(CellColor.WHITE);
-    } else if (player1Type.equals("machine")) {
-      ReversiStrategies s = determineStrategy(strategyIndex);
-      player1 = new MachinePlayer(CellColor.BLACK, s);
-      player2 = new HumanPlayer(CellColor.WHITE);
-    } else if (player2Type.equals("machine")) {
-      ReversiStrategies s = determineStrategy(strategyIndex);
-      player1 = new HumanPlayer(CellColor.BLACK);
-      player2 = new MachinePlayer(CellColor.WHITE, s);
-    }
+    IPlayer player1 = createPlayer(player1Type, CellColor.BLACK, strategyIndex);
+    IPlayer player2 = createPlayer(player2Type, CellColor.WHITE, strategyIndex);
 
     // setting up model and view
     IGame model = null;
@@ -108,6 +107,21 @@ public final class Reversi {
   }
 
 
+  /**
+   * Creates a human or a machine player for the given color.
+   *
+   * @param type          "human" or "machine".
+   * @param color         the color the player plays.
+   * @param strategyIndex index of the strategy used by a machine player.
+   * @return the new player.
+   */
+  private static IPlayer createPlayer(String type, CellColor color, int strategyIndex) {
+    if (type.equals("machine")) {
+      return new MachinePlayer(color, determineStrategy(strategyIndex));
+    }
+    return new HumanPlayer(color);
+  }
+
   // Implement the findStrategyIndex method
   private static int findStrategyIndex(String[] strategies, String strategy) {
     for (int i = 0; i < strategies.length; i++) {
@@ -125,6 +139,8 @@ public final class Reversi {
         return new AvoidNextToCorners();
       case 2:
         return new CaptureCorner();
+      case 3:
+        return new AlphaBetaStrategy();
       default:
         return new MaximumCapture();
     }
@@ -0,0 +1,323 @@
+package cs3500.reversi.archive;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.Deflater;
+
+import cs3500.reversi.model.engine.BoardTopology;
+import cs3500.reversi.record.GameRecordWriter;
+
+/**
+ * Adds games to an archive directory read by {@link GameArchive}. Games get consecutive ids
+ * from 0 and are written as {@link GameRecordWriter} records, gathered into blocks of about
+ * {@code blockBytes} that are deflated one by one and appended to segment files of at most
+ * {@code segmentBytes}. The index file holds, for every id, the segment, the offset of the
+ * block and the offset of the game's record in the inflated block, in fixed 16-byte entries, so
+ * a game is found by one lookup and read without decoding the games before it.
+ *
+ * <p>Layout: {@code index.rvi} is a header (magic {@code RVIX}, version, number of games)
+ * followed by the entries. Each {@code segment-NNNNN.rva} is a header (magic {@code RVSG},
+ * version, segment number, unused) followed by blocks, each a header (first game id, number
+ * of games, raw and deflated lengths) and the deflated records. The count in the index header
+ * is committed every {@value #COMMIT_BLOCKS} blocks, when a segment fills up and on closing,
+ * each time after the blocks and entries it counts are forced to disk, so a crash loses at most
+ * the games since the last commit. Opening an existing archive appends to a new segment; games
+ * past the committed count are dropped first. A writer is used by one thread at a time.
+ */
+public final class ArchiveWriter implements Closeable {
+  static final int INDEX_MAGIC = 0x52564958;
+  static final int SEGMENT_MAGIC = 0x52565347;
+  static final int VERSION = 1;
+  static final int INDEX_HEADER = 16;
+  static final int INDEX_ENTRY = 16;
+  static final int SEGMENT_HEADER = 16;
+  static final int BLOCK_HEADER = 20;
+  static final String INDEX_FILE = "index.rvi";
+  static final int COMMIT_BLOCKS = 64;
+
+  /**
+   * The raw size a block is sealed at when none is given: the deflate window, so larger blocks
+   * would compress little better and only make reading one game slower.
+   */
+  public static final int DEFAULT_BLOCK_BYTES = 1 << 15;
+
+  /**
+   * The largest segment when none is given; a segment is mapped whole, so it stays below 2 GB.
+   */
+  public static final long DEFAULT_SEGMENT_BYTES = 1L << 30;
+
+  private final Path directory;
+  private final int blockBytes;
+  private final long segmentBytes;
+  private final FileChannel index;
+  private final ByteBuffer entries = ByteBuffer.allocate(INDEX_ENTRY * 4096);
+  private final ByteArrayOutputStream raw = new ByteArrayOutputStream();
+  private final Deflater deflater = new Deflater();
+  private byte[] deflated = new byte[0];
+  private GameRecordWriter records;
+  private FileChannel segment;
+  private int segmentNumber;
+  private long count;
+  private long blockFirst;
+  private int blockGames;
+  private int uncommittedBlocks;
+  private int[] gameOffsets = new int[1024];
+
+  private ArchiveWriter(Path directory, int blockBytes, long segmentBytes) throws IOException {
+    this.directory = directory;
+    this.blockBytes = blockBytes;
+    this.segmentBytes = segmentBytes;
+    Files.createDirectories(directory);
+    List<Path> segments = GameArchive.segments(directory);
+    this.index = FileChannel.open(directory.resolve(INDEX_FILE), StandardOpenOption.CREATE,
+            StandardOpenOption.READ, StandardOpenOption.WRITE);
+    try {
+      if (index.size() == 0) {
+        writeIndexHeader();
+      } else {
+        ByteBuffer header = ByteBuffer.allocate(INDEX_HEADER);
+        index.read(header, 0);
+        if (header.getInt(0) != INDEX_MAGIC || header.getInt(4) != VERSION) {
+          throw new IllegalArgumentException("Not a game archive: " + directory);
+        }
+        count = header.getLong(8);
+      }
+      index.truncate(INDEX_HEADER + count * INDEX_ENTRY);
+      for (Path file : segments) {
+        dropUnindexed(file);
+        segmentNumber = Math.max(segmentNumber, GameArchive.segmentNumber(file) + 1);
+      }
+      this.records = new GameRecordWriter(raw);
+      this.blockFirst = count;
+    } catch (IOException | RuntimeException e) {
+      index.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Opens an archive for adding games, creating it if needed.
+   *
+   * @param directory the archive directory.
+   * @return the writer.
+   * @throws IOException              if the archive cannot be read or written.
+   * @throws IllegalArgumentException if the directory holds something else.
+   */
+  public static ArchiveWriter open(Path directory) throws IOException {
+    return open(directory, DEFAULT_BLOCK_BYTES, DEFAULT_SEGMENT_BYTES);
+  }
+
+  /**
+   * Opens an archive for adding games with the given block and segment sizes.
+   *
+   * @param directory    the archive directory.
+   * @param blockBytes   the raw size at which a block is sealed.
+   * @param segmentBytes the size at which a new segment is started, below 2 GB.
+   * @return the writer.
+   * @throws IOException              if the archive cannot be read or written.
+   * @throws IllegalArgumentException if a size is out of range or the directory holds
+   *                                  something else.
+   */
+  public static ArchiveWriter open(Path directory, int blockBytes, long segmentBytes)
+          throws IOException {
+    if (blockBytes < 1 || segmentBytes <= SEGMENT_HEADER || segmentBytes > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Block or segment size out of range");
+    }
+    return new ArchiveWriter(directory, blockBytes, segmentBytes);
+  }
+
+  /**
+   * Cuts a segment before its first block holding a game the index does not count, or deletes
+   * it if that is its first block.
+   */
+  private void dropUnindexed(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ,
+            StandardOpenOption.WRITE)) {
+      ByteBuffer header = ByteBuffer.allocate(BLOCK_HEADER);
+      long at = SEGMENT_HEADER;
+      long size = channel.size();
+      while (at + BLOCK_HEADER <= size) {
+        header.clear();
+        channel.read(header, at);
+        long first = header.getLong(0);
+        int games = header.getInt(8);
+        long end = at + BLOCK_HEADER + header.getInt(16);
+        if (first + games > count || end > size) {
+          break;
+        }
+        at = end;
+      }
+      if (at < size) {
+        channel.truncate(at);
+      }
+    }
+    if (Files.size(file) <= SEGMENT_HEADER) {
+      Files.delete(file);
+    }
+  }
+
+  /**
+   * Adds a game.
+   *
+   * @param board the board the game was played on.
+   * @param black the name of the black player.
+   * @param white the name of the white player.
+   * @param moves the moves in order, as dense cell indices or a pass.
+   * @param count the number of moves.
+   * @return the id of the game in the archive.
+   * @throws IOException              if a block cannot be written.
+   * @throws IllegalArgumentException if a move is not on the board; the game is not added.
+   */
+  public long add(BoardTopology board, String black, String white, int[] moves, int count)
+          throws IOException {
+    // The header of the block's record stream is still in the writer's buffer at first.
+    int offset = blockGames == 0 ? GameArchive.RECORD_HEADER : raw.size();
+    records.write(board, black, white, moves, count);
+    records.flush();
+    // Only counted once its record is in the block, so a rejected game leaves no trace.
+    if (blockGames == gameOffsets.length) {
+      gameOffsets = Arrays.copyOf(gameOffsets, 2 * blockGames);
+    }
+    gameOffsets[blockGames++] = offset;
+    long id = this.count + blockGames - 1;
+    if (raw.size() >= blockBytes) {
+      seal();
+    }
+    return id;
+  }
+
+  /**
+   * Deflates the current block, appends it to the current segment and indexes its games.
+   */
+  private void seal() throws IOException {
+    if (blockGames == 0) {
+      return;
+    }
+    byte[] input = raw.toByteArray();
+    deflater.reset();
+    deflater.setInput(input);
+    deflater.finish();
+    if (deflated.length < input.length + input.length / 100 + 64) {
+      deflated = new byte[input.length + input.length / 100 + 64];
+    }
+    int length = 0;
+    while (!deflater.finished()) {
+      if (length == deflated.length) {
+        deflated = Arrays.copyOf(deflated, 2 * deflated.length);
+      }
+      length += deflater.deflate(deflated, length, deflated.length - length);
+    }
+
+    long size = BLOCK_HEADER + length;
+    if (segment == null || segment.position() > SEGMENT_HEADER
+            && segment.position() + size > segmentBytes) {
+      startSegment();
+    }
+    long offset = segment.position();
+    ByteBuffer header = ByteBuffer.allocate(BLOCK_HEADER);
+    header.putLong(blockFirst).putInt(blockGames).putInt(input.length).putInt(length).flip();
+    writeFully(segment, header);
+    writeFully(segment, ByteBuffer.wrap(deflated, 0, length));
+
+    for (int i = 0; i < blockGames; i++) {
+      if (!entries.hasRemaining()) {
+        flushEntries();
+      }
+      entries.putInt(segmentNumber - 1).putInt(gameOffsets[i]).putLong(offset);
+    }
+    count += blockGames;
+    blockFirst = count;
+    blockGames = 0;
+    raw.reset();
+    records = new GameRecordWriter(raw);
+    if (++uncommittedBlocks >= COMMIT_BLOCKS) {
+      commit();
+    }
+  }
+
+  private void startSegment() throws IOException {
+    if (segment != null) {
+      commit();
+      segment.close();
+    }
+    segment = FileChannel.open(directory.resolve(GameArchive.segmentName(segmentNumber)),
+            StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+    ByteBuffer header = ByteBuffer.allocate(SEGMENT_HEADER);
+    header.putInt(SEGMENT_MAGIC).putInt(VERSION).putInt(segmentNumber).putInt(0).flip();
+    writeFully(segment, header);
+    segmentNumber++;
+  }
+
+  /**
+   * Makes the sealed blocks part of the archive: forces them to disk, then their index entries,
+   * and only then writes and forces the count in the index header.
+   */
+  private void commit() throws IOException {
+    if (segment != null) {
+      segment.force(false);
+    }
+    flushEntries();
+    index.force(false);
+    writeIndexHeader();
+    index.force(false);
+    uncommittedBlocks = 0;
+  }
+
+  private void flushEntries() throws IOException {
+    entries.flip();
+    while (entries.hasRemaining()) {
+      index.write(entries, index.size());
+    }
+    entries.clear();
+  }
+
+  private void writeIndexHeader() throws IOException {
+    ByteBuffer header = ByteBuffer.allocate(INDEX_HEADER);
+    header.putInt(INDEX_MAGIC).putInt(VERSION).putLong(count).flip();
+    while (header.hasRemaining()) {
+      index.write(header, header.position());
+    }
+  }
+
+  private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+  }
+
+  /**
+   * Gives the number of games in the archive, counting those not yet in a sealed block.
+   *
+   * @return the number of games.
+   */
+  public long size() {
+    return count + blockGames;
+  }
+
+  /**
+   * Seals the last block and commits it, so the index never counts a game that is not on disk.
+   *
+   * @throws IOException if the archive cannot be written.
+   */
+  @Override
+  public void close() throws IOException {
+    try {
+      seal();
+      commit();
+    } finally {
+      deflater.end();
+      if (segment != null) {
+        segment.close();
+      }
+      index.close();
+    }
+  }
+}
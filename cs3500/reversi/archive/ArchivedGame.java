@@ -0,0 +1,48 @@
+package cs3500.reversi.archive;
+
+import cs3500.reversi.model.engine.BoardTopology;
+import cs3500.reversi.model.engine.FastGame;
+
+/**
+ * One game read from a {@link GameArchive}: its id, board, players and moves.
+ */
+public final class ArchivedGame {
+  private final long id;
+  private final BoardTopology topology;
+  private final String black;
+  private final String white;
+  private final int[] moves;
+
+  ArchivedGame(long id, BoardTopology topology, String black, String white, int[] moves) {
+    this.id = id;
+    this.topology = topology;
+    this.black = black;
+    this.white = white;
+    this.moves = moves;
+  }
+
+  public long getId() {
+    return id;
+  }
+
+  public BoardTopology getTopology() {
+    return topology;
+  }
+
+  public String getBlack() {
+    return black;
+  }
+
+  public String getWhite() {
+    return white;
+  }
+
+  /**
+   * Gives the moves of the game.
+   *
+   * @return a copy of the moves, as dense cell indices or {@link FastGame#PASS}.
+   */
+  public int[] getMoves() {
+    return moves.clone();
+  }
+}
@@ -0,0 +1,292 @@
+package cs3500.reversi.archive;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import cs3500.reversi.record.GameRecordReader;
+
+/**
+ * Reads an archive written by {@link ArchiveWriter}. The index and every segment are mapped
+ * read only, so opening an archive reads almost nothing: a game is found by its index entry and
+ * read by inflating the one block it is in. Whole archives are scanned in parallel, each worker
+ * inflating runs of blocks in file order. An archive can be read by many threads at once.
+ */
+public final class GameArchive {
+  // Index entries per mapping, so a mapping stays below 2 GB.
+  private static final int ENTRIES_PER_MAP = 1 << 26;
+  // The magic bytes and version that start every record stream, and so every block.
+  static final int RECORD_HEADER = 5;
+
+  private final long count;
+  private final ByteBuffer[] index;
+  private final ByteBuffer[] segments;
+  // Every block, as its segment number in the high bits and its offset in the low 32.
+  private final long[] blocks;
+
+  private GameArchive(long count, ByteBuffer[] index, ByteBuffer[] segments, long[] blocks) {
+    this.count = count;
+    this.index = index;
+    this.segments = segments;
+    this.blocks = blocks;
+  }
+
+  /**
+   * Opens an archive.
+   *
+   * @param directory the archive directory.
+   * @return the archive.
+   * @throws IOException              if the archive cannot be read.
+   * @throws IllegalArgumentException if the directory does not hold an archive.
+   */
+  public static GameArchive open(Path directory) throws IOException {
+    long count;
+    ByteBuffer[] index;
+    try (FileChannel channel = FileChannel.open(directory.resolve(ArchiveWriter.INDEX_FILE))) {
+      ByteBuffer header = ByteBuffer.allocate(ArchiveWriter.INDEX_HEADER);
+      channel.read(header, 0);
+      if (header.getInt(0) != ArchiveWriter.INDEX_MAGIC
+              || header.getInt(4) != ArchiveWriter.VERSION) {
+        throw new IllegalArgumentException("Not a game archive: " + directory);
+      }
+      count = header.getLong(8);
+      if (channel.size() < ArchiveWriter.INDEX_HEADER + count * ArchiveWriter.INDEX_ENTRY) {
+        throw new IllegalArgumentException("Archive index is cut short: " + directory);
+      }
+      index = new ByteBuffer[(int) ((count + ENTRIES_PER_MAP - 1) / ENTRIES_PER_MAP)];
+      for (int i = 0; i < index.length; i++) {
+        long first = (long) i * ENTRIES_PER_MAP;
+        index[i] = channel.map(FileChannel.MapMode.READ_ONLY,
+                ArchiveWriter.INDEX_HEADER + first * ArchiveWriter.INDEX_ENTRY,
+                Math.min(ENTRIES_PER_MAP, count - first) * ArchiveWriter.INDEX_ENTRY);
+      }
+    }
+
+    List<Path> files = segments(directory);
+    int highest = -1;
+    for (Path file : files) {
+      highest = Math.max(highest, segmentNumber(file));
+    }
+    ByteBuffer[] segments = new ByteBuffer[highest + 1];
+    List<Long> blocks = new ArrayList<>();
+    for (Path file : files) {
+      int number = segmentNumber(file);
+      MappedByteBuffer segment;
+      try (FileChannel channel = FileChannel.open(file)) {
+        segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      }
+      if (segment.limit() < ArchiveWriter.SEGMENT_HEADER
+              || segment.getInt(0) != ArchiveWriter.SEGMENT_MAGIC) {
+        throw new IllegalArgumentException("Not an archive segment: " + file);
+      }
+      segments[number] = segment;
+      for (int at = ArchiveWriter.SEGMENT_HEADER; at + ArchiveWriter.BLOCK_HEADER
+              <= segment.limit(); at += ArchiveWriter.BLOCK_HEADER + segment.getInt(at + 16)) {
+        if (segment.getLong(at) + segment.getInt(at + 8) > count) {
+          // Written after the index was last updated; not part of the archive.
+          break;
+        }
+        blocks.add((long) number << 32 | at);
+      }
+    }
+    long[] order = new long[blocks.size()];
+    for (int i = 0; i < order.length; i++) {
+      order[i] = blocks.get(i);
+    }
+    return new GameArchive(count, index, segments, order);
+  }
+
+  /**
+   * Lists the segment files of an archive directory, in order.
+   */
+  static List<Path> segments(Path directory) throws IOException {
+    List<Path> files = new ArrayList<>();
+    if (!Files.isDirectory(directory)) {
+      return files;
+    }
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "segment-*.rva")) {
+      for (Path file : stream) {
+        files.add(file);
+      }
+    }
+    files.sort(null);
+    return files;
+  }
+
+  static String segmentName(int number) {
+    return String.format("segment-%05d.rva", number);
+  }
+
+  static int segmentNumber(Path file) {
+    String name = file.getFileName().toString();
+    return Integer.parseInt(name.substring("segment-".length(), name.length() - 4));
+  }
+
+  /**
+   * Gives the number of games in the archive.
+   *
+   * @return the number of games.
+   */
+  public long size() {
+    return count;
+  }
+
+  /**
+   * Reads one game.
+   *
+   * @param id the id of the game, from 0 to {@link #size()} - 1.
+   * @return the game.
+   * @throws IOException              if the block of the game is damaged.
+   * @throws IllegalArgumentException if there is no such game.
+   */
+  public ArchivedGame read(long id) throws IOException {
+    if (id < 0 || id >= count) {
+      throw new IllegalArgumentException("No game " + id + " in an archive of " + count);
+    }
+    ByteBuffer map = index[(int) (id / ENTRIES_PER_MAP)];
+    int entry = (int) (id % ENTRIES_PER_MAP) * ArchiveWriter.INDEX_ENTRY;
+    int segment = map.getInt(entry);
+    int start = map.getInt(entry + 4);
+    long offset = map.getLong(entry + 8);
+    ByteBuffer block = segments[segment];
+    // The record ends where the next game of the same block starts, or with the block.
+    int end = block.getInt((int) offset + 12);
+    if (id + 1 < count) {
+      ByteBuffer nextMap = index[(int) ((id + 1) / ENTRIES_PER_MAP)];
+      int next = (int) ((id + 1) % ENTRIES_PER_MAP) * ArchiveWriter.INDEX_ENTRY;
+      if (nextMap.getInt(next) == segment && nextMap.getLong(next + 8) == offset) {
+        end = nextMap.getInt(next + 4);
+      }
+    }
+    Inflater inflater = new Inflater();
+    try {
+      GameRecordReader reader = block(block, (int) offset, start, end, inflater);
+      reader.next();
+      int[] moves = new int[reader.getMoveCount()];
+      reader.readMoves(moves);
+      return new ArchivedGame(id, reader.getTopology(), reader.getBlack(), reader.getWhite(),
+              moves);
+    } finally {
+      inflater.end();
+    }
+  }
+
+  /**
+   * Inflates a block up to the given end and opens a record reader on it, starting at the
+   * record at the given offset. Deflated data is only read from its start, so a game early in
+   * a block is read faster than a late one. The record header the reader expects is taken from
+   * the start of the block.
+   */
+  private static GameRecordReader block(ByteBuffer segment, int at, int start, int end,
+                                        Inflater inflater) throws IOException {
+    int length = segment.getInt(at + 16);
+    byte[] bytes = new byte[end];
+    inflater.reset();
+    inflater.setInput(segment.duplicate().position(at + ArchiveWriter.BLOCK_HEADER)
+            .limit(at + ArchiveWriter.BLOCK_HEADER + length));
+    try {
+      int done = 0;
+      while (done < end && !inflater.finished()) {
+        int n = inflater.inflate(bytes, done, end - done);
+        if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+          break;
+        }
+        done += n;
+      }
+      if (done != end) {
+        throw new IOException("Archive block at " + at + " is cut short");
+      }
+    } catch (DataFormatException e) {
+      throw new IOException("Archive block at " + at + " is damaged", e);
+    }
+    if (start > RECORD_HEADER) {
+      System.arraycopy(bytes, 0, bytes, start - RECORD_HEADER, RECORD_HEADER);
+    }
+    return new GameRecordReader(new ByteArrayInputStream(bytes, start - RECORD_HEADER,
+            end - start + RECORD_HEADER));
+  }
+
+  /**
+   * Visits every game of the archive on several threads. Each thread takes the next block not
+   * yet taken, in file order, and hands its games, in order, to a visitor of its own, so visitors
+   * need no locking and can be merged at the end.
+   *
+   * @param threads  the number of worker threads.
+   * @param visitors makes one visitor per thread.
+   * @param <T>      the type of visitor.
+   * @return the visitors used, one per thread.
+   * @throws IOException if a block cannot be read or a visitor fails.
+   */
+  public <T extends GameVisitor> List<T> scan(int threads, Supplier<T> visitors)
+          throws IOException {
+    if (threads < 1) {
+      throw new IllegalArgumentException("Need at least one thread");
+    }
+    List<T> used = new ArrayList<>();
+    AtomicInteger next = new AtomicInteger();
+    ExecutorService pool = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < threads; t++) {
+        T visitor = visitors.get();
+        used.add(visitor);
+        futures.add(pool.submit(() -> {
+          Inflater inflater = new Inflater();
+          try {
+            for (int b = next.getAndIncrement(); b < blocks.length; b = next.getAndIncrement()) {
+              ByteBuffer segment = segments[(int) (blocks[b] >>> 32)];
+              int at = (int) blocks[b];
+              long id = segment.getLong(at);
+              GameRecordReader reader = block(segment, at, RECORD_HEADER,
+                      segment.getInt(at + 12), inflater);
+              while (reader.next()) {
+                visitor.visit(id++, reader);
+              }
+            }
+          } finally {
+            inflater.end();
+          }
+          return null;
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Scan was interrupted", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      throw new IllegalStateException("A scan worker failed", e.getCause());
+    } finally {
+      pool.shutdownNow();
+    }
+    return used;
+  }
+
+  /**
+   * Gives the number of blocks in the archive.
+   *
+   * @return the number of blocks.
+   */
+  public int getBlockCount() {
+    return blocks.length;
+  }
+}
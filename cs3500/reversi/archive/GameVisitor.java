@@ -0,0 +1,22 @@
+package cs3500.reversi.archive;
+
+import java.io.IOException;
+
+import cs3500.reversi.record.GameRecordReader;
+
+/**
+ * Receives the games of an archive scan, one at a time, as {@link GameArchive#scan} reads them.
+ * Each visitor is used by a single thread.
+ */
+public interface GameVisitor {
+
+  /**
+   * Visits one game.
+   *
+   * @param gameId the id of the game in the archive.
+   * @param game   a reader positioned on the game, whose board and players are read and whose
+   *               moves are left to the visitor; moves it does not read are skipped.
+   * @throws IOException if the game cannot be read.
+   */
+  void visit(long gameId, GameRecordReader game) throws IOException;
+}
@@ -0,0 +1,420 @@
+package cs3500.reversi.archive;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import cs3500.reversi.model.engine.BoardTopology;
+import cs3500.reversi.model.engine.FastGame;
+import cs3500.reversi.record.GameRecordReader;
+
+/**
+ * Finds the games of a {@link GameArchive} that reached a position, and the ply at which they
+ * reached it, from a memory mapped file. Every position of every game, from the start position
+ * on, is an entry: the position's {@link #key(FastGame)} and a posting of the game id and the
+ * ply. Entries are sorted by key, then game id, then ply, so a lookup is a binary search and the
+ * games of a position come out in id order.
+ *
+ * <p>The file is big endian: the magic number {@code RVPX}, the format version, the number of
+ * entries, then the entries, 16 bytes each. It is built by {@link #build} in two passes: the
+ * archive is scanned on several threads, each replaying its games and writing sorted runs of
+ * entries to temporary files, and the runs are then merged into the index.
+ */
+public final class PositionIndex {
+  private static final int MAGIC = 0x52565058;
+  private static final int VERSION = 1;
+  private static final int HEADER = 16;
+  private static final int ENTRY = 16;
+  // Entries per mapping, so a mapping stays below 2 GB.
+  private static final int ENTRIES_PER_MAP = 1 << 26;
+  private static final int PLY_BITS = 16;
+
+  private final long count;
+  private final ByteBuffer[] entries;
+
+  private PositionIndex(long count, ByteBuffer[] entries) {
+    this.count = count;
+    this.entries = entries;
+  }
+
+  /**
+   * Gives the key a position is indexed under: its Zobrist hash mixed with its board, so equal
+   * cells on different boards do not meet.
+   *
+   * @param position the position.
+   * @return the key.
+   */
+  public static long key(FastGame position) {
+    BoardTopology topology = position.getTopology();
+    long board = topology.getSize() * 2L + (topology.isHex() ? 1 : 0);
+    return position.hash() ^ board * 0x9e3779b97f4a7c15L;
+  }
+
+  /**
+   * Gives the game id of a posting.
+   *
+   * @param posting a posting from {@link #lookup}.
+   * @return the game id in the archive.
+   */
+  public static long gameId(long posting) {
+    return posting >>> PLY_BITS;
+  }
+
+  /**
+   * Gives the ply of a posting: the number of moves the game had played when it reached the
+   * position.
+   *
+   * @param posting a posting from {@link #lookup}.
+   * @return the ply.
+   */
+  public static int ply(long posting) {
+    return (int) (posting & ((1 << PLY_BITS) - 1));
+  }
+
+  /**
+   * Maps an index file into memory.
+   *
+   * @param file the file.
+   * @return the index.
+   * @throws IOException              if the file cannot be read.
+   * @throws IllegalArgumentException if the file is not a position index.
+   */
+  public static PositionIndex open(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      ByteBuffer header = ByteBuffer.allocate(HEADER);
+      channel.read(header, 0);
+      if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+        throw new IllegalArgumentException(file + " is not a position index");
+      }
+      long count = header.getLong(8);
+      if (channel.size() != HEADER + count * ENTRY) {
+        throw new IllegalArgumentException(file + " is cut short");
+      }
+      ByteBuffer[] entries = new ByteBuffer[(int) ((count + ENTRIES_PER_MAP - 1)
+              / ENTRIES_PER_MAP)];
+      for (int i = 0; i < entries.length; i++) {
+        long first = (long) i * ENTRIES_PER_MAP;
+        entries[i] = channel.map(FileChannel.MapMode.READ_ONLY, HEADER + first * ENTRY,
+                Math.min(ENTRIES_PER_MAP, count - first) * ENTRY);
+      }
+      return new PositionIndex(count, entries);
+    }
+  }
+
+  private long keyAt(long i) {
+    return entries[(int) (i / ENTRIES_PER_MAP)].getLong((int) (i % ENTRIES_PER_MAP) * ENTRY);
+  }
+
+  private long postingAt(long i) {
+    return entries[(int) (i / ENTRIES_PER_MAP)]
+            .getLong((int) (i % ENTRIES_PER_MAP) * ENTRY + 8);
+  }
+
+  /**
+   * Finds the first entry whose key is above the given one, or not below it if {@code equal}.
+   */
+  private long bound(long key, boolean equal) {
+    long lo = 0;
+    long hi = count;
+    while (lo < hi) {
+      long mid = (lo + hi) >>> 1;
+      long at = keyAt(mid);
+      if (at < key || !equal && at == key) {
+        lo = mid + 1;
+      } else {
+        hi = mid;
+      }
+    }
+    return lo;
+  }
+
+  /**
+   * Counts the times a position was reached in the archive.
+   *
+   * @param position the position.
+   * @return the number of postings.
+   */
+  public long count(FastGame position) {
+    long key = key(position);
+    return bound(key, false) - bound(key, true);
+  }
+
+  /**
+   * Gives the games that reached a position, in game id order.
+   *
+   * @param position the position.
+   * @param limit    the most postings to return.
+   * @return the postings; read them with {@link #gameId(long)} and {@link #ply(long)}.
+   * @throws IllegalArgumentException if the limit is negative.
+   */
+  public long[] lookup(FastGame position, int limit) {
+    if (limit < 0) {
+      throw new IllegalArgumentException("Limit cannot be negative");
+    }
+    long key = key(position);
+    long from = bound(key, true);
+    int n = 0;
+    long[] postings = new long[Math.min(limit, 16)];
+    for (long i = from; i < count && n < limit && keyAt(i) == key; i++) {
+      if (n == postings.length) {
+        postings = Arrays.copyOf(postings, (int) Math.min(limit, 2L * n));
+      }
+      postings[n++] = postingAt(i);
+    }
+    return Arrays.copyOf(postings, n);
+  }
+
+  /**
+   * Gives the number of entries of the index.
+   *
+   * @return the number of positions indexed, counted once per game that reached them.
+   */
+  public long size() {
+    return count;
+  }
+
+  /**
+   * Builds the index of an archive.
+   *
+   * @param archive    the archive.
+   * @param file       the index file to write.
+   * @param threads    the number of scanning threads.
+   * @param runEntries the entries each thread sorts in memory before writing a run; each
+   *                   thread holds 32 bytes per entry.
+   * @param log        where progress is reported.
+   * @throws IOException if the archive cannot be read or the index cannot be written.
+   */
+  public static void build(GameArchive archive, Path file, int threads, int runEntries,
+                           PrintStream log) throws IOException {
+    Path runs = Files.createTempDirectory(file.toAbsolutePath().getParent(), "runs");
+    try {
+      List<Path> files = new ArrayList<>();
+      long begin = System.nanoTime();
+      AtomicInteger names = new AtomicInteger();
+      List<RunWriter> writers = archive.scan(threads,
+              () -> new RunWriter(runs, names, runEntries));
+      long total = 0;
+      for (RunWriter writer : writers) {
+        writer.finish();
+        files.addAll(writer.files);
+        total += writer.written;
+      }
+      log.println("Sorted " + total + " entries into " + files.size() + " runs in "
+              + (System.nanoTime() - begin) / 1_000_000 + " ms");
+      merge(files, file, total);
+      log.println("Merged into " + file + " in " + (System.nanoTime() - begin) / 1_000_000
+              + " ms");
+    } finally {
+      try (DirectoryStream<Path> stream = Files.newDirectoryStream(runs)) {
+        for (Path run : stream) {
+          Files.delete(run);
+        }
+      }
+      Files.delete(runs);
+    }
+  }
+
+  /**
+   * Merges sorted runs into the index file.
+   */
+  private static void merge(List<Path> runs, Path file, long total) throws IOException {
+    int n = runs.size();
+    DataInputStream[] in = new DataInputStream[n];
+    long[] keys = new long[n];
+    long[] postings = new long[n];
+    // A binary heap of run numbers, ordered by their current entry.
+    int[] heap = new int[n];
+    int size = 0;
+    try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+            Files.newOutputStream(file), 1 << 16))) {
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      out.writeLong(total);
+      for (int r = 0; r < n; r++) {
+        in[r] = new DataInputStream(new BufferedInputStream(Files.newInputStream(runs.get(r)),
+                1 << 16));
+        if (advance(in[r], r, keys, postings)) {
+          heap[size++] = r;
+          siftUp(heap, size - 1, keys, postings);
+        }
+      }
+      while (size > 0) {
+        int r = heap[0];
+        out.writeLong(keys[r]);
+        out.writeLong(postings[r]);
+        if (!advance(in[r], r, keys, postings)) {
+          heap[0] = heap[--size];
+        }
+        siftDown(heap, size, keys, postings);
+      }
+    } finally {
+      for (DataInputStream stream : in) {
+        if (stream != null) {
+          stream.close();
+        }
+      }
+    }
+  }
+
+  private static boolean advance(DataInputStream in, int run, long[] keys, long[] postings)
+          throws IOException {
+    try {
+      keys[run] = in.readLong();
+    } catch (EOFException e) {
+      return false;
+    }
+    postings[run] = in.readLong();
+    return true;
+  }
+
+  private static boolean before(int a, int b, long[] keys, long[] postings) {
+    return keys[a] != keys[b] ? keys[a] < keys[b] : postings[a] < postings[b];
+  }
+
+  private static void siftUp(int[] heap, int at, long[] keys, long[] postings) {
+    while (at > 0 && before(heap[at], heap[(at - 1) / 2], keys, postings)) {
+      int parent = (at - 1) / 2;
+      int swap = heap[at];
+      heap[at] = heap[parent];
+      heap[parent] = swap;
+      at = parent;
+    }
+  }
+
+  private static void siftDown(int[] heap, int size, long[] keys, long[] postings) {
+    int at = 0;
+    while (true) {
+      int child = 2 * at + 1;
+      if (child >= size) {
+        return;
+      }
+      if (child + 1 < size && before(heap[child + 1], heap[child], keys, postings)) {
+        child++;
+      }
+      if (!before(heap[child], heap[at], keys, postings)) {
+        return;
+      }
+      int swap = heap[at];
+      heap[at] = heap[child];
+      heap[child] = swap;
+      at = child;
+    }
+  }
+
+  /**
+   * Replays the games of one scanning thread and writes their entries as sorted runs.
+   */
+  private static final class RunWriter implements GameVisitor {
+    private final Path directory;
+    private final AtomicInteger names;
+    private final List<Path> files = new ArrayList<>();
+    private long[] keys;
+    private long[] postings;
+    private long[] spareKeys;
+    private long[] sparePostings;
+    private int length;
+    private long written;
+    private FastGame position;
+
+    RunWriter(Path directory, AtomicInteger names, int runEntries) {
+      this.directory = directory;
+      this.names = names;
+      this.keys = new long[runEntries];
+      this.postings = new long[runEntries];
+      this.spareKeys = new long[runEntries];
+      this.sparePostings = new long[runEntries];
+    }
+
+    @Override
+    public void visit(long gameId, GameRecordReader game) throws IOException {
+      BoardTopology topology = game.getTopology();
+      if (position == null || !position.getTopology().equals(topology)) {
+        position = new FastGame(topology);
+      } else {
+        while (position.getPly() > 0) {
+          position.undo();
+        }
+      }
+      add(key(position), gameId << PLY_BITS);
+      while (game.hasMove()) {
+        int move = game.nextMove();
+        if (move == FastGame.PASS) {
+          position.pass();
+        } else {
+          position.play(move);
+        }
+        add(key(position), gameId << PLY_BITS | position.getPly());
+      }
+    }
+
+    private void add(long key, long posting) throws IOException {
+      if (length == keys.length) {
+        writeRun();
+      }
+      keys[length] = key;
+      postings[length] = posting;
+      length++;
+    }
+
+    void finish() throws IOException {
+      if (length > 0) {
+        writeRun();
+      }
+    }
+
+    /**
+     * Sorts the buffered entries by key, keeping the postings of a key in the order they were
+     * added, which is game id order, and writes them out.
+     */
+    private void writeRun() throws IOException {
+      // A stable radix sort, eight bits at a time; the top byte is flipped so it sorts signed.
+      int[] counts = new int[257];
+      for (int shift = 0; shift < 64; shift += 8) {
+        Arrays.fill(counts, 0);
+        long flip = shift == 56 ? 0x80 : 0;
+        for (int i = 0; i < length; i++) {
+          counts[(int) ((keys[i] >>> shift ^ flip) & 0xff) + 1]++;
+        }
+        for (int b = 0; b < 256; b++) {
+          counts[b + 1] += counts[b];
+        }
+        for (int i = 0; i < length; i++) {
+          int to = counts[(int) ((keys[i] >>> shift ^ flip) & 0xff)]++;
+          spareKeys[to] = keys[i];
+          sparePostings[to] = postings[i];
+        }
+        long[] swap = keys;
+        keys = spareKeys;
+        spareKeys = swap;
+        swap = postings;
+        postings = sparePostings;
+        sparePostings = swap;
+      }
+      Path run = directory.resolve("run-" + names.getAndIncrement());
+      try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+              Files.newOutputStream(run), 1 << 16))) {
+        for (int i = 0; i < length; i++) {
+          out.writeLong(keys[i]);
+          out.writeLong(postings[i]);
+        }
+      }
+      files.add(run);
+      written += length;
+      length = 0;
+    }
+  }
+}
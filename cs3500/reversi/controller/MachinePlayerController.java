@@ -1,23 +1,53 @@
 package cs3500.reversi.controller;
 
+import java.time.Duration;
 import java.util.HashMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+
+import javax.swing.SwingUtilities;
 
 import cs3500.reversi.model.CellColor;
 import cs3500.reversi.model.CoordinateSystem;
+import cs3500.reversi.model.GameClock;
 import cs3500.reversi.model.IGame;
 import cs3500.reversi.model.MoveAction;
 import cs3500.reversi.model.StartGameListener;
+import cs3500.reversi.model.strategy.PonderingStrategy;
+import cs3500.reversi.players.Deadline;
 import cs3500.reversi.players.IPlayer;
 import cs3500.reversi.view.ReversiView;
 
 /**
  * Controller for the machine controller that will take in a strategy to use that and communicate
- * with the model and the view.
+ * with the model and the view. Moves are requested asynchronously from the player, which thinks
+ * on its own executor, so the thread that notified the controller (usually the Swing event
+ * thread) is never blocked, and the chosen move is handed back to a single game thread to be
+ * played. A player that misses the move time limit, or the time left on its clock when the game
+ * has one, or fails to choose a legal move, passes.
+ *
+ * <p>With pondering on, a player whose strategy is a {@link PonderingStrategy} keeps searching
+ * on a background thread of this controller during the opponent's turn. Pondering needs a spare
+ * core, so it stays off on single core hosts, where it would only slow the opponent down. The
+ * pondering is interrupted as soon as the turn comes back, and the move search then reuses what
+ * it found.
  */
 public class MachinePlayerController implements GameController {
   private final IGame model;
   private final IPlayer player;
   private final ReversiView view;
+  private final Duration moveTime;
+  private final Executor gameThread;
+  // Bumped on every turn change and at the end of the game; a search whose request is no longer
+  // the latest one is stale and its move is dropped. Only touched on the game thread.
+  private int request;
+  private CompletableFuture<MoveAction> pending;
+  private final ExecutorService ponderThread;
+  private FutureTask<Void> pondering;
 
   /**
    * This constructor will act as the machine player's
@@ -31,9 +61,59 @@ public class MachinePlayerController implements GameController {
    */
   public MachinePlayerController(IGame model, IPlayer player, ReversiView view,
                                  StartGameListener gameStartCoordinator) {
+    this(model, player, view, gameStartCoordinator, null, SwingUtilities::invokeLater);
+  }
+
+  /**
+   * Creates a machine player's controller with a time limit per move that plays the chosen moves
+   * through the given game thread.
+   *
+   * @param model                Current game.
+   * @param player               Current player.
+   * @param view                 Machine view.
+   * @param gameStartCoordinator The listener seeing if the game has started.
+   * @param moveTime             The time the player has for each move, or null for no limit.
+   * @param gameThread           Runs every change to the model, in order, on one thread.
+   */
+  public MachinePlayerController(IGame model, IPlayer player, ReversiView view,
+                                 StartGameListener gameStartCoordinator,
+                                 Duration moveTime, Executor gameThread) {
+    this(model, player, view, gameStartCoordinator, moveTime, gameThread, false);
+  }
+
+  /**
+   * Creates a machine player's controller with a time limit per move that plays the chosen moves
+   * through the given game thread, and that may ponder during the opponent's turn.
+   *
+   * @param model                Current game.
+   * @param player               Current player.
+   * @param view                 Machine view.
+   * @param gameStartCoordinator The listener seeing if the game has started.
+   * @param moveTime             The time the player has for each move, or null for no limit.
+   * @param gameThread           Runs every change to the model, in order, on one thread.
+   * @param ponder               Whether to ponder, if the player's strategy can.
+   */
+  public MachinePlayerController(IGame model, IPlayer player, ReversiView view,
+                                 StartGameListener gameStartCoordinator,
+                                 Duration moveTime, Executor gameThread, boolean ponder) {
+    if (gameThread == null) {
+      throw new IllegalArgumentException("Game thread cannot be null");
+    }
     this.model = model;
     this.player = player;
     this.view = view;
+    this.moveTime = moveTime;
+    this.gameThread = gameThread;
+    if (ponder && player.getStrategy() instanceof PonderingStrategy
+            && Runtime.getRuntime().availableProcessors() > 1) {
+      this.ponderThread = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "reversi-ponder-" + player.getColor());
+        thread.setDaemon(true);
+        return thread;
+      });
+    } else {
+      this.ponderThread = null;
+    }
 
     // Register the controller as a listener for player actions and model status changes
     view.addPlayerActionListener(this);
@@ -49,7 +129,12 @@ public class MachinePlayerController implements GameController {
     } else {
       CoordinateSystem move = action.getMove();
       if (model.getCurrentPlayer().equals(player)) {
-        player.play(model, move.getQ(), move.getR());
+        if (model.isValidMove(move.getQ(), move.getR(), player.getColor())) {
+          player.play(model, move.getQ(), move.getR());
+        } else {
+          // A strategy that picks an illegal move has failed to choose one.
+          attemptPassTurn();
+        }
       }
     }
   }
@@ -67,12 +152,80 @@ public class MachinePlayerController implements GameController {
 
   @Override
   public void onTurnChanged(IPlayer currentPlayer) {
-    MoveAction action = player.getStrategy().chooseMove(model, currentPlayer.getColor());
-    attemptPlay(action);
+    stopPondering();
+    requestMove(currentPlayer.getColor());
+  }
+
+  /**
+   * Asks the player for a move. When the answer arrives the move is played on the game thread,
+   * unless the game has moved on in the meantime.
+   *
+   * @param color the color to move.
+   */
+  private void requestMove(CellColor color) {
+    int current = ++request;
+    if (pending != null) {
+      pending.cancel(true);
+    }
+    Deadline deadline = moveTime == null ? Deadline.none() : Deadline.after(moveTime);
+    GameClock clock = model.getClock();
+    if (clock != null && clock.remainingNanos(color) < deadline.remainingNanos()) {
+      deadline = Deadline.after(Duration.ofNanos(Math.max(0, clock.remainingNanos(color))));
+    }
+    pending = player.requestMove(model, deadline);
+    pending.whenComplete((action, error) -> {
+      if (error instanceof CancellationException) {
+        return;
+      }
+      gameThread.execute(() -> {
+        if (current == request && !model.isGameOver()
+                && model.getCurrentPlayer().getColor() == color) {
+          attemptPlay(error == null ? action : new MoveAction());
+          startPondering();
+        }
+      });
+    });
+  }
+
+  /**
+   * Starts pondering on the current position if pondering is on and the opponent is to move.
+   * Playing a move can hand the turn straight back, when the opponent has to pass, in which case
+   * there is nothing to ponder.
+   */
+  private void startPondering() {
+    if (ponderThread == null || model.isGameOver()
+            || model.getCurrentPlayer().getColor() == player.getColor()) {
+      return;
+    }
+    stopPondering();
+    PonderingStrategy strategy = (PonderingStrategy) player.getStrategy();
+    IGame position = model.cloneGame();
+    pondering = new FutureTask<>(() -> strategy.ponder(position, player.getColor()), null);
+    ponderThread.execute(pondering);
+  }
+
+  /**
+   * Interrupts the pondering, if any. The interrupted search finishes on its own thread; the
+   * next move search waits for it before it starts.
+   */
+  private void stopPondering() {
+    if (pondering != null) {
+      ((PonderingStrategy) player.getStrategy()).interrupt();
+      pondering.cancel(true);
+      pondering = null;
+    }
   }
 
   @Override
   public void onGameEnded(IPlayer winner) {
+    request++;
+    if (pending != null) {
+      pending.cancel(true);
+    }
+    stopPondering();
+    if (ponderThread != null) {
+      ponderThread.shutdownNow();
+    }
     // Handle the end of the game in the view
     view.displayEndGame(winner);
   }
@@ -89,8 +242,13 @@ public class MachinePlayerController implements GameController {
 
   @Override
   public void onGameStarted() {
-    MoveAction action = player.getStrategy().chooseMove(model, CellColor.BLACK);
-    attemptPlay(action);
+    // Called on the thread that started the game; requests are only made on the game thread.
+    // A turn change may have got there first, in which case the first move is already asked for.
+    gameThread.execute(() -> {
+      if (pending == null && !model.isGameOver()) {
+        requestMove(model.getCurrentPlayer().getColor());
+      }
+    });
   }
 
   @Override
@@ -100,6 +258,7 @@ public class MachinePlayerController implements GameController {
 
   @Override
   public void onNoValidMove() {
+    stopPondering();
     attemptPassTurn();
   }
 }
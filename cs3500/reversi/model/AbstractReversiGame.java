@@ -1,8 +1,9 @@
 package cs3500.reversi.model;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 import cs3500.reversi.controller.ModelStatus;
 import cs3500.reversi.players.IPlayer;
@@ -13,6 +14,8 @@ import cs3500.reversi.players.IPlayer;
  * and functionalities common to different versions of the Reversi game.
  */
 public abstract class AbstractReversiGame implements IGame {
+  // Snapshot header: board kind, board size, turn flags, and the two scores as shorts.
+  private static final int STATE_HEADER = 7;
 
   protected final IPlayer[] players = new IPlayer[2];
   protected final List<ModelStatus> modelStatusListeners = new ArrayList<>();
@@ -21,6 +24,9 @@ public abstract class AbstractReversiGame implements IGame {
   protected CellColor lastPlayedColor;
   protected int numOfPasses;
   protected boolean isGameStarted = false;
+  protected GameClock clock;
+  protected MoveJournal journal;
+  protected long journalId;
 
   /**
    * Constructs an AbstractReversiGame with two players and a specified board size.
@@ -60,6 +66,9 @@ public abstract class AbstractReversiGame implements IGame {
     }
     // Flag the game as started
     isGameStarted = true;
+    if (clock != null) {
+      clock.start(getCurrentPlayer().getColor());
+    }
     notifyFirstPlayer();
     notifyBoardStateChanged();
   }
@@ -82,9 +91,164 @@ public abstract class AbstractReversiGame implements IGame {
     clonedGame.currentPlayerIndex = this.currentPlayerIndex;
     clonedGame.lastPlayedColor = this.lastPlayedColor;
     clonedGame.numOfPasses = this.numOfPasses;
+    clonedGame.isGameStarted = this.isGameStarted;
+    clonedGame.clock = this.clock == null ? null : new GameClock(this.clock);
     return clonedGame;
   }
 
+  @Override
+  public void setClock(GameClock clock) {
+    this.clock = clock;
+    if (clock != null && isGameStarted && !isGameOver()) {
+      clock.start(getCurrentPlayer().getColor());
+    }
+  }
+
+  @Override
+  public void setJournal(MoveJournal journal, long gameId) {
+    if (journal != null) {
+      // A new entry starts from the start position, so earlier moves could not be replayed.
+      if (!journal.holds(gameId) && !isAtStart()) {
+        throw new IllegalStateException("Cannot start journaling a game that has moved");
+      }
+      try {
+        journal.begin(gameId, board);
+      } catch (IOException e) {
+        throw new IllegalStateException("Cannot write to the move journal", e);
+      }
+    }
+    this.journal = journal;
+    this.journalId = gameId;
+  }
+
+  /**
+   * Checks whether the game is still in its start position, with black to move.
+   */
+  private boolean isAtStart() {
+    IBoard start = board.cloneBoard();
+    start.initializeBoard();
+    return currentPlayerIndex == 0 && numOfPasses == 0
+            && start.getBoard().equals(board.getBoard());
+  }
+
+  @Override
+  public int getStateSize() {
+    return STATE_HEADER + (cellCount() + 3) / 4;
+  }
+
+  @Override
+  public void saveState(ByteBuffer out) {
+    CellColor toMove = players[currentPlayerIndex].getColor();
+    out.put((byte) (board instanceof HexBoard ? 1 : 0));
+    out.put((byte) board.getLength());
+    out.put((byte) (toMove.ordinal() | Math.min(numOfPasses, 3) << 2
+            | lastPlayedColor.ordinal() << 4));
+    out.putShort((short) board.countBlackHexes());
+    out.putShort((short) board.countWhiteHexes());
+    int packed = 0;
+    int cell = 0;
+    for (int q = 0; q < board.getRows(); q++) {
+      for (int r = 0; r < board.getNumberOfColumnsInRow(q); r++) {
+        packed |= stateCode(board.getCellColor(q, r)) << 2 * (cell & 3);
+        if ((++cell & 3) == 0) {
+          out.put((byte) packed);
+          packed = 0;
+        }
+      }
+    }
+    if ((cell & 3) != 0) {
+      out.put((byte) packed);
+    }
+  }
+
+  @Override
+  public void restoreState(ByteBuffer in) {
+    if (journal != null) {
+      // The journal would go on from the old position, and could not be replayed.
+      throw new IllegalStateException("Cannot restore a game that is being journaled");
+    }
+    if (in.get() != (board instanceof HexBoard ? 1 : 0) || in.get() != board.getLength()) {
+      throw new IllegalArgumentException("Snapshot is of another board");
+    }
+    int flags = in.get();
+    // Only BLACK and WHITE, the first two colors, can move or have moved.
+    if ((flags & 3) > 1 || (flags >> 4 & 3) > 1) {
+      throw new IllegalArgumentException("Snapshot has a bad side to move");
+    }
+    CellColor[] colors = CellColor.values();
+    CellColor toMove = colors[flags & 3];
+    CellColor last = colors[flags >> 4 & 3];
+    int index = players[0].getColor() == toMove ? 0 : 1;
+    if (players[index].getColor() != toMove) {
+      throw new IllegalArgumentException("Snapshot has a bad side to move");
+    }
+    int black = in.getShort();
+    int white = in.getShort();
+    CellColor[] cells = new CellColor[cellCount()];
+    int packed = 0;
+    int blackCounted = 0;
+    int whiteCounted = 0;
+    for (int cell = 0; cell < cells.length; cell++) {
+      if ((cell & 3) == 0) {
+        packed = in.get();
+      }
+      int code = packed >> 2 * (cell & 3) & 3;
+      if (code == 3) {
+        throw new IllegalArgumentException("Snapshot has a bad cell");
+      }
+      if (code == 1) {
+        cells[cell] = CellColor.BLACK;
+        blackCounted++;
+      } else if (code == 2) {
+        cells[cell] = CellColor.WHITE;
+        whiteCounted++;
+      } else {
+        cells[cell] = CellColor.EMPTY;
+      }
+    }
+    if (blackCounted != black || whiteCounted != white) {
+      throw new IllegalArgumentException("Snapshot scores do not match its cells");
+    }
+
+    int cell = 0;
+    for (int q = 0; q < board.getRows(); q++) {
+      for (int r = 0; r < board.getNumberOfColumnsInRow(q); r++) {
+        board.setCell(q, r, cells[cell++]);
+      }
+    }
+    currentPlayerIndex = index;
+    numOfPasses = flags >> 2 & 3;
+    lastPlayedColor = last;
+    if (clock != null && isGameStarted) {
+      if (isGameOver()) {
+        clock.stop();
+      } else {
+        clock.start(getCurrentPlayer().getColor());
+      }
+    }
+    if (isGameStarted) {
+      notifyBoardStateChanged();
+      notifyScoreUpdated();
+    }
+  }
+
+  private int cellCount() {
+    int count = 0;
+    for (int q = 0; q < board.getRows(); q++) {
+      count += board.getNumberOfColumnsInRow(q);
+    }
+    return count;
+  }
+
+  private static int stateCode(CellColor color) {
+    return color == CellColor.BLACK ? 1 : color == CellColor.WHITE ? 2 : 0;
+  }
+
+  @Override
+  public GameClock getClock() {
+    return clock == null ? null : new GameClock(clock);
+  }
+
   @Override
   public IBoard getGrid() {
     return board;
@@ -114,6 +278,14 @@ public abstract class AbstractReversiGame implements IGame {
     if (captured.isEmpty()) {
       throw new IllegalArgumentException("Move cannot capture any discs.");
     }
+    if (journal != null) {
+      // Journal first, so a move the game has made is always recovered.
+      try {
+        journal.move(journalId, q, r, color);
+      } catch (IOException e) {
+        throw new IllegalStateException("Cannot write to the move journal", e);
+      }
+    }
 
     // Apply the move and flip the captured discs
     board.setCell(q, r, color);
@@ -161,6 +333,16 @@ public abstract class AbstractReversiGame implements IGame {
     } else {
       checkIfGameStarted();
       ifGameOver();
+      if (journal != null) {
+        try {
+          journal.pass(journalId, color);
+          if (numOfPasses + 1 >= 2) {
+            journal.end(journalId);
+          }
+        } catch (IOException e) {
+          throw new IllegalStateException("Cannot write to the move journal", e);
+        }
+      }
       numOfPasses++;
       swapPlayers();
       lastPlayedColor = color;
@@ -186,6 +368,9 @@ public abstract class AbstractReversiGame implements IGame {
   private void swapPlayers() {
     ifGameOver();
     currentPlayerIndex = 1 - currentPlayerIndex;
+    if (clock != null && !isGameOver()) {
+      clock.start(getCurrentPlayer().getColor());
+    }
     changeTurnInfo();
     notifyBoardStateChanged();
     notifyTurnChanged();
@@ -199,6 +384,9 @@ public abstract class AbstractReversiGame implements IGame {
 
   private void ifGameOver() {
     if (isGameOver()) {
+      if (clock != null) {
+        clock.stop();
+      }
       notifyGameEnded();
     }
   }
@@ -207,28 +395,29 @@ public abstract class AbstractReversiGame implements IGame {
   public IPlayer winner() {
     checkIfGameStarted();
     if (board.countBlackHexes() > board.countWhiteHexes()) {
-      if (getCurrentPlayer().getColor() == CellColor.BLACK) {
-        return getCurrentPlayer();
-      } else {
-        return players[currentPlayerIndex - 1];
-      }
+      return playerOfColor(CellColor.BLACK);
     } else if (board.countBlackHexes() < board.countWhiteHexes()) {
-      if (getCurrentPlayer().getColor() == CellColor.WHITE) {
-        return getCurrentPlayer();
-      } else {
-        return players[currentPlayerIndex - 1];
-      }
+      return playerOfColor(CellColor.WHITE);
     } else {
       return players[currentPlayerIndex];
     }
   }
 
+  /**
+   * Finds the player playing the given color.
+   *
+   * @param color the color to look for.
+   * @return the player with that color.
+   */
+  private IPlayer playerOfColor(CellColor color) {
+    return players[0].getColor() == color ? players[0] : players[1];
+  }
+
 
   @Override
   public boolean hasValidMoveForPlayer(CellColor playerColor) {
-    int numRows = 2 * board.getLength() - 1;
-    for (int q = 0; q < numRows; q++) {
-      int numPieces = q < board.getLength() ? board.getLength() + q : numRows - q;
+    for (int q = 0; q < board.getRows(); q++) {
+      int numPieces = board.getNumberOfColumnsInRow(q);
       for (int r = 0; r < numPieces; r++) {
         if (isValidMove(q, r, playerColor)) {
           return true;
@@ -273,21 +462,10 @@ public abstract class AbstractReversiGame implements IGame {
 
     CellColor opponentColor = (playerColor == CellColor.BLACK) ? CellColor.WHITE : CellColor.BLACK;
 
-    List<CoordinateSystem> directions = board.getNeighbors(q, r).stream()
-            .map(hex -> {
-              int neighborQ = q + hex.getQ();
-              int neighborR = r + hex.getR();
-              if (board.isValidCoordinate(neighborQ, neighborR)) {
-                return hex;
-              } else {
-                return new Disc(-1, -1); // use invalid placeholder
-              }
-            })
-            .collect(Collectors.toList());
-
-
-    for (CoordinateSystem dir : directions) {
-      int index = directions.indexOf(dir);
+    List<CoordinateSystem> directions = board.getNeighbors(q, r);
+
+    for (int index = 0; index < directions.size(); index++) {
+      CoordinateSystem dir = directions.get(index);
       int currentQ = q + dir.getQ();
       int currentR = r + dir.getR();
       List<Disc> potentialCapture = new ArrayList<>();
@@ -390,8 +568,10 @@ public abstract class AbstractReversiGame implements IGame {
    */
   private void notifyTurnChanged() {
     int currentIndex = currentPlayerIndex;
-    ModelStatus current = modelStatusListeners.get(currentIndex);
-    current.onTurnChanged(getCurrentPlayer());
+    if (currentIndex < modelStatusListeners.size()) {
+      ModelStatus current = modelStatusListeners.get(currentIndex);
+      current.onTurnChanged(getCurrentPlayer());
+    }
   }
 
 
@@ -429,7 +609,9 @@ public abstract class AbstractReversiGame implements IGame {
    */
   private void notifyPlayerNoValidMove() {
     int currentIndex = currentPlayerIndex;
-    ModelStatus current = modelStatusListeners.get(currentIndex);
-    current.onNoValidMove();
+    if (currentIndex < modelStatusListeners.size()) {
+      ModelStatus current = modelStatusListeners.get(currentIndex);
+      current.onNoValidMove();
+    }
   }
 }
@@ -0,0 +1,150 @@
+package cs3500.reversi.model;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * A chess style clock for a game of Reversi: each color has a bank of time that runs down while
+ * it is that color's turn, and gains a fixed increment every time the color hands the turn over.
+ * The game starts the clock of the side to move at every turn change and stops the clocks when
+ * the game ends. A color whose bank reaches zero has run out of time; what that means is up to
+ * whoever runs the game.
+ */
+public final class GameClock {
+  private final long[] remaining = new long[2];
+  private final long increment;
+  private final LongSupplier time;
+  private CellColor running;
+  private long startedAt;
+
+  /**
+   * Creates a stopped clock that gives both colors the same bank, measured with
+   * {@link System#nanoTime()}.
+   *
+   * @param bank      the starting time of each color.
+   * @param increment the time added after each turn, may be zero.
+   */
+  public GameClock(Duration bank, Duration increment) {
+    this(bank, increment, System::nanoTime);
+  }
+
+  /**
+   * Creates a stopped clock that reads time from the given source.
+   *
+   * @param bank      the starting time of each color.
+   * @param increment the time added after each turn, may be zero.
+   * @param time      a monotonic time source in nanoseconds.
+   */
+  public GameClock(Duration bank, Duration increment, LongSupplier time) {
+    if (bank == null || increment == null || time == null) {
+      throw new IllegalArgumentException("Clock settings cannot be null");
+    }
+    if (bank.isNegative() || bank.isZero() || increment.isNegative()) {
+      throw new IllegalArgumentException("Bank must be positive and increment not negative");
+    }
+    this.remaining[0] = bank.toNanos();
+    this.remaining[1] = bank.toNanos();
+    this.increment = increment.toNanos();
+    this.time = time;
+  }
+
+  /**
+   * Copies a clock, including which color is running. The copy runs on its own from then on.
+   *
+   * @param other the clock to copy.
+   */
+  public GameClock(GameClock other) {
+    synchronized (other) {
+      this.remaining[0] = other.remaining[0];
+      this.remaining[1] = other.remaining[1];
+      this.increment = other.increment;
+      this.time = other.time;
+      this.running = other.running;
+      this.startedAt = other.startedAt;
+    }
+  }
+
+  /**
+   * Starts the clock of the given color. If the other color's clock was running it is stopped
+   * first and gets its increment.
+   *
+   * @param color the color whose turn it now is.
+   */
+  public synchronized void start(CellColor color) {
+    if (color == null) {
+      throw new IllegalArgumentException("Invalid color");
+    }
+    if (color == running) {
+      return;
+    }
+    stop();
+    running = color;
+    startedAt = time.getAsLong();
+  }
+
+  /**
+   * Stops the running clock, charging it the time used and adding the increment. Does nothing if
+   * no clock is running.
+   */
+  public synchronized void stop() {
+    if (running != null) {
+      int index = index(running);
+      remaining[index] -= time.getAsLong() - startedAt;
+      if (remaining[index] > 0) {
+        remaining[index] += increment;
+      }
+      running = null;
+    }
+  }
+
+  /**
+   * Gives the time a color has left, counting the current turn if its clock is running.
+   *
+   * @param color the color to look at.
+   * @return the remaining time in nanoseconds, negative once the color has run out.
+   */
+  public synchronized long remainingNanos(CellColor color) {
+    long left = remaining[index(color)];
+    if (color == running) {
+      left -= time.getAsLong() - startedAt;
+    }
+    return left;
+  }
+
+  /**
+   * Checks whether a color has run out of time.
+   *
+   * @param color the color to look at.
+   * @return true if the color's bank is used up.
+   */
+  public boolean isFlagged(CellColor color) {
+    return remainingNanos(color) <= 0;
+  }
+
+  /**
+   * Gives the time added after each turn.
+   *
+   * @return the increment in nanoseconds.
+   */
+  public long getIncrementNanos() {
+    return increment;
+  }
+
+  /**
+   * Gives the color whose clock is running.
+   *
+   * @return the color, or null if the clock is stopped.
+   */
+  public synchronized CellColor getRunning() {
+    return running;
+  }
+
+  private static int index(CellColor color) {
+    if (color == CellColor.BLACK) {
+      return 0;
+    } else if (color == CellColor.WHITE) {
+      return 1;
+    }
+    throw new IllegalArgumentException("Only black and white have clocks");
+  }
+}
@@ -46,7 +46,7 @@ public class HexBoard implements IBoard {
       throw new IllegalArgumentException("Invalid board size.");
     }
     this.size = other.size;
-    initializeBoard();
+    this.board = new HashMap<>(other.board);
   }
 
   @Override
@@ -120,14 +120,14 @@ public class HexBoard implements IBoard {
   public List<CoordinateSystem> getCorners() {
     List<CoordinateSystem> corners = new ArrayList<>();
 
-    int numRows = 2 * this.size - 2;
+    int lastRow = 2 * this.size - 2;
 
     corners.add(new Disc(0, 0));
     corners.add(new Disc(0, this.size - 1));
     corners.add(new Disc(this.size - 1, 0));
-    corners.add(new Disc(this.size - 1, numRows - 2));
-    corners.add(new Disc(numRows - 2, 0));
-    corners.add(new Disc(numRows - 2, this.size - 1));
+    corners.add(new Disc(this.size - 1, lastRow));
+    corners.add(new Disc(lastRow, 0));
+    corners.add(new Disc(lastRow, this.size - 1));
 
     return corners;
   }
@@ -159,7 +159,7 @@ public class HexBoard implements IBoard {
     if (q < this.size) {
       return r >= 0 && r < q + this.size;
     } else {
-      return r >= 0 && r < 3 * this.size - 1 - q;
+      return r >= 0 && r < 3 * this.size - 2 - q;
     }
   }
 
@@ -1,5 +1,6 @@
 package cs3500.reversi.model;
 
+import java.nio.ByteBuffer;
 
 /**
  * This is the Rule keeper of the reversi game, making sure that no player can make a move that
@@ -37,4 +38,36 @@ public interface IGame extends ReadOnlyIGame {
    * @return The Board.
    */
   IBoard getGrid();
+
+  /**
+   * Puts the game on a clock. If the game is already under way the clock of the side to move
+   * starts at once; otherwise it starts with the game.
+   *
+   * @param clock the clock, or null to play without one.
+   */
+  void setClock(GameClock clock);
+
+  /**
+   * Writes the game's moves and passes to a journal from now on, so it can be rebuilt after a
+   * crash. A game the journal does not hold yet is recorded as beginning; one it holds, because
+   * it was recovered from the journal and replayed, goes on after its earlier entries.
+   *
+   * @param journal the journal, or null to stop journaling.
+   * @param gameId  the id of the game in the journal.
+   * @throws IllegalStateException if the journal cannot be written, or does not hold the game
+   *                               and the game has left its start position.
+   */
+  void setJournal(MoveJournal journal, long gameId);
+
+  /**
+   * Puts the game in the state of a snapshot written by {@link #saveState(ByteBuffer)}. The
+   * game keeps its players, listeners and clock, and must be played on the same board. The
+   * clock, if any, runs for the side to move of the snapshot.
+   *
+   * @param in the buffer to read from, from its position.
+   * @throws IllegalArgumentException if the snapshot is of another board or is malformed.
+   * @throws IllegalStateException    if the game is being journaled.
+   * @throws java.nio.BufferUnderflowException if the snapshot is cut short.
+   */
+  void restoreState(ByteBuffer in);
 }
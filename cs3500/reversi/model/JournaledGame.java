@@ -0,0 +1,89 @@
+package cs3500.reversi.model;
+
+import java.util.Arrays;
+
+/**
+ * A game read back from a {@link MoveJournal}: its id, its board, and the moves and passes it
+ * had made when the journal was last written. Replaying it onto a new, started game of the same
+ * board brings that game to where the journaled one stopped.
+ */
+public final class JournaledGame {
+  static final int PASS = -1;
+
+  private final long gameId;
+  private final boolean hex;
+  private final int size;
+  // Each play as its row, column and color; a pass has row PASS.
+  private int[] plays = new int[3 * 64];
+  private int count;
+
+  JournaledGame(long gameId, boolean hex, int size) {
+    this.gameId = gameId;
+    this.hex = hex;
+    this.size = size;
+  }
+
+  void add(int q, int r, CellColor color) {
+    if (3 * count + 3 > plays.length) {
+      plays = Arrays.copyOf(plays, 2 * plays.length);
+    }
+    plays[3 * count] = q;
+    plays[3 * count + 1] = r;
+    plays[3 * count + 2] = color.ordinal();
+    count++;
+  }
+
+  public long getGameId() {
+    return gameId;
+  }
+
+  /**
+   * Tells whether the game is played on a hex board rather than a square one.
+   *
+   * @return true for a hex board.
+   */
+  public boolean isHex() {
+    return hex;
+  }
+
+  /**
+   * Gives the size of the board, as {@link IBoard#getLength()} reports it.
+   *
+   * @return the board size.
+   */
+  public int getSize() {
+    return size;
+  }
+
+  /**
+   * Gives the number of moves and passes journaled.
+   *
+   * @return the number of plays.
+   */
+  public int getPlayCount() {
+    return count;
+  }
+
+  /**
+   * Plays the journaled moves and passes, in order, on a game. Replay before attaching the game
+   * to a journal, or the plays are journaled twice.
+   *
+   * @param game a started game of the same board, at its start position.
+   * @throws IllegalArgumentException if the board differs or a journaled move is not legal.
+   */
+  public void replay(IGame game) {
+    IBoard board = game.getGrid();
+    if ((board instanceof HexBoard) != hex || board.getLength() != size) {
+      throw new IllegalArgumentException("Game " + gameId + " was played on another board");
+    }
+    CellColor[] colors = CellColor.values();
+    for (int i = 0; i < count; i++) {
+      CellColor color = colors[plays[3 * i + 2]];
+      if (plays[3 * i] == PASS) {
+        game.implementPass(color);
+      } else {
+        game.makeMove(plays[3 * i], plays[3 * i + 1], color);
+      }
+    }
+  }
+}
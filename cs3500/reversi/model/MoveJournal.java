@@ -0,0 +1,301 @@
+package cs3500.reversi.model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+/**
+ * An append-only file of the moves of live games, so they can be rebuilt after a crash. Games
+ * write to it through {@link IGame#setJournal(MoveJournal, long)}: one entry when the game
+ * begins, one per move and pass, and one when it ends. Every entry is 20 bytes: the game id, the
+ * entry type, the color, the row and column, and a CRC32 of the rest, so a write torn by a crash
+ * is recognized and dropped.
+ *
+ * <p>An entry is durable when the call that writes it returns. Entries are committed in groups:
+ * the first writer to find no commit in progress writes everything appended so far and forces
+ * it to disk, and writers that append in the meantime wait for that commit or lead the next
+ * one. Many games share one journal and, under load, one fsync per group of moves rather than
+ * per move.
+ *
+ * <p>Opening a journal reads it back: the games that began and did not end are {@link
+ * #inFlight()}. Each can be replayed onto a new game of the same board, which is then attached
+ * to the journal under the same id and goes on writing after its earlier entries.
+ */
+public final class MoveJournal implements Closeable {
+  static final int ENTRY_BYTES = 20;
+  static final byte BEGIN = 1;
+  static final byte MOVE = 2;
+  static final byte PASS = 3;
+  static final byte END = 4;
+
+  private final FileChannel channel;
+  private final List<JournaledGame> inFlight;
+  private final Set<Long> open = new HashSet<>();
+  private final CRC32 crc = new CRC32();
+  private final Object lock = new Object();
+  private ByteBuffer pending = ByteBuffer.allocate(ENTRY_BYTES * 256);
+  private ByteBuffer spare = ByteBuffer.allocate(ENTRY_BYTES * 256);
+  private long appended;
+  private long durable;
+  private long commits;
+  private boolean committing;
+  private IOException failure;
+
+  private MoveJournal(FileChannel channel, List<JournaledGame> inFlight) {
+    this.channel = channel;
+    this.inFlight = inFlight;
+    for (JournaledGame game : inFlight) {
+      open.add(game.getGameId());
+    }
+  }
+
+  /**
+   * Opens a journal file, creating it if needed, and reads back the games in flight. A torn
+   * entry at the end of the file, and anything after it, is cut off.
+   *
+   * @param file the journal file.
+   * @return the journal, positioned to append.
+   * @throws IOException if the file cannot be opened or read.
+   */
+  public static MoveJournal open(Path file) throws IOException {
+    FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+            StandardOpenOption.READ, StandardOpenOption.WRITE);
+    try {
+      Map<Long, JournaledGame> games = new LinkedHashMap<>();
+      ByteBuffer entry = ByteBuffer.allocate(ENTRY_BYTES);
+      CRC32 check = new CRC32();
+      long valid = 0;
+      while (true) {
+        entry.clear();
+        while (entry.hasRemaining() && channel.read(entry, valid + entry.position()) > 0) {
+          // Keep reading until the entry is complete or the file ends.
+        }
+        if (entry.hasRemaining()) {
+          break;
+        }
+        check.reset();
+        check.update(entry.array(), 0, ENTRY_BYTES - 4);
+        if ((int) check.getValue() != entry.getInt(ENTRY_BYTES - 4)) {
+          break;
+        }
+        read(entry, games);
+        valid += ENTRY_BYTES;
+      }
+      channel.truncate(valid);
+      channel.position(valid);
+      return new MoveJournal(channel, new ArrayList<>(games.values()));
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  private static void read(ByteBuffer entry, Map<Long, JournaledGame> games) {
+    long id = entry.getLong(0);
+    byte type = entry.get(8);
+    byte color = entry.get(9);
+    int q = entry.getShort(10);
+    int r = entry.getShort(12);
+    if (type == BEGIN) {
+      games.put(id, new JournaledGame(id, color == 1, q));
+      return;
+    }
+    JournaledGame game = games.get(id);
+    if (game == null) {
+      // The game ended, or began in a journal that was since replaced.
+      return;
+    }
+    if (type == END) {
+      games.remove(id);
+    } else {
+      game.add(type == PASS ? JournaledGame.PASS : q, r,
+              color == 1 ? CellColor.BLACK : CellColor.WHITE);
+    }
+  }
+
+  /**
+   * Gives the games that had begun and not ended when the journal was opened.
+   *
+   * @return the games, in the order they began.
+   */
+  public List<JournaledGame> inFlight() {
+    return new ArrayList<>(inFlight);
+  }
+
+  /**
+   * Checks whether a game has begun in this journal and not ended, including games recovered
+   * when it was opened.
+   *
+   * @param gameId the id of the game.
+   * @return true if the journal holds the game.
+   */
+  public boolean holds(long gameId) {
+    synchronized (lock) {
+      return open.contains(gameId);
+    }
+  }
+
+  /**
+   * Records that a game begins, unless it is already in flight in this journal.
+   *
+   * @param gameId the id of the game, unique within the journal.
+   * @param board  the board it is played on.
+   * @throws IOException if the entry cannot be made durable.
+   */
+  public void begin(long gameId, IBoard board) throws IOException {
+    synchronized (lock) {
+      if (!open.add(gameId)) {
+        return;
+      }
+    }
+    append(gameId, BEGIN, board instanceof HexBoard ? 1 : 0, board.getLength(), 0);
+  }
+
+  /**
+   * Records a move.
+   *
+   * @param gameId the id of the game.
+   * @param q      the row of the move.
+   * @param r      the column of the move.
+   * @param color  the color that moves.
+   * @throws IOException if the entry cannot be made durable.
+   */
+  public void move(long gameId, int q, int r, CellColor color) throws IOException {
+    append(gameId, MOVE, code(color), q, r);
+  }
+
+  /**
+   * Records a pass.
+   *
+   * @param gameId the id of the game.
+   * @param color  the color that passes.
+   * @throws IOException if the entry cannot be made durable.
+   */
+  public void pass(long gameId, CellColor color) throws IOException {
+    append(gameId, PASS, code(color), 0, 0);
+  }
+
+  /**
+   * Records that a game is over, so it is no longer recovered.
+   *
+   * @param gameId the id of the game.
+   * @throws IOException if the entry cannot be made durable.
+   */
+  public void end(long gameId) throws IOException {
+    synchronized (lock) {
+      open.remove(gameId);
+    }
+    append(gameId, END, 0, 0, 0);
+  }
+
+  private static int code(CellColor color) {
+    return color == CellColor.BLACK ? 1 : 2;
+  }
+
+  /**
+   * Appends one entry and returns once it is on disk.
+   */
+  private void append(long gameId, byte type, int color, int q, int r) throws IOException {
+    long sequence;
+    synchronized (lock) {
+      if (failure != null) {
+        throw new IOException("The journal failed earlier", failure);
+      }
+      if (pending.remaining() < ENTRY_BYTES) {
+        ByteBuffer larger = ByteBuffer.allocate(pending.capacity() * 2);
+        pending.flip();
+        larger.put(pending);
+        pending = larger;
+      }
+      int at = pending.position();
+      pending.putLong(gameId).put(type).put((byte) color).putShort((short) q)
+              .putShort((short) r).putShort((short) 0);
+      crc.reset();
+      crc.update(pending.array(), at, ENTRY_BYTES - 4);
+      pending.putInt((int) crc.getValue());
+      sequence = ++appended;
+    }
+    commit(sequence);
+  }
+
+  /**
+   * Waits until the entry with the given sequence number is durable, leading a commit if none
+   * is in progress.
+   */
+  private void commit(long sequence) throws IOException {
+    ByteBuffer batch;
+    long last;
+    synchronized (lock) {
+      while (durable < sequence && committing) {
+        try {
+          lock.wait();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new IOException("Interrupted while waiting for the journal", e);
+        }
+      }
+      if (failure != null) {
+        throw new IOException("The journal failed", failure);
+      }
+      if (durable >= sequence) {
+        return;
+      }
+      committing = true;
+      batch = pending;
+      pending = spare;
+      last = appended;
+    }
+    IOException error = null;
+    try {
+      batch.flip();
+      while (batch.hasRemaining()) {
+        channel.write(batch);
+      }
+      channel.force(false);
+    } catch (IOException e) {
+      error = e;
+    }
+    synchronized (lock) {
+      batch.clear();
+      spare = batch;
+      committing = false;
+      if (error == null) {
+        durable = last;
+        commits++;
+      } else {
+        failure = error;
+      }
+      lock.notifyAll();
+    }
+    if (error != null) {
+      throw error;
+    }
+  }
+
+  /**
+   * Gives the number of fsyncs so far; with many games writing at once it stays well below the
+   * number of entries.
+   *
+   * @return the number of commits.
+   */
+  public long getCommitCount() {
+    synchronized (lock) {
+      return commits;
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+}
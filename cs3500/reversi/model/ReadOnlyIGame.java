@@ -1,5 +1,7 @@
 package cs3500.reversi.model;
 
+import java.nio.ByteBuffer;
+
 import cs3500.reversi.controller.ModelStatus;
 import cs3500.reversi.players.IPlayer;
 
@@ -64,6 +66,13 @@ public interface ReadOnlyIGame {
    */
   int getScore(CellColor playerColor);
 
+  /**
+   * Gives a snapshot of the game's clock, which keeps running on its own.
+   *
+   * @return a copy of the clock, or null if the game is not played on a clock.
+   */
+  GameClock getClock();
+
   /**
    * Adds a status listener to the model.
    *
@@ -82,4 +91,22 @@ public interface ReadOnlyIGame {
    * @return True if the move is valid, false otherwise.
    */
   boolean isValidMove(int q, int r, CellColor color);
+
+  /**
+   * Gives the number of bytes {@link #saveState(ByteBuffer)} writes for this game.
+   *
+   * @return the size of a snapshot.
+   */
+  int getStateSize();
+
+  /**
+   * Writes a compact snapshot of the game: the board, its cells two bits each in row order, the
+   * side to move, the pass count, the last color played and both scores. The players, the
+   * listeners and the clock are not part of it.
+   *
+   * @param out the buffer to write to, from its position.
+   * @throws java.nio.BufferOverflowException if the buffer has less room than
+   *                                          {@link #getStateSize()}.
+   */
+  void saveState(ByteBuffer out);
 }
@@ -31,6 +31,8 @@ public class ReversiSquareGame extends AbstractReversiGame {
     clonedGame.currentPlayerIndex = this.currentPlayerIndex;
     clonedGame.lastPlayedColor = this.lastPlayedColor;
     clonedGame.numOfPasses = this.numOfPasses;
+    clonedGame.isGameStarted = this.isGameStarted;
+    clonedGame.clock = this.clock == null ? null : new GameClock(this.clock);
     return clonedGame;
   }
 
@@ -40,7 +40,7 @@ public class SquareBoard implements IBoard {
       throw new IllegalArgumentException("Invalid board size.");
     }
     this.size = other.size;
-    initializeBoard(); // Assumes this method copies the board state from 'other'.
+    this.board = new HashMap<>(other.board);
   }
 
 
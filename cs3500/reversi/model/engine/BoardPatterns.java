@@ -0,0 +1,260 @@
+package cs3500.reversi.model.engine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The patterns of a board: groups of cells whose contents, read together as a base 3 number,
+ * index a table of weights. There are two kinds. Every straight line of at least
+ * {@value #MIN_LINE} cells is a pattern, in the order a ray walks it; a line longer than
+ * {@value #MAX_LINE} cells becomes two patterns, its first and its last {@value #MAX_LINE}
+ * cells, which keeps the tables small while still seeing both edges. Every corner also gets a
+ * region pattern: the corner first, then the cells around it in breadth first order, up to
+ * {@value #REGION} cells.
+ *
+ * <p>The index of a pattern is {@code sum(code(cell k) * 3^k)} over its cells, with the cell
+ * codes of {@link FastGame}. Patterns are immutable and shared per topology; use
+ * {@link #of(BoardTopology)}.
+ */
+public final class BoardPatterns {
+  /**
+   * The shortest line that is a pattern.
+   */
+  public static final int MIN_LINE = 3;
+
+  /**
+   * The longest pattern along a line.
+   */
+  public static final int MAX_LINE = 8;
+
+  /**
+   * The number of cells of a corner region.
+   */
+  public static final int REGION = 9;
+
+  private static final Map<BoardTopology, BoardPatterns> CACHE = new ConcurrentHashMap<>();
+
+  private final BoardTopology topology;
+  private final int[] patternStart;
+  private final int[] patternCells;
+  private final boolean[] region;
+  private final int[] cellStart;
+  private final int[] cellPattern;
+  private final int[] cellPower;
+
+  private BoardPatterns(BoardTopology topology) {
+    this.topology = topology;
+    List<int[]> patterns = new ArrayList<>();
+    List<Boolean> regions = new ArrayList<>();
+    for (int[] line : lines(topology)) {
+      if (line.length <= MAX_LINE) {
+        patterns.add(line);
+        regions.add(false);
+      } else {
+        patterns.add(Arrays.copyOfRange(line, 0, MAX_LINE));
+        regions.add(false);
+        int[] end = new int[MAX_LINE];
+        for (int k = 0; k < MAX_LINE; k++) {
+          end[k] = line[line.length - 1 - k];
+        }
+        patterns.add(end);
+        regions.add(false);
+      }
+    }
+    for (int corner : topology.corners()) {
+      patterns.add(region(topology, corner));
+      regions.add(true);
+    }
+
+    this.patternStart = new int[patterns.size() + 1];
+    this.region = new boolean[patterns.size()];
+    int[] incidence = new int[topology.getCellCount()];
+    for (int p = 0; p < patterns.size(); p++) {
+      patternStart[p + 1] = patternStart[p] + patterns.get(p).length;
+      region[p] = regions.get(p);
+      for (int cell : patterns.get(p)) {
+        incidence[cell]++;
+      }
+    }
+    this.patternCells = new int[patternStart[patterns.size()]];
+    for (int p = 0; p < patterns.size(); p++) {
+      System.arraycopy(patterns.get(p), 0, patternCells, patternStart[p],
+              patterns.get(p).length);
+    }
+
+    this.cellStart = new int[topology.getCellCount() + 1];
+    for (int cell = 0; cell < incidence.length; cell++) {
+      cellStart[cell + 1] = cellStart[cell] + incidence[cell];
+    }
+    this.cellPattern = new int[cellStart[incidence.length]];
+    this.cellPower = new int[cellPattern.length];
+    int[] next = Arrays.copyOf(cellStart, incidence.length);
+    for (int p = 0; p < patterns.size(); p++) {
+      int power = 1;
+      for (int k = patternStart[p]; k < patternStart[p + 1]; k++) {
+        int cell = patternCells[k];
+        cellPattern[next[cell]] = p;
+        cellPower[next[cell]] = power;
+        next[cell]++;
+        power *= 3;
+      }
+    }
+  }
+
+  /**
+   * Gives the patterns of a board.
+   *
+   * @param topology the board geometry.
+   * @return the shared patterns.
+   */
+  public static BoardPatterns of(BoardTopology topology) {
+    return CACHE.computeIfAbsent(topology, BoardPatterns::new);
+  }
+
+  /**
+   * Finds every maximal straight line of at least {@value #MIN_LINE} cells, once per line.
+   */
+  private static List<int[]> lines(BoardTopology topology) {
+    int cells = topology.getCellCount();
+    List<int[]> lines = new ArrayList<>();
+    Set<String> seen = new HashSet<>();
+    for (int s = 0; s < topology.getSlots(); s++) {
+      boolean[] hasPrevious = new boolean[cells];
+      for (int cell = 0; cell < cells; cell++) {
+        int next = topology.neighbor(cell, s);
+        if (next >= 0) {
+          hasPrevious[next] = true;
+        }
+      }
+      for (int cell = 0; cell < cells; cell++) {
+        if (hasPrevious[cell]) {
+          continue;
+        }
+        List<Integer> line = new ArrayList<>();
+        for (int current = cell; current >= 0; current = topology.neighbor(current, s)) {
+          line.add(current);
+        }
+        if (line.size() < MIN_LINE) {
+          continue;
+        }
+        int[] array = line.stream().mapToInt(Integer::intValue).toArray();
+        int[] key = array.clone();
+        Arrays.sort(key);
+        // The opposite slot walks the same line backwards.
+        if (seen.add(Arrays.toString(key))) {
+          lines.add(array);
+        }
+      }
+    }
+    return lines;
+  }
+
+  /**
+   * Collects a corner and the cells nearest to it, nearest first.
+   */
+  private static int[] region(BoardTopology topology, int corner) {
+    int[] cells = new int[Math.min(REGION, topology.getCellCount())];
+    boolean[] taken = new boolean[topology.getCellCount()];
+    cells[0] = corner;
+    taken[corner] = true;
+    int count = 1;
+    for (int head = 0; head < count && count < cells.length; head++) {
+      for (int s = 0; s < topology.getSlots() && count < cells.length; s++) {
+        int next = topology.neighbor(cells[head], s);
+        if (next >= 0 && !taken[next]) {
+          taken[next] = true;
+          cells[count++] = next;
+        }
+      }
+    }
+    return cells;
+  }
+
+  /**
+   * Computes the index of a pattern from scratch.
+   *
+   * @param pattern a pattern number, below {@link #getPatternCount()}.
+   * @param game    a position on this board.
+   * @return the base 3 index of the pattern's cells.
+   */
+  public int index(int pattern, FastGame game) {
+    int index = 0;
+    for (int k = patternStart[pattern + 1] - 1; k >= patternStart[pattern]; k--) {
+      index = index * 3 + game.cell(patternCells[k]);
+    }
+    return index;
+  }
+
+  /**
+   * Gives the number of cells of a pattern.
+   *
+   * @param pattern a pattern number.
+   * @return its length.
+   */
+  public int length(int pattern) {
+    return patternStart[pattern + 1] - patternStart[pattern];
+  }
+
+  /**
+   * Gives one cell of a pattern.
+   *
+   * @param pattern a pattern number.
+   * @param k       the position of the cell in the pattern, worth {@code 3^k} in the index.
+   * @return the dense cell index.
+   */
+  public int cell(int pattern, int k) {
+    return patternCells[patternStart[pattern] + k];
+  }
+
+  /**
+   * Checks whether a pattern is a corner region rather than a line.
+   *
+   * @param pattern a pattern number.
+   * @return true for a corner region.
+   */
+  public boolean isRegion(int pattern) {
+    return region[pattern];
+  }
+
+  /**
+   * Gives where the patterns of a cell begin in {@link #cellPatterns()} and
+   * {@link #cellPowers()}; they end where those of the next cell begin.
+   *
+   * @return the offsets, indexed by cell, not to be modified.
+   */
+  public int[] cellStarts() {
+    return cellStart;
+  }
+
+  /**
+   * Gives the patterns every cell belongs to, cell after cell.
+   *
+   * @return the pattern numbers, not to be modified.
+   */
+  public int[] cellPatterns() {
+    return cellPattern;
+  }
+
+  /**
+   * Gives what one unit of a cell's code is worth in the index of each of its patterns, in the
+   * order of {@link #cellPatterns()}.
+   *
+   * @return the powers of 3, not to be modified.
+   */
+  public int[] cellPowers() {
+    return cellPower;
+  }
+
+  public BoardTopology getTopology() {
+    return topology;
+  }
+
+  public int getPatternCount() {
+    return region.length;
+  }
+}
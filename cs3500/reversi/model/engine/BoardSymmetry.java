@@ -0,0 +1,290 @@
+package cs3500.reversi.model.engine;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The symmetries of one board shape and size, as precomputed cell permutations: the 12
+ * rotations and reflections of a regular hexagon, or the 8 of a square. A symmetry maps lines to
+ * lines, so it maps every legal move to a legal move with the same flips, and positions that are
+ * images of each other have the same game-theoretic value.
+ *
+ * <p>A position's canonical form is its image under the transform that gives the smallest
+ * Zobrist hash, and its canonical hash is that hash. Tables keyed by the canonical hash store
+ * each position once for all its images. A move found for the canonical form maps back to the
+ * position with {@code map(inverse(transform), move)}. Symmetries are immutable and shared; use
+ * {@link #of(BoardTopology)}.
+ */
+public final class BoardSymmetry {
+  private static final Map<BoardTopology, BoardSymmetry> CACHE = new ConcurrentHashMap<>();
+  // 2 * 3^39 is the largest key that still fits in a long.
+  private static final int MAX_KEY_CELLS = 39;
+  // The six orders of the three cube axes of a hex board.
+  private static final int[][] HEX_ORDERS = {
+      {0, 1, 2}, {1, 2, 0}, {2, 0, 1}, {1, 0, 2}, {0, 2, 1}, {2, 1, 0}
+  };
+
+  private final BoardTopology topology;
+  private final int cellCount;
+  private final int count;
+  private final int[] permutations;
+  private final int[] inverse;
+  private final long[] powers;
+
+  private BoardSymmetry(BoardTopology topology) {
+    this.topology = topology;
+    this.cellCount = topology.getCellCount();
+    this.count = topology.isHex() ? 12 : 8;
+    this.permutations = new int[count * cellCount];
+    for (int t = 0; t < count; t++) {
+      for (int cell = 0; cell < cellCount; cell++) {
+        int image = topology.isHex() ? hexImage(t, cell) : squareImage(t, cell);
+        if (image < 0) {
+          throw new IllegalStateException("Transform " + t + " maps cell " + cell + " off "
+                  + topology);
+        }
+        permutations[t * cellCount + cell] = image;
+      }
+      checkAdjacency(t);
+    }
+
+    this.inverse = new int[count];
+    for (int t = 0; t < count; t++) {
+      inverse[t] = -1;
+      for (int u = 0; u < count && inverse[t] < 0; u++) {
+        boolean identity = true;
+        for (int cell = 0; cell < cellCount && identity; cell++) {
+          identity = map(u, map(t, cell)) == cell;
+        }
+        if (identity) {
+          inverse[t] = u;
+        }
+      }
+      if (inverse[t] < 0) {
+        throw new IllegalStateException("Transform " + t + " has no inverse on " + topology);
+      }
+    }
+
+    // Base 3 place values of every cell's image, while the keys fit in a long.
+    if (cellCount <= MAX_KEY_CELLS) {
+      long[] place = new long[cellCount];
+      place[0] = 1;
+      for (int cell = 1; cell < cellCount; cell++) {
+        place[cell] = place[cell - 1] * 3;
+      }
+      this.powers = new long[count * cellCount];
+      for (int i = 0; i < powers.length; i++) {
+        powers[i] = place[permutations[i]];
+      }
+    } else {
+      this.powers = null;
+    }
+  }
+
+  /**
+   * Maps a hex cell through one of the 12 transforms, in cube coordinates: the transform
+   * permutes the three axes ({@code t / 2} picks one of the 6 orders) and mirrors them through
+   * the center when {@code t} is odd.
+   */
+  private int hexImage(int t, int cell) {
+    int last = topology.getSize() - 1;
+    int q = topology.q(cell);
+    int r = topology.r(cell);
+    int y = q - last;
+    int x = q <= last ? r - q : r - last;
+    int[] cube = {x, y, -x - y};
+    int[] order = HEX_ORDERS[t / 2];
+    int sign = t % 2 == 0 ? 1 : -1;
+    int newX = sign * cube[order[0]];
+    int newY = sign * cube[order[1]];
+    int newQ = newY + last;
+    int newR = newQ <= last ? newX + newQ : newX + last;
+    return topology.index(newQ, newR);
+  }
+
+  /**
+   * Maps a square cell through one of the 8 transforms: bit 2 of {@code t} swaps rows and
+   * columns, bit 1 mirrors the rows and bit 0 the columns.
+   */
+  private int squareImage(int t, int cell) {
+    int last = topology.getSize() - 1;
+    int q = topology.q(cell);
+    int r = topology.r(cell);
+    int a = (t & 4) != 0 ? r : q;
+    int b = (t & 4) != 0 ? q : r;
+    if ((t & 2) != 0) {
+      a = last - a;
+    }
+    if ((t & 1) != 0) {
+      b = last - b;
+    }
+    return topology.index(a, b);
+  }
+
+  /**
+   * Checks that a transform is a permutation that keeps neighbors next to each other.
+   */
+  private void checkAdjacency(int t) {
+    boolean[] seen = new boolean[cellCount];
+    int slots = topology.getSlots();
+    for (int cell = 0; cell < cellCount; cell++) {
+      int image = map(t, cell);
+      if (seen[image]) {
+        throw new IllegalStateException("Transform " + t + " is not a permutation of " + topology);
+      }
+      seen[image] = true;
+      for (int s = 0; s < slots; s++) {
+        int next = topology.neighbor(cell, s);
+        if (next < 0) {
+          continue;
+        }
+        boolean adjacent = false;
+        for (int u = 0; u < slots && !adjacent; u++) {
+          adjacent = topology.neighbor(image, u) == map(t, next);
+        }
+        if (!adjacent) {
+          throw new IllegalStateException("Transform " + t + " breaks the lines of " + topology);
+        }
+      }
+    }
+  }
+
+  /**
+   * Gives the symmetries of a board.
+   *
+   * @param topology the board geometry.
+   * @return the shared symmetries.
+   */
+  public static BoardSymmetry of(BoardTopology topology) {
+    return CACHE.computeIfAbsent(topology, BoardSymmetry::new);
+  }
+
+  /**
+   * Maps a cell, or a pass, through a transform.
+   *
+   * @param transform a transform, below {@link #getCount()}; 0 is the identity.
+   * @param cell      a dense cell index or {@link FastGame#PASS}.
+   * @return the image of the cell, or {@link FastGame#PASS}.
+   */
+  public int map(int transform, int cell) {
+    return cell == FastGame.PASS ? FastGame.PASS : permutations[transform * cellCount + cell];
+  }
+
+  /**
+   * Gives the transform that undoes another.
+   *
+   * @param transform a transform, below {@link #getCount()}.
+   * @return its inverse.
+   */
+  public int inverse(int transform) {
+    return inverse[transform];
+  }
+
+  /**
+   * Gives the Zobrist hash a position would have after a transform, with the same side to move.
+   *
+   * @param position  a position on this board.
+   * @param transform a transform, below {@link #getCount()}.
+   * @return the hash of the image, comparable with {@link FastGame#hash()}.
+   */
+  public long hash(FastGame position, int transform) {
+    long[] keys = topology.zobristKeys();
+    int base = transform * cellCount;
+    long key = position.getToMove() == FastGame.WHITE ? topology.sideKey() : 0;
+    for (int cell = 0; cell < cellCount; cell++) {
+      key ^= keys[position.cell(cell) * cellCount + permutations[base + cell]];
+    }
+    return key;
+  }
+
+  /**
+   * Finds the transform that maps a position to its canonical form. Ties, which come from
+   * positions that are symmetric themselves, go to the lowest transform.
+   *
+   * @param position a position on this board.
+   * @return the transform.
+   * @throws IllegalArgumentException if the position is on another board.
+   */
+  public int canonicalTransform(FastGame position) {
+    if (position.getTopology() != topology) {
+      throw new IllegalArgumentException("Expected a position on " + topology);
+    }
+    int best = 0;
+    long bestKey = position.hash();
+    for (int t = 1; t < count; t++) {
+      long key = hash(position, t);
+      if (Long.compareUnsigned(key, bestKey) < 0) {
+        best = t;
+        bestKey = key;
+      }
+    }
+    return best;
+  }
+
+  /**
+   * Gives the hash of a position's canonical form, the same for all its images.
+   *
+   * @param position a position on this board.
+   * @return the canonical hash.
+   * @throws IllegalArgumentException if the position is on another board.
+   */
+  public long canonicalHash(FastGame position) {
+    return hash(position, canonicalTransform(position));
+  }
+
+  /**
+   * Gives an exact key of a position's class of images: the smallest base 3 number, over all
+   * transforms, whose digits are the image's cells, doubled, plus 1 when white is to move. Unlike
+   * the canonical hash it never collides, and it only exists on boards of up to 39 cells.
+   *
+   * @param position a position on this board.
+   * @return the key, from 0 to {@code 2 * 3^cells - 1}.
+   * @throws IllegalArgumentException if the position is on another board.
+   * @throws IllegalStateException    if the board has more than 39 cells.
+   */
+  public long canonicalKey(FastGame position) {
+    if (position.getTopology() != topology) {
+      throw new IllegalArgumentException("Expected a position on " + topology);
+    }
+    if (powers == null) {
+      throw new IllegalStateException("Keys do not fit in a long on " + topology);
+    }
+    long best = Long.MAX_VALUE;
+    for (int t = 0; t < count; t++) {
+      int base = t * cellCount;
+      long key = 0;
+      for (int cell = 0; cell < cellCount; cell++) {
+        key += position.cell(cell) * powers[base + cell];
+      }
+      best = Math.min(best, key);
+    }
+    return 2 * best + (position.getToMove() == FastGame.WHITE ? 1 : 0);
+  }
+
+  /**
+   * Writes the cells of a position's image under a transform.
+   *
+   * @param position  a position on this board.
+   * @param transform a transform, below {@link #getCount()}.
+   * @param out       receives one color code per cell.
+   */
+  public void transform(FastGame position, int transform, byte[] out) {
+    int base = transform * cellCount;
+    for (int cell = 0; cell < cellCount; cell++) {
+      out[permutations[base + cell]] = (byte) position.cell(cell);
+    }
+  }
+
+  public BoardTopology getTopology() {
+    return topology;
+  }
+
+  /**
+   * Gives the number of transforms, the identity included.
+   *
+   * @return 12 on a hex board, 8 on a square board.
+   */
+  public int getCount() {
+    return count;
+  }
+}
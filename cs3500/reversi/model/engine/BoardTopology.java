@@ -0,0 +1,311 @@
+package cs3500.reversi.model.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+
+import cs3500.reversi.model.CoordinateSystem;
+import cs3500.reversi.model.HexBoard;
+import cs3500.reversi.model.IBoard;
+import cs3500.reversi.model.SquareBoard;
+
+/**
+ * The fixed geometry of one board shape and size, precomputed into primitive arrays. Every cell
+ * gets a dense index in row order (row 0 first, then column by column), which is also the order
+ * the model and the strategies scan the board in.
+ *
+ * <p>The tables are built by asking a real {@link IBoard} for its neighbors, so the rays walk
+ * exactly the lines {@code AbstractReversiGame.canCapture} walks: a ray in direction slot
+ * {@code s} steps to the {@code s}-th neighbor of each cell it visits. Topologies are immutable
+ * and shared; use {@link #of(IBoard)}, {@link #hex(int)} or {@link #square(int)}.
+ */
+public final class BoardTopology {
+  private static final Map<String, BoardTopology> CACHE = new ConcurrentHashMap<>();
+
+  private final boolean hex;
+  private final int size;
+  private final int cellCount;
+  private final int slots;
+  private final int[] rowStart;
+  private final int[] cellQ;
+  private final int[] cellR;
+  private final int[] neighbors;
+  private final int[] opposite;
+  private final int[] rayStart;
+  private final int[] rayCells;
+  private final byte[] startCells;
+  private final int[] corners;
+  private final long[] zobrist;
+  private final long sideKey;
+
+  private BoardTopology(IBoard board) {
+    this.hex = board instanceof HexBoard;
+    this.size = board.getLength();
+
+    int rows = board.getRows();
+    this.rowStart = new int[rows + 1];
+    for (int q = 0; q < rows; q++) {
+      rowStart[q + 1] = rowStart[q] + board.getNumberOfColumnsInRow(q);
+    }
+    this.cellCount = rowStart[rows];
+    this.cellQ = new int[cellCount];
+    this.cellR = new int[cellCount];
+    this.startCells = new byte[cellCount];
+    for (int q = 0; q < rows; q++) {
+      for (int r = 0; r < board.getNumberOfColumnsInRow(q); r++) {
+        int cell = rowStart[q] + r;
+        cellQ[cell] = q;
+        cellR[cell] = r;
+        startCells[cell] = FastGame.code(board.getCellColor(q, r));
+      }
+    }
+
+    this.slots = board.getNeighbors(0, 0).size();
+    this.neighbors = new int[cellCount * slots];
+    for (int cell = 0; cell < cellCount; cell++) {
+      List<CoordinateSystem> directions = board.getNeighbors(cellQ[cell], cellR[cell]);
+      for (int s = 0; s < slots; s++) {
+        CoordinateSystem dir = directions.get(s);
+        neighbors[cell * slots + s] = index(cellQ[cell] + dir.getQ(), cellR[cell] + dir.getR());
+      }
+    }
+
+    // Stepping back from a neighbor must use the same slot everywhere on the board.
+    this.opposite = new int[slots];
+    for (int s = 0; s < slots; s++) {
+      opposite[s] = -1;
+      for (int t = 0; t < slots && opposite[s] < 0; t++) {
+        boolean matches = true;
+        for (int cell = 0; cell < cellCount && matches; cell++) {
+          int next = neighbors[cell * slots + s];
+          matches = next < 0 || neighbors[next * slots + t] == cell;
+        }
+        if (matches) {
+          opposite[s] = t;
+        }
+      }
+      if (opposite[s] < 0) {
+        throw new IllegalStateException("No opposite direction for slot " + s);
+      }
+    }
+
+    this.rayStart = new int[cellCount * slots + 1];
+    List<Integer> rays = new ArrayList<>();
+    for (int cell = 0; cell < cellCount; cell++) {
+      for (int s = 0; s < slots; s++) {
+        int current = neighbors[cell * slots + s];
+        while (current >= 0) {
+          rays.add(current);
+          current = neighbors[current * slots + s];
+        }
+        rayStart[cell * slots + s + 1] = rays.size();
+      }
+    }
+    this.rayCells = new int[rays.size()];
+    for (int i = 0; i < rayCells.length; i++) {
+      rayCells[i] = rays.get(i);
+    }
+
+    List<Integer> cornerCells = new ArrayList<>();
+    for (CoordinateSystem corner : board.getCorners()) {
+      cornerCells.add(index(corner.getQ(), corner.getR()));
+    }
+    cornerCells.sort(null);
+    this.corners = cornerCells.stream().mapToInt(Integer::intValue).toArray();
+
+    // Fixed seed so hashes are the same from run to run and can be stored.
+    SplittableRandom random = new SplittableRandom(toString().hashCode());
+    this.zobrist = new long[3 * cellCount];
+    for (int i = cellCount; i < zobrist.length; i++) {
+      zobrist[i] = random.nextLong();
+    }
+    this.sideKey = random.nextLong();
+  }
+
+  /**
+   * Gives the topology matching the shape and size of the given board.
+   *
+   * @param board a hex or square board.
+   * @return the shared topology.
+   * @throws IllegalArgumentException if the board is neither a hex nor a square board.
+   */
+  public static BoardTopology of(IBoard board) {
+    if (board instanceof HexBoard) {
+      return hex(board.getLength());
+    } else if (board instanceof SquareBoard) {
+      return square(board.getLength());
+    }
+    throw new IllegalArgumentException("Unsupported board: " + board.getClass().getName());
+  }
+
+  /**
+   * Gives the topology of a hexagonal board.
+   *
+   * @param size the edge length of the board.
+   * @return the shared topology.
+   */
+  public static BoardTopology hex(int size) {
+    return CACHE.computeIfAbsent("hex:" + size, key -> new BoardTopology(new HexBoard(size)));
+  }
+
+  /**
+   * Gives the topology of a square board.
+   *
+   * @param size the side length of the board.
+   * @return the shared topology.
+   */
+  public static BoardTopology square(int size) {
+    return CACHE.computeIfAbsent("square:" + size,
+        key -> new BoardTopology(new SquareBoard(size)));
+  }
+
+  /**
+   * Converts row and column into a dense cell index.
+   *
+   * @param q the row.
+   * @param r the column.
+   * @return the index, or -1 if there is no such cell.
+   */
+  public int index(int q, int r) {
+    if (q < 0 || q >= rowStart.length - 1 || r < 0 || r >= rowStart[q + 1] - rowStart[q]) {
+      return -1;
+    }
+    return rowStart[q] + r;
+  }
+
+  /**
+   * Gives the row of a cell.
+   *
+   * @param cell a dense cell index.
+   * @return the row.
+   */
+  public int q(int cell) {
+    return cellQ[cell];
+  }
+
+  /**
+   * Gives the column of a cell.
+   *
+   * @param cell a dense cell index.
+   * @return the column.
+   */
+  public int r(int cell) {
+    return cellR[cell];
+  }
+
+  /**
+   * Gives the neighbor of a cell in one direction slot.
+   *
+   * @param cell a dense cell index.
+   * @param slot a direction slot, below {@link #getSlots()}.
+   * @return the neighbor's index, or -1 at the edge of the board.
+   */
+  public int neighbor(int cell, int slot) {
+    return neighbors[cell * slots + slot];
+  }
+
+  /**
+   * Gives the direction slot that steps back along the given one.
+   *
+   * @param slot a direction slot, below {@link #getSlots()}.
+   * @return the opposite slot.
+   */
+  public int opposite(int slot) {
+    return opposite[slot];
+  }
+
+  /**
+   * Gives where the ray of a cell in one direction slot begins in {@link #rayCells()}.
+   * The ray ends where the ray of the next slot begins.
+   *
+   * @param cell a dense cell index.
+   * @param slot a direction slot.
+   * @return the offset of the first cell of the ray.
+   */
+  int rayStart(int cell, int slot) {
+    return rayStart[cell * slots + slot];
+  }
+
+  /**
+   * Gives the flat array of ray start offsets, indexed by {@code cell * slots + slot}.
+   *
+   * @return the offsets, not to be modified.
+   */
+  int[] rayStarts() {
+    return rayStart;
+  }
+
+  /**
+   * Gives the cells of all rays, one after the other.
+   *
+   * @return the ray cells, not to be modified.
+   */
+  int[] rayCells() {
+    return rayCells;
+  }
+
+  /**
+   * Gives the Zobrist keys of the cells, indexed by {@code color * cellCount + cell}. The keys of
+   * empty cells are zero.
+   *
+   * @return the keys, not to be modified.
+   */
+  long[] zobristKeys() {
+    return zobrist;
+  }
+
+  /**
+   * Gives the Zobrist key mixed into the hash when white is to move.
+   *
+   * @return the key.
+   */
+  long sideKey() {
+    return sideKey;
+  }
+
+  /**
+   * Gives the contents of every cell at the start of a game.
+   *
+   * @return a fresh copy of the start position, one color code per cell.
+   */
+  public byte[] startCells() {
+    return startCells.clone();
+  }
+
+  /**
+   * Gives the corner cells of the board, as the board's {@code getCorners} names them. They can
+   * never be flipped once taken.
+   *
+   * @return a fresh copy of the corner cell indices in increasing order.
+   */
+  public int[] corners() {
+    return corners.clone();
+  }
+
+  public boolean isHex() {
+    return hex;
+  }
+
+  public int getSize() {
+    return size;
+  }
+
+  public int getCellCount() {
+    return cellCount;
+  }
+
+  public int getSlots() {
+    return slots;
+  }
+
+  public int getRows() {
+    return rowStart.length - 1;
+  }
+
+  @Override
+  public String toString() {
+    return (hex ? "hex:" : "square:") + size;
+  }
+}
@@ -0,0 +1,25 @@
+package cs3500.reversi.model.engine;
+
+/**
+ * Keeps some derived state of a {@link FastGame} up to date as its cells change, so evaluators
+ * can read features of a position without scanning the whole board at every node. A tracker is
+ * told about every cell that a move, or the undo of a move, changes, one cell at a time.
+ */
+public interface BoardTracker {
+
+  /**
+   * Recomputes the tracked state from scratch. Called when the tracker is attached.
+   *
+   * @param game the position the tracker now follows.
+   */
+  void reset(FastGame game);
+
+  /**
+   * Updates the tracked state for one changed cell.
+   *
+   * @param cell a dense cell index.
+   * @param from the code the cell held.
+   * @param to   the code the cell holds now.
+   */
+  void cellChanged(int cell, int from, int to);
+}
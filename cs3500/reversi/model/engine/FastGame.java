@@ -0,0 +1,564 @@
+package cs3500.reversi.model.engine;
+
+import java.util.Arrays;
+
+import cs3500.reversi.model.CellColor;
+import cs3500.reversi.model.IBoard;
+import cs3500.reversi.model.IGame;
+
+/**
+ * A Reversi position stored in primitive arrays, with make and unmake, for code that plays
+ * millions of moves: search, perft and batch analysis. It follows the same rules as
+ * {@code AbstractReversiGame}: a move must flip at least one disc, a pass is always allowed and
+ * two passes in a row end the game. It sends no notifications and does not know about players.
+ *
+ * <p>Cells hold {@link #EMPTY}, {@link #BLACK} or {@link #WHITE}; the opponent of a color
+ * {@code c} is {@code 3 - c}. Moves are dense cell indices of the {@link BoardTopology}.
+ *
+ * <p>{@link BoardTracker}s attached to a position are told about every cell its moves and undos
+ * change. They belong to that one position and are not copied with it.
+ */
+public final class FastGame {
+  public static final byte EMPTY = 0;
+  public static final byte BLACK = 1;
+  public static final byte WHITE = 2;
+
+  /**
+   * The move code recorded for a pass.
+   */
+  public static final int PASS = -1;
+
+  private static final int HISTORY_FIELDS = 4;
+  private static final BoardTracker[] NO_TRACKERS = new BoardTracker[0];
+
+  private final BoardTopology topology;
+  private final int slots;
+  private final int[] rayStart;
+  private final int[] rayCells;
+  private final byte[] cells;
+  private final long[] zobrist;
+  private final int[] discs = new int[3];
+  private int toMove;
+  private int passes;
+  private int lastPlayed;
+  private int ply;
+  private long hash;
+  private int[] history;
+  private long[] hashHistory;
+  private int[] flipStack;
+  private int flipTop;
+  private BoardTracker[] trackers = NO_TRACKERS;
+
+  /**
+   * Creates the start position of the given board, black to move.
+   *
+   * @param topology the board geometry.
+   */
+  public FastGame(BoardTopology topology) {
+    this.topology = topology;
+    this.slots = topology.getSlots();
+    this.rayStart = topology.rayStarts();
+    this.rayCells = topology.rayCells();
+    this.cells = topology.startCells();
+    this.zobrist = topology.zobristKeys();
+    for (byte cell : cells) {
+      discs[cell]++;
+    }
+    this.toMove = BLACK;
+    this.lastPlayed = WHITE;
+    this.history = new int[HISTORY_FIELDS * (2 * cells.length + 4)];
+    this.hashHistory = new long[2 * cells.length + 4];
+    this.flipStack = new int[4 * cells.length];
+    rehash();
+  }
+
+  /**
+   * Copies another position, including its undo history.
+   *
+   * @param other the position to copy.
+   */
+  public FastGame(FastGame other) {
+    this.topology = other.topology;
+    this.slots = other.slots;
+    this.rayStart = other.rayStart;
+    this.rayCells = other.rayCells;
+    this.cells = other.cells.clone();
+    this.zobrist = other.zobrist;
+    System.arraycopy(other.discs, 0, this.discs, 0, 3);
+    this.toMove = other.toMove;
+    this.passes = other.passes;
+    this.lastPlayed = other.lastPlayed;
+    this.ply = other.ply;
+    this.hash = other.hash;
+    this.history = other.history.clone();
+    this.hashHistory = other.hashHistory.clone();
+    this.flipStack = other.flipStack.clone();
+    this.flipTop = other.flipTop;
+  }
+
+  /**
+   * Creates a position with the given cell contents, black to move.
+   *
+   * @param topology the board geometry.
+   * @param contents one color code per cell.
+   * @return the position, without history.
+   * @throws IllegalArgumentException if the number of cells does not match the board.
+   */
+  public static FastGame withCells(BoardTopology topology, byte[] contents) {
+    if (contents.length != topology.getCellCount()) {
+      throw new IllegalArgumentException("Expected " + topology.getCellCount() + " cells");
+    }
+    FastGame position = new FastGame(topology);
+    Arrays.fill(position.discs, 0);
+    for (int cell = 0; cell < contents.length; cell++) {
+      position.cells[cell] = contents[cell];
+      position.discs[contents[cell]]++;
+    }
+    position.rehash();
+    return position;
+  }
+
+  /**
+   * Reads the current position of a game of the model. The pass count is not visible through
+   * the game's interface, so it is taken as 2 for a finished game and 0 otherwise.
+   *
+   * @param game the game to copy.
+   * @return a position with the same cells and side to move, without history.
+   */
+  public static FastGame of(IGame game) {
+    IBoard board = game.getGrid();
+    FastGame position = new FastGame(BoardTopology.of(board));
+    Arrays.fill(position.discs, 0);
+    for (int cell = 0; cell < position.cells.length; cell++) {
+      byte code = code(board.getCellColor(position.topology.q(cell),
+              position.topology.r(cell)));
+      position.cells[cell] = code;
+      position.discs[code]++;
+    }
+    position.toMove = code(game.getCurrentPlayer().getColor());
+    position.lastPlayed = opponent(position.toMove);
+    position.passes = game.isGameOver() ? 2 : 0;
+    position.rehash();
+    return position;
+  }
+
+  /**
+   * Puts the position in a saved state, dropping its history, and resets the attached trackers.
+   * Together with {@link #copyCells(byte[], int)} this lets callers keep compact checkpoints
+   * and return to them without allocating.
+   *
+   * @param contents   holds one color code per cell, from {@code offset}.
+   * @param offset     where the cells start in {@code contents}.
+   * @param toMove     BLACK or WHITE.
+   * @param passes     the number of passes in a row that led to the position.
+   * @param lastPlayed the color that played or passed last.
+   * @throws IllegalArgumentException if a color is not BLACK or WHITE.
+   */
+  public void load(byte[] contents, int offset, int toMove, int passes, int lastPlayed) {
+    if ((toMove != BLACK && toMove != WHITE) || (lastPlayed != BLACK && lastPlayed != WHITE)) {
+      throw new IllegalArgumentException("Colors must be BLACK or WHITE");
+    }
+    System.arraycopy(contents, offset, cells, 0, cells.length);
+    Arrays.fill(discs, 0);
+    for (byte cell : cells) {
+      discs[cell]++;
+    }
+    this.toMove = toMove;
+    this.passes = passes;
+    this.lastPlayed = lastPlayed;
+    ply = 0;
+    flipTop = 0;
+    rehash();
+    for (BoardTracker tracker : trackers) {
+      tracker.reset(this);
+    }
+  }
+
+  /**
+   * Copies the cells of the position, one color code each.
+   *
+   * @param out    receives the cells.
+   * @param offset where to write the first cell.
+   */
+  public void copyCells(byte[] out, int offset) {
+    System.arraycopy(cells, 0, out, offset, cells.length);
+  }
+
+  /**
+   * Converts a model color into a cell code.
+   *
+   * @param color the color.
+   * @return its code.
+   */
+  public static byte code(CellColor color) {
+    switch (color) {
+      case BLACK:
+        return BLACK;
+      case WHITE:
+        return WHITE;
+      default:
+        return EMPTY;
+    }
+  }
+
+  /**
+   * Converts a cell code into a model color.
+   *
+   * @param code the code.
+   * @return its color.
+   */
+  public static CellColor color(int code) {
+    switch (code) {
+      case BLACK:
+        return CellColor.BLACK;
+      case WHITE:
+        return CellColor.WHITE;
+      default:
+        return CellColor.EMPTY;
+    }
+  }
+
+  /**
+   * Gives the opponent of a color.
+   *
+   * @param color BLACK or WHITE.
+   * @return the other one.
+   */
+  public static int opponent(int color) {
+    return 3 - color;
+  }
+
+  /**
+   * Checks whether the side to move may play on the given cell.
+   *
+   * @param cell a dense cell index.
+   * @return true if the cell is empty and the move flips at least one disc.
+   */
+  public boolean isLegal(int cell) {
+    return isLegal(cell, toMove);
+  }
+
+  /**
+   * Checks whether the given color may play on the given cell.
+   *
+   * @param cell  a dense cell index.
+   * @param color BLACK or WHITE.
+   * @return true if the cell is empty and the move flips at least one disc.
+   */
+  public boolean isLegal(int cell, int color) {
+    if (cells[cell] != EMPTY) {
+      return false;
+    }
+    int opponent = 3 - color;
+    int base = cell * slots;
+    for (int s = 0; s < slots; s++) {
+      int i = rayStart[base + s];
+      int end = rayStart[base + s + 1];
+      if (i == end || cells[rayCells[i]] != opponent) {
+        continue;
+      }
+      do {
+        i++;
+      } while (i < end && cells[rayCells[i]] == opponent);
+      if (i < end && cells[rayCells[i]] == color) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Writes the legal moves of the side to move in cell order.
+   *
+   * @param out receives the moves; must hold {@link BoardTopology#getCellCount()} entries.
+   * @return the number of moves written.
+   */
+  public int legalMoves(int[] out) {
+    int count = 0;
+    for (int cell = 0; cell < cells.length; cell++) {
+      if (isLegal(cell, toMove)) {
+        out[count++] = cell;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Checks whether the given color has any legal move.
+   *
+   * @param color BLACK or WHITE.
+   * @return true if at least one move is legal.
+   */
+  public boolean hasLegalMove(int color) {
+    for (int cell = 0; cell < cells.length; cell++) {
+      if (isLegal(cell, color)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Writes the discs the given color would flip by playing on a cell, without playing.
+   *
+   * @param cell  a dense cell index.
+   * @param color BLACK or WHITE.
+   * @param out   receives the flipped cells; must hold {@link BoardTopology#getCellCount()}
+   *              entries.
+   * @return the number of flipped discs, 0 if the move is illegal.
+   */
+  public int flips(int cell, int color, int[] out) {
+    return flips(cell, color, out, 0);
+  }
+
+  /**
+   * Plays a move for the side to move and hands the turn over.
+   *
+   * @param cell a dense cell index.
+   * @return the number of discs flipped.
+   * @throws IllegalArgumentException if the move is not legal.
+   */
+  public int play(int cell) {
+    if (flipStack.length - flipTop < cells.length) {
+      flipStack = Arrays.copyOf(flipStack, flipStack.length * 2);
+    }
+    int flipped = flips(cell, toMove, flipStack, flipTop);
+    if (flipped == 0) {
+      throw new IllegalArgumentException("Move cannot capture any discs.");
+    }
+    pushHistory(cell, flipped);
+    int mine = toMove * cells.length;
+    int theirs = (3 - toMove) * cells.length;
+    long key = hash ^ zobrist[mine + cell] ^ topology.sideKey();
+    for (int i = flipTop; i < flipTop + flipped; i++) {
+      int flip = flipStack[i];
+      cells[flip] = (byte) toMove;
+      key ^= zobrist[mine + flip] ^ zobrist[theirs + flip];
+    }
+    hash = key;
+    flipTop += flipped;
+    cells[cell] = (byte) toMove;
+    if (trackers.length > 0) {
+      notifyMove(cell, flipTop - flipped, flipped, EMPTY, 3 - toMove, toMove);
+    }
+    discs[toMove] += flipped + 1;
+    discs[3 - toMove] -= flipped;
+    discs[EMPTY]--;
+    passes = 0;
+    lastPlayed = toMove;
+    toMove = 3 - toMove;
+    return flipped;
+  }
+
+  /**
+   * Passes for the side to move.
+   */
+  public void pass() {
+    pushHistory(PASS, 0);
+    hash ^= topology.sideKey();
+    passes++;
+    lastPlayed = toMove;
+    toMove = 3 - toMove;
+  }
+
+  /**
+   * Takes back the last move or pass.
+   *
+   * @throws IllegalStateException if nothing has been played.
+   */
+  public void undo() {
+    if (ply == 0) {
+      throw new IllegalStateException("Nothing to undo");
+    }
+    ply--;
+    int h = ply * HISTORY_FIELDS;
+    int move = history[h];
+    int flipped = history[h + 1];
+    passes = history[h + 2];
+    lastPlayed = history[h + 3];
+    hash = hashHistory[ply];
+    toMove = 3 - toMove;
+    if (move != PASS) {
+      int opponent = 3 - toMove;
+      flipTop -= flipped;
+      for (int i = flipTop; i < flipTop + flipped; i++) {
+        cells[flipStack[i]] = (byte) opponent;
+      }
+      cells[move] = EMPTY;
+      if (trackers.length > 0) {
+        notifyMove(move, flipTop, flipped, toMove, toMove, opponent);
+      }
+      discs[toMove] -= flipped + 1;
+      discs[opponent] += flipped;
+      discs[EMPTY]++;
+    }
+  }
+
+  /**
+   * Writes the flips of a move into {@code out} starting at {@code offset}.
+   */
+  private int flips(int cell, int color, int[] out, int offset) {
+    if (cells[cell] != EMPTY) {
+      return 0;
+    }
+    int opponent = 3 - color;
+    int base = cell * slots;
+    int count = 0;
+    for (int s = 0; s < slots; s++) {
+      int start = rayStart[base + s];
+      int end = rayStart[base + s + 1];
+      int i = start;
+      while (i < end && cells[rayCells[i]] == opponent) {
+        i++;
+      }
+      if (i > start && i < end && cells[rayCells[i]] == color) {
+        for (int j = start; j < i; j++) {
+          out[offset + count++] = rayCells[j];
+        }
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Tells the trackers about the cells of one move: the played cell and the flipped discs.
+   */
+  private void notifyMove(int cell, int flipFrom, int flipped, int cellFrom, int discFrom,
+                          int discTo) {
+    int cellTo = cells[cell];
+    for (BoardTracker tracker : trackers) {
+      tracker.cellChanged(cell, cellFrom, cellTo);
+      for (int i = flipFrom; i < flipFrom + flipped; i++) {
+        tracker.cellChanged(flipStack[i], discFrom, discTo);
+      }
+    }
+  }
+
+  /**
+   * Attaches a tracker, which is first reset to this position.
+   *
+   * @param tracker the tracker.
+   */
+  public void addTracker(BoardTracker tracker) {
+    if (tracker == null) {
+      throw new IllegalArgumentException("Tracker cannot be null");
+    }
+    tracker.reset(this);
+    trackers = Arrays.copyOf(trackers, trackers.length + 1);
+    trackers[trackers.length - 1] = tracker;
+  }
+
+  /**
+   * Detaches a tracker. Does nothing if it is not attached.
+   *
+   * @param tracker the tracker.
+   */
+  public void removeTracker(BoardTracker tracker) {
+    for (int i = 0; i < trackers.length; i++) {
+      if (trackers[i] == tracker) {
+        BoardTracker[] rest = new BoardTracker[trackers.length - 1];
+        System.arraycopy(trackers, 0, rest, 0, i);
+        System.arraycopy(trackers, i + 1, rest, i, rest.length - i);
+        trackers = rest;
+        return;
+      }
+    }
+  }
+
+  private void pushHistory(int move, int flipped) {
+    int h = ply * HISTORY_FIELDS;
+    if (h + HISTORY_FIELDS > history.length) {
+      history = Arrays.copyOf(history, history.length * 2);
+      hashHistory = Arrays.copyOf(hashHistory, hashHistory.length * 2);
+    }
+    hashHistory[ply] = hash;
+    history[h] = move;
+    history[h + 1] = flipped;
+    history[h + 2] = passes;
+    history[h + 3] = lastPlayed;
+    ply++;
+  }
+
+  /**
+   * Recomputes the hash from scratch after the cells or the side to move were set directly.
+   */
+  private void rehash() {
+    long key = toMove == WHITE ? topology.sideKey() : 0;
+    for (int cell = 0; cell < cells.length; cell++) {
+      key ^= zobrist[cells[cell] * cells.length + cell];
+    }
+    hash = key;
+  }
+
+  /**
+   * Gives the Zobrist hash of the position: the cells and the side to move. Equal positions
+   * have equal hashes, whatever order their moves were played in.
+   *
+   * @return the hash.
+   */
+  public long hash() {
+    return hash;
+  }
+
+  /**
+   * Checks whether the game has ended with two passes in a row.
+   *
+   * @return true if the game is over.
+   */
+  public boolean isGameOver() {
+    return passes >= 2;
+  }
+
+  /**
+   * Gives the contents of a cell.
+   *
+   * @param cell a dense cell index.
+   * @return EMPTY, BLACK or WHITE.
+   */
+  public int cell(int cell) {
+    return cells[cell];
+  }
+
+  /**
+   * Gives the number of discs of a color, or of empty cells.
+   *
+   * @param color EMPTY, BLACK or WHITE.
+   * @return the count.
+   */
+  public int count(int color) {
+    return discs[color];
+  }
+
+  /**
+   * Gives the move or pass played at a given ply of the history.
+   *
+   * @param index the ply, from 0 to {@link #getPly()} - 1.
+   * @return the cell played, or {@link #PASS}.
+   */
+  public int moveAt(int index) {
+    if (index < 0 || index >= ply) {
+      throw new IllegalArgumentException("No move at ply " + index);
+    }
+    return history[index * HISTORY_FIELDS];
+  }
+
+  public BoardTopology getTopology() {
+    return topology;
+  }
+
+  public int getToMove() {
+    return toMove;
+  }
+
+  public int getPasses() {
+    return passes;
+  }
+
+  public int getLastPlayed() {
+    return lastPlayed;
+  }
+
+  public int getPly() {
+    return ply;
+  }
+}
@@ -0,0 +1,241 @@
+package cs3500.reversi.model.engine;
+
+import java.util.Arrays;
+
+/**
+ * Keeps the mobility and the frontier of both colors of a {@link FastGame} as it changes.
+ * Mobility is the number of legal moves of a color, frontier the number of its discs that touch
+ * an empty cell.
+ *
+ * <p>A search makes and unmakes many moves between two evaluations, and most of them cancel
+ * out, so changed cells are only noted as they happen. When mobility or frontier is asked for,
+ * the cells whose contents differ from the last time are settled one by one: each cell counts
+ * its empty neighbors, so the frontier only looks at the neighbors of a changed cell. Mobility
+ * is kept per direction: an empty cell remembers in which directions it captures for each
+ * color, and is a move while it captures in at least one. Whether it captures in a direction
+ * only depends on the cells its ray reaches up to the first empty one, so a changed cell only
+ * affects its own directions and, in each direction, the one direction of the first empty cell
+ * it sees that points back at it. Only those rays are walked again.
+ */
+public final class MobilityTracker implements BoardTracker {
+  private final BoardTopology topology;
+  private final int slots;
+  private final int[] neighbors;
+  private final int[] rayStart;
+  private final int[] rayCells;
+  private final int[] opposite;
+  private final byte[] cells;
+  private final byte[] settled;
+  private final int[] emptyNeighbors;
+  private final int[] frontier = new int[3];
+  private final boolean[][] captures;
+  private final int[][] directions;
+  private final int[] mobility = new int[3];
+  private final int[] changed;
+  private final boolean[] noted;
+  private int changedCount;
+
+  /**
+   * Creates a tracker for positions of the given board.
+   *
+   * @param topology the board geometry.
+   */
+  public MobilityTracker(BoardTopology topology) {
+    this.topology = topology;
+    this.slots = topology.getSlots();
+    int count = topology.getCellCount();
+    this.neighbors = new int[count * slots];
+    for (int cell = 0; cell < count; cell++) {
+      for (int s = 0; s < slots; s++) {
+        neighbors[cell * slots + s] = topology.neighbor(cell, s);
+      }
+    }
+    this.rayStart = topology.rayStarts();
+    this.rayCells = topology.rayCells();
+    this.opposite = new int[slots];
+    for (int s = 0; s < slots; s++) {
+      opposite[s] = topology.opposite(s);
+    }
+    this.cells = new byte[count];
+    this.settled = new byte[count];
+    this.emptyNeighbors = new int[count];
+    this.captures = new boolean[3][count * slots];
+    this.directions = new int[3][count];
+    this.changed = new int[count];
+    this.noted = new boolean[count];
+  }
+
+  @Override
+  public void reset(FastGame game) {
+    if (game.getTopology() != topology) {
+      throw new IllegalArgumentException("Expected a position on " + topology);
+    }
+    for (int cell = 0; cell < cells.length; cell++) {
+      cells[cell] = (byte) game.cell(cell);
+      settled[cell] = cells[cell];
+      noted[cell] = false;
+    }
+    changedCount = 0;
+    frontier[FastGame.BLACK] = 0;
+    frontier[FastGame.WHITE] = 0;
+    for (int cell = 0; cell < cells.length; cell++) {
+      int empty = 0;
+      for (int s = 0; s < slots; s++) {
+        int next = neighbors[cell * slots + s];
+        if (next >= 0 && cells[next] == FastGame.EMPTY) {
+          empty++;
+        }
+      }
+      emptyNeighbors[cell] = empty;
+      if (cells[cell] != FastGame.EMPTY && empty > 0) {
+        frontier[cells[cell]]++;
+      }
+    }
+    mobility[FastGame.BLACK] = 0;
+    mobility[FastGame.WHITE] = 0;
+    for (int color = FastGame.BLACK; color <= FastGame.WHITE; color++) {
+      Arrays.fill(captures[color], false);
+      Arrays.fill(directions[color], 0);
+    }
+    for (int cell = 0; cell < cells.length; cell++) {
+      for (int s = 0; s < slots; s++) {
+        check(cell, s);
+      }
+    }
+  }
+
+  @Override
+  public void cellChanged(int cell, int from, int to) {
+    cells[cell] = (byte) to;
+    if (!noted[cell]) {
+      noted[cell] = true;
+      changed[changedCount++] = cell;
+    }
+  }
+
+  /**
+   * Settles every cell that changed since the last time and walks the affected rays again.
+   */
+  private void settle() {
+    for (int c = 0; c < changedCount; c++) {
+      int cell = changed[c];
+      noted[cell] = false;
+      int from = settled[cell];
+      int to = cells[cell];
+      if (from == to) {
+        continue;
+      }
+      settleFrontier(cell, from, to);
+      int base = cell * slots;
+      for (int s = 0; s < slots; s++) {
+        if (from == FastGame.EMPTY || to == FastGame.EMPTY) {
+          check(cell, s);
+        }
+        for (int i = rayStart[base + s]; i < rayStart[base + s + 1]; i++) {
+          if (cells[rayCells[i]] == FastGame.EMPTY) {
+            check(rayCells[i], opposite[s]);
+            break;
+          }
+        }
+      }
+    }
+    changedCount = 0;
+  }
+
+  /**
+   * Updates the frontier for one cell changing, as if the cells settled before it were the
+   * whole board.
+   */
+  private void settleFrontier(int cell, int from, int to) {
+    settled[cell] = (byte) to;
+    if (from == FastGame.EMPTY || to == FastGame.EMPTY) {
+      int step = from == FastGame.EMPTY ? -1 : 1;
+      for (int s = 0; s < slots; s++) {
+        int next = neighbors[cell * slots + s];
+        if (next < 0) {
+          continue;
+        }
+        int before = emptyNeighbors[next];
+        emptyNeighbors[next] = before + step;
+        if (settled[next] != FastGame.EMPTY && (before == 0) != (before + step == 0)) {
+          frontier[settled[next]] += step;
+        }
+      }
+    }
+    if (emptyNeighbors[cell] > 0) {
+      if (from != FastGame.EMPTY) {
+        frontier[from]--;
+      }
+      if (to != FastGame.EMPTY) {
+        frontier[to]++;
+      }
+    }
+  }
+
+  /**
+   * Walks one ray of a cell again: from an empty cell, a run of one color that ends on the
+   * other color captures for the other color.
+   */
+  private void check(int cell, int slot) {
+    int capturer = FastGame.EMPTY;
+    if (cells[cell] == FastGame.EMPTY) {
+      int i = rayStart[cell * slots + slot];
+      int end = rayStart[cell * slots + slot + 1];
+      if (i < end && cells[rayCells[i]] != FastGame.EMPTY) {
+        int run = cells[rayCells[i]];
+        do {
+          i++;
+        } while (i < end && cells[rayCells[i]] == run);
+        if (i < end && cells[rayCells[i]] == 3 - run) {
+          capturer = 3 - run;
+        }
+      }
+    }
+    int index = cell * slots + slot;
+    update(FastGame.BLACK, cell, index, capturer == FastGame.BLACK);
+    update(FastGame.WHITE, cell, index, capturer == FastGame.WHITE);
+  }
+
+  private void update(int color, int cell, int index, boolean now) {
+    if (captures[color][index] != now) {
+      captures[color][index] = now;
+      int before = directions[color][cell];
+      directions[color][cell] = before + (now ? 1 : -1);
+      if (before == 0) {
+        mobility[color]++;
+      } else if (before == 1 && !now) {
+        mobility[color]--;
+      }
+    }
+  }
+
+  /**
+   * Gives the number of legal moves of a color.
+   *
+   * @param color BLACK or WHITE.
+   * @return the mobility.
+   */
+  public int mobility(int color) {
+    if (changedCount > 0) {
+      settle();
+    }
+    return mobility[color];
+  }
+
+  /**
+   * Gives the number of discs of a color that touch an empty cell.
+   *
+   * @param color BLACK or WHITE.
+   * @return the frontier.
+   */
+  public int frontier(int color) {
+    if (changedCount > 0) {
+      settle();
+    }
+    return frontier[color];
+  }
+
+  public BoardTopology getTopology() {
+    return topology;
+  }
+}
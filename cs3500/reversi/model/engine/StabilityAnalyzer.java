@@ -0,0 +1,334 @@
+package cs3500.reversi.model.engine;
+
+import java.util.Arrays;
+
+/**
+ * Finds the discs of a {@link FastGame} that can never be flipped again. A disc is stable when,
+ * along every line through it, it cannot be outflanked: the line is full, so no move can be
+ * played on it, or one of the disc's two neighbors on the line is off the board or a stable disc
+ * of its color. The corners are stable as soon as they are taken, and stability spreads from
+ * them along the edges and the full lines. This is a safe underestimate: every disc it finds is
+ * stable, not every stable disc is found.
+ *
+ * <p>Full lines and stable discs are bit sets of {@code long} words indexed by the dense cell
+ * index. Stable discs never change color and a full line never empties while moves are only
+ * made, so the stable set of a position contains that of every earlier position. The analyzer
+ * follows the game it is attached to through the game's own move history: when asked, it takes
+ * back the moves it knows that are no longer played, takes the new ones, and works out the
+ * stable set of the current position from the last one it has worked out on the same path. Every
+ * disc a move flips lies in a run of the played color that starts next to the played cell, so
+ * only those runs and the lines that became full need checking, and the moves in between cost
+ * the analyzer nothing.
+ */
+public final class StabilityAnalyzer {
+  private final BoardTopology topology;
+  private final int cellCount;
+  private final int words;
+  private final int slots;
+  private final int[] axisSlot;
+  private final int[] lineOf;
+  private final int[] lineStart;
+  private final int[] lineCells;
+  private final long[] lineMask;
+  private final int[] lineEmpty;
+  private final long[] full;
+  private final long[] stable;
+  private final boolean[] computed;
+  private final int[] played;
+  private final int[] work;
+  private final boolean[] queued;
+  private FastGame game;
+  private int basePly;
+  private int level;
+
+  /**
+   * Creates an analyzer for positions of the given board.
+   *
+   * @param topology the board geometry.
+   */
+  public StabilityAnalyzer(BoardTopology topology) {
+    this.topology = topology;
+    this.cellCount = topology.getCellCount();
+    this.words = (cellCount + 63) >>> 6;
+    this.slots = topology.getSlots();
+
+    // One axis per pair of opposite direction slots.
+    int[] axes = new int[slots / 2];
+    int axisCount = 0;
+    for (int s = 0; s < slots; s++) {
+      if (s < topology.opposite(s)) {
+        axes[axisCount++] = s;
+      }
+    }
+    this.axisSlot = Arrays.copyOf(axes, axisCount);
+
+    this.lineOf = new int[axisCount * cellCount];
+    int[] starts = new int[axisCount * cellCount + 1];
+    int[] members = new int[axisCount * cellCount];
+    int lines = 0;
+    int filled = 0;
+    for (int a = 0; a < axisCount; a++) {
+      int back = topology.opposite(axisSlot[a]);
+      for (int cell = 0; cell < cellCount; cell++) {
+        if (topology.neighbor(cell, back) >= 0) {
+          continue;
+        }
+        for (int c = cell; c >= 0; c = topology.neighbor(c, axisSlot[a])) {
+          lineOf[a * cellCount + c] = lines;
+          members[filled++] = c;
+        }
+        starts[++lines] = filled;
+      }
+    }
+    this.lineStart = Arrays.copyOf(starts, lines + 1);
+    this.lineCells = members;
+    this.lineMask = new long[lines * words];
+    for (int line = 0; line < lines; line++) {
+      for (int i = lineStart[line]; i < lineStart[line + 1]; i++) {
+        lineMask[line * words + (lineCells[i] >>> 6)] |= 1L << lineCells[i];
+      }
+    }
+    this.lineEmpty = new int[lines];
+    this.full = new long[axisCount * words];
+
+    // A game of n cells has at most n moves and, between them, n + 1 passes.
+    int levels = 2 * cellCount + 2;
+    this.stable = new long[levels * words];
+    this.computed = new boolean[levels];
+    this.played = new int[levels];
+    this.work = new int[cellCount];
+    this.queued = new boolean[cellCount];
+  }
+
+  /**
+   * Starts following a game from its current position. The game may then be played and taken
+   * back freely, also back past this position.
+   *
+   * @param position the game to follow.
+   * @throws IllegalArgumentException if the game is played on another board.
+   */
+  public void attach(FastGame position) {
+    if (position.getTopology() != topology) {
+      throw new IllegalArgumentException("Expected a position on " + topology);
+    }
+    this.game = position;
+    restart();
+  }
+
+  /**
+   * Makes the current position the bottom level and works out its stable discs from scratch.
+   */
+  private void restart() {
+    basePly = game.getPly();
+    level = 0;
+    for (int line = 0; line < lineEmpty.length; line++) {
+      int empty = 0;
+      for (int i = lineStart[line]; i < lineStart[line + 1]; i++) {
+        if (game.cell(lineCells[i]) == FastGame.EMPTY) {
+          empty++;
+        }
+      }
+      lineEmpty[line] = empty;
+    }
+    Arrays.fill(full, 0);
+    for (int a = 0; a < axisSlot.length; a++) {
+      for (int cell = 0; cell < cellCount; cell++) {
+        if (lineEmpty[lineOf[a * cellCount + cell]] == 0) {
+          full[a * words + (cell >>> 6)] |= 1L << cell;
+        }
+      }
+    }
+    Arrays.fill(stable, 0, words, 0);
+    int count = 0;
+    for (int cell = 0; cell < cellCount; cell++) {
+      if (game.cell(cell) != FastGame.EMPTY) {
+        queued[cell] = true;
+        work[count++] = cell;
+      }
+    }
+    spread(count);
+    computed[0] = true;
+  }
+
+  /**
+   * Brings the levels in line with the game's history: takes back the moves that are no longer
+   * played and adds the new ones.
+   */
+  private void sync() {
+    int top = game.getPly() - basePly;
+    if (top < 0 || top >= played.length) {
+      restart();
+      return;
+    }
+    int common = 0;
+    while (common < level && common < top && played[common + 1] == game.moveAt(basePly + common)) {
+      common++;
+    }
+    for (; level > common; level--) {
+      if (played[level] != FastGame.PASS) {
+        updateLines(played[level], 1);
+      }
+    }
+    for (; level < top; level++) {
+      int move = game.moveAt(basePly + level);
+      played[level + 1] = move;
+      computed[level + 1] = false;
+      if (move != FastGame.PASS) {
+        updateLines(move, -1);
+      }
+    }
+  }
+
+  private void updateLines(int cell, int step) {
+    for (int a = 0; a < axisSlot.length; a++) {
+      int line = lineOf[a * cellCount + cell];
+      int before = lineEmpty[line];
+      lineEmpty[line] = before + step;
+      if (before == 0 || before + step == 0) {
+        for (int w = 0; w < words; w++) {
+          if (before == 0) {
+            full[a * words + w] &= ~lineMask[line * words + w];
+          } else {
+            full[a * words + w] |= lineMask[line * words + w];
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Works out the stable discs of the current position, if they are not known yet.
+   */
+  private void update() {
+    if (game == null) {
+      throw new IllegalStateException("The analyzer is not attached to a game");
+    }
+    sync();
+    if (computed[level]) {
+      return;
+    }
+    int base = level;
+    while (!computed[base]) {
+      base--;
+    }
+    System.arraycopy(stable, base * words, stable, level * words, words);
+    int count = 0;
+    for (int l = base + 1; l <= level; l++) {
+      int cell = played[l];
+      if (cell == FastGame.PASS) {
+        continue;
+      }
+      count = queue(cell, count);
+      if (l == level) {
+        // The discs the last move flipped run on from the played cell in its color.
+        int color = game.cell(cell);
+        for (int s = 0; s < slots; s++) {
+          int next = topology.neighbor(cell, s);
+          while (next >= 0 && game.cell(next) == color) {
+            count = queue(next, count);
+            next = topology.neighbor(next, s);
+          }
+        }
+      }
+      // A line that became full protects the discs on it that did not change. An earlier move's
+      // run may have been flipped back in part since, so its lines are checked as a whole.
+      for (int a = 0; a < axisSlot.length; a++) {
+        int line = lineOf[a * cellCount + cell];
+        if (lineEmpty[line] == 0 || l < level) {
+          for (int i = lineStart[line]; i < lineStart[line + 1]; i++) {
+            count = queue(lineCells[i], count);
+          }
+        }
+      }
+    }
+    spread(count);
+    computed[level] = true;
+  }
+
+  private int queue(int cell, int count) {
+    if (!queued[cell] && game.cell(cell) != FastGame.EMPTY && !isStableNow(cell)) {
+      queued[cell] = true;
+      work[count++] = cell;
+    }
+    return count;
+  }
+
+  /**
+   * Checks the queued discs until no more become stable. A disc that becomes stable queues its
+   * neighbors again, since it may be what they were missing.
+   */
+  private void spread(int count) {
+    while (count > 0) {
+      int cell = work[--count];
+      queued[cell] = false;
+      if (isStableNow(cell) || !isProtected(cell)) {
+        continue;
+      }
+      stable[level * words + (cell >>> 6)] |= 1L << cell;
+      for (int s = 0; s < slots; s++) {
+        int next = topology.neighbor(cell, s);
+        if (next >= 0) {
+          count = queue(next, count);
+        }
+      }
+    }
+  }
+
+  private boolean isProtected(int cell) {
+    int color = game.cell(cell);
+    for (int a = 0; a < axisSlot.length; a++) {
+      if ((full[a * words + (cell >>> 6)] & 1L << cell) != 0) {
+        continue;
+      }
+      int forward = topology.neighbor(cell, axisSlot[a]);
+      int back = topology.neighbor(cell, topology.opposite(axisSlot[a]));
+      if (forward < 0 || back < 0
+              || game.cell(forward) == color && isStableNow(forward)
+              || game.cell(back) == color && isStableNow(back)) {
+        continue;
+      }
+      return false;
+    }
+    return true;
+  }
+
+  private boolean isStableNow(int cell) {
+    return (stable[level * words + (cell >>> 6)] & 1L << cell) != 0;
+  }
+
+  /**
+   * Gives the number of stable discs of a color in the current position of the game.
+   *
+   * @param color BLACK or WHITE.
+   * @return the count.
+   * @throws IllegalStateException if the analyzer is not attached to a game.
+   */
+  public int count(int color) {
+    update();
+    int count = 0;
+    for (int w = 0; w < words; w++) {
+      for (long bits = stable[level * words + w]; bits != 0; bits &= bits - 1) {
+        if (game.cell((w << 6) + Long.numberOfTrailingZeros(bits)) == color) {
+          count++;
+        }
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Checks whether the disc on a cell can never be flipped again.
+   *
+   * @param cell a dense cell index.
+   * @return true if the cell holds a stable disc.
+   * @throws IllegalStateException if the analyzer is not attached to a game.
+   */
+  public boolean isStable(int cell) {
+    update();
+    return isStableNow(cell);
+  }
+
+  public BoardTopology getTopology() {
+    return topology;
+  }
+}
@@ -0,0 +1,52 @@
+package cs3500.reversi.model.search;
+
+import cs3500.reversi.model.engine.BoardTopology;
+import cs3500.reversi.model.engine.FastGame;
+
+/**
+ * Scores a position by corners held, mobility and discs, in that order of importance. Works on
+ * both board shapes since it only relies on {@link BoardTopology#corners()} and the move
+ * generator.
+ */
+public final class BasicEvaluator implements Evaluator {
+  private static final int CORNER = 100;
+  private static final int MOBILITY = 10;
+
+  private BoardTopology topology;
+  private int[] corners;
+  private int[] moves;
+
+  @Override
+  public int evaluate(FastGame game) {
+    if (game.getTopology() != topology) {
+      topology = game.getTopology();
+      corners = topology.corners();
+      moves = new int[topology.getCellCount()];
+    }
+    int player = game.getToMove();
+    int opponent = FastGame.opponent(player);
+
+    int cornerScore = 0;
+    for (int corner : corners) {
+      int owner = game.cell(corner);
+      if (owner == player) {
+        cornerScore++;
+      } else if (owner == opponent) {
+        cornerScore--;
+      }
+    }
+    int mobility = game.legalMoves(moves) - countMoves(game, opponent);
+    return CORNER * cornerScore + MOBILITY * mobility
+            + game.count(player) - game.count(opponent);
+  }
+
+  private int countMoves(FastGame game, int color) {
+    int count = 0;
+    for (int cell = 0; cell < moves.length; cell++) {
+      if (game.isLegal(cell, color)) {
+        count++;
+      }
+    }
+    return count;
+  }
+}
@@ -0,0 +1,34 @@
+package cs3500.reversi.model.search;
+
+import cs3500.reversi.model.engine.FastGame;
+
+/**
+ * An evaluator that can score all the children of a position at once, which is how the
+ * {@link Searcher} scores the leaves below its last full ply. An implementation shares the work
+ * the children have in common instead of playing, scoring and taking back every move; the
+ * default method is the plain one-child-at-a-time loop, for evaluators that have nothing to
+ * share.
+ *
+ * <p>The searcher relies on one more property: a score must not change sign meaning with a
+ * pass, that is, the score of a position after a pass is minus the score before it. That lets
+ * it skip generating the moves of every leaf and only check whether the game is over there.
+ */
+public interface BatchEvaluator extends Evaluator {
+
+  /**
+   * Scores the position after each of the given moves, exactly as {@link #evaluate(FastGame)}
+   * would score it: from the point of view of the side to move after the move.
+   *
+   * @param game   the position; it must be left as it was found.
+   * @param moves  legal moves of the side to move.
+   * @param count  the number of moves to score.
+   * @param scores receives one score per move.
+   */
+  default void evaluateChildren(FastGame game, int[] moves, int count, int[] scores) {
+    for (int i = 0; i < count; i++) {
+      game.play(moves[i]);
+      scores[i] = evaluate(game);
+      game.undo();
+    }
+  }
+}
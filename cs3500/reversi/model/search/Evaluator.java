@@ -0,0 +1,19 @@
+package cs3500.reversi.model.search;
+
+import cs3500.reversi.model.engine.FastGame;
+
+/**
+ * Scores a position that is not over for the search. Scores are from the point of view of the
+ * side to move, higher is better, and must stay well inside plus or minus {@link Searcher#WIN} so
+ * they never look like a finished game.
+ */
+public interface Evaluator {
+
+  /**
+   * Scores a position.
+   *
+   * @param game the position; it must be left as it was found.
+   * @return the score for the side to move.
+   */
+  int evaluate(FastGame game);
+}
@@ -0,0 +1,60 @@
+package cs3500.reversi.model.search;
+
+import cs3500.reversi.model.engine.BoardTopology;
+import cs3500.reversi.model.engine.FastGame;
+import cs3500.reversi.model.engine.MobilityTracker;
+
+/**
+ * Scores a position by corners held, mobility, frontier and discs, like the
+ * {@link BasicEvaluator} but without scanning the board: mobility and frontier come from a
+ * {@link MobilityTracker} that the evaluator attaches to the position it is asked about and that
+ * follows its moves and undos from then on.
+ */
+public final class MobilityEvaluator implements Evaluator {
+  private static final int CORNER = 100;
+  private static final int MOBILITY = 10;
+  private static final int FRONTIER = 5;
+
+  private FastGame game;
+  private MobilityTracker tracker;
+  private int[] corners;
+
+  @Override
+  public int evaluate(FastGame position) {
+    if (position != game) {
+      attach(position);
+    }
+    int player = position.getToMove();
+    int opponent = FastGame.opponent(player);
+
+    int cornerScore = 0;
+    for (int corner : corners) {
+      int owner = position.cell(corner);
+      if (owner == player) {
+        cornerScore++;
+      } else if (owner == opponent) {
+        cornerScore--;
+      }
+    }
+    return CORNER * cornerScore
+            + MOBILITY * (tracker.mobility(player) - tracker.mobility(opponent))
+            - FRONTIER * (tracker.frontier(player) - tracker.frontier(opponent))
+            + position.count(player) - position.count(opponent);
+  }
+
+  /**
+   * Starts following a new position, and stops following the previous one.
+   */
+  private void attach(FastGame position) {
+    if (game != null) {
+      game.removeTracker(tracker);
+    }
+    BoardTopology topology = position.getTopology();
+    if (tracker == null || tracker.getTopology() != topology) {
+      tracker = new MobilityTracker(topology);
+      corners = topology.corners();
+    }
+    game = position;
+    position.addTracker(tracker);
+  }
+}
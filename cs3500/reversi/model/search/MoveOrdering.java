@@ -0,0 +1,108 @@
+package cs3500.reversi.model.search;
+
+import java.util.Arrays;
+
+import cs3500.reversi.model.engine.BoardTopology;
+
+/**
+ * Sorts the moves of a search node so the ones most likely to cause a cutoff come first: the
+ * transposition table's best move, then the two killer moves of the ply (quiet moves that cut
+ * off a sibling node), then the rest by their history score (how often and how deep each cell
+ * has caused cutoffs for the color to move). Everything is kept in flat primitive arrays indexed
+ * by ply or by {@code color * cellCount + cell}, so ordering a node allocates nothing.
+ *
+ * <p>History scores are halved at the start of every search so that old results fade. An
+ * ordering is used by one search at a time.
+ */
+public final class MoveOrdering {
+  private static final int TABLE_MOVE = Integer.MAX_VALUE;
+  private static final int FIRST_KILLER = Integer.MAX_VALUE - 1;
+  private static final int SECOND_KILLER = Integer.MAX_VALUE - 2;
+  private static final int HISTORY_LIMIT = 1 << 28;
+
+  private BoardTopology topology;
+  private int cells;
+  private int[] killers;
+  private int[] history;
+  private int[] scores;
+
+  /**
+   * Prepares the tables for a new search on the given board, keeping the history of earlier
+   * searches on the same board at half weight.
+   *
+   * @param board the board searched.
+   */
+  public void newSearch(BoardTopology board) {
+    if (board != topology) {
+      topology = board;
+      cells = board.getCellCount();
+      killers = new int[2 * (2 * cells + 2)];
+      history = new int[3 * cells];
+      scores = new int[cells];
+    } else {
+      for (int i = 0; i < history.length; i++) {
+        history[i] >>= 1;
+      }
+    }
+    Arrays.fill(killers, Searcher.NO_MOVE);
+  }
+
+  /**
+   * Sorts the moves of a node, best candidates first.
+   *
+   * @param moves     the moves; sorted in place.
+   * @param count     the number of moves.
+   * @param ply       the distance of the node from the root.
+   * @param color     the color to move.
+   * @param tableMove the transposition table's best move, or {@link Searcher#NO_MOVE}.
+   */
+  public void order(int[] moves, int count, int ply, int color, int tableMove) {
+    int killer0 = killers[2 * ply];
+    int killer1 = killers[2 * ply + 1];
+    int base = color * cells;
+    for (int i = 0; i < count; i++) {
+      int move = moves[i];
+      int score;
+      if (move == tableMove) {
+        score = TABLE_MOVE;
+      } else if (move == killer0) {
+        score = FIRST_KILLER;
+      } else if (move == killer1) {
+        score = SECOND_KILLER;
+      } else {
+        score = history[base + move];
+      }
+      // Insertion sort: nodes have few moves and are often nearly sorted already.
+      int j = i;
+      while (j > 0 && scores[j - 1] < score) {
+        scores[j] = scores[j - 1];
+        moves[j] = moves[j - 1];
+        j--;
+      }
+      scores[j] = score;
+      moves[j] = move;
+    }
+  }
+
+  /**
+   * Records a move that caused a beta cutoff.
+   *
+   * @param move  the move.
+   * @param ply   the distance of the node from the root.
+   * @param color the color that played it.
+   * @param depth the remaining depth at the node.
+   */
+  public void cutoff(int move, int ply, int color, int depth) {
+    if (killers[2 * ply] != move) {
+      killers[2 * ply + 1] = killers[2 * ply];
+      killers[2 * ply] = move;
+    }
+    int index = color * cells + move;
+    history[index] += depth * depth;
+    if (history[index] > HISTORY_LIMIT) {
+      for (int i = 0; i < history.length; i++) {
+        history[i] >>= 1;
+      }
+    }
+  }
+}
@@ -0,0 +1,133 @@
+package cs3500.reversi.model.search;
+
+import cs3500.reversi.model.engine.BoardPatterns;
+import cs3500.reversi.model.engine.BoardTracker;
+import cs3500.reversi.model.engine.FastGame;
+
+/**
+ * Scores a position by looking up the weight of every line and corner region of the board in
+ * the {@link PatternWeights} of its game stage. The base 3 index of every pattern is kept up to
+ * date as cells change: the evaluator attaches itself as a {@link BoardTracker} to the position
+ * it is asked about, and each changed cell then costs one addition per pattern it belongs to.
+ * An evaluation is a single pass of table lookups, with no move generation at all.
+ *
+ * <p>Children are scored in a batch without being played: they all share one game stage, so
+ * the sum over the unchanged patterns is looked up once, and each child only adds the change
+ * of the patterns its move and flips touch.
+ */
+public final class PatternEvaluator implements BatchEvaluator, BoardTracker {
+  private FastGame game;
+  private PatternWeights weights;
+  private BoardPatterns patterns;
+  private short[] table;
+  private int[] offset;
+  private int block;
+  private int[] cellStart;
+  private int[] cellPattern;
+  private int[] cellPower;
+  private int[] index;
+  private int[] delta;
+  private int[] touched;
+  private int[] flips;
+
+  @Override
+  public int evaluate(FastGame position) {
+    if (position != game) {
+      attach(position);
+    }
+    int cells = cellStart.length - 1;
+    int base = PatternWeights.stage(cells, position.count(FastGame.EMPTY)) * block;
+    int score = 0;
+    for (int p = 0; p < index.length; p++) {
+      score += table[base + offset[p] + index[p]];
+    }
+    return position.getToMove() == FastGame.BLACK ? score : -score;
+  }
+
+  @Override
+  public void evaluateChildren(FastGame position, int[] moves, int count, int[] scores) {
+    if (count == 0) {
+      return;
+    }
+    if (position != game) {
+      attach(position);
+    }
+    int cells = cellStart.length - 1;
+    int base = PatternWeights.stage(cells, position.count(FastGame.EMPTY) - 1) * block;
+    int shared = 0;
+    for (int p = 0; p < index.length; p++) {
+      shared += table[base + offset[p] + index[p]];
+    }
+    int color = position.getToMove();
+    int opponent = FastGame.opponent(color);
+    for (int i = 0; i < count; i++) {
+      int flipped = position.flips(moves[i], color, flips);
+      int changed = touch(moves[i], color, 0);
+      for (int f = 0; f < flipped; f++) {
+        changed = touch(flips[f], color - opponent, changed);
+      }
+      int score = shared;
+      for (int t = 0; t < changed; t++) {
+        int p = touched[t];
+        int at = base + offset[p] + index[p];
+        score += table[at + delta[p]] - table[at];
+        delta[p] = 0;
+      }
+      scores[i] = opponent == FastGame.BLACK ? score : -score;
+    }
+  }
+
+  /**
+   * Adds the change of one cell to the pending index changes of its patterns.
+   */
+  private int touch(int cell, int change, int changed) {
+    for (int i = cellStart[cell]; i < cellStart[cell + 1]; i++) {
+      int p = cellPattern[i];
+      if (delta[p] == 0) {
+        touched[changed++] = p;
+      }
+      delta[p] += change * cellPower[i];
+    }
+    return changed;
+  }
+
+  /**
+   * Starts following a new position, and stops following the previous one.
+   */
+  private void attach(FastGame position) {
+    if (game != null) {
+      game.removeTracker(this);
+    }
+    if (weights == null || weights.getPatterns().getTopology() != position.getTopology()) {
+      weights = PatternWeights.of(position.getTopology());
+      patterns = weights.getPatterns();
+      table = weights.weights();
+      offset = weights.offsets();
+      block = weights.getBlock();
+      cellStart = patterns.cellStarts();
+      cellPattern = patterns.cellPatterns();
+      cellPower = patterns.cellPowers();
+      index = new int[patterns.getPatternCount()];
+      delta = new int[index.length];
+      touched = new int[index.length];
+      flips = new int[position.getTopology().getCellCount()];
+    }
+    game = position;
+    position.addTracker(this);
+  }
+
+  @Override
+  public void reset(FastGame position) {
+    for (int p = 0; p < index.length; p++) {
+      index[p] = patterns.index(p, position);
+    }
+  }
+
+  @Override
+  public void cellChanged(int cell, int from, int to) {
+    int delta = to - from;
+    for (int i = cellStart[cell]; i < cellStart[cell + 1]; i++) {
+      index[cellPattern[i]] += delta * cellPower[i];
+    }
+  }
+}
@@ -0,0 +1,271 @@
+package cs3500.reversi.model.search;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import cs3500.reversi.model.engine.BoardPatterns;
+import cs3500.reversi.model.engine.BoardTopology;
+import cs3500.reversi.model.engine.FastGame;
+
+/**
+ * The weight tables of the {@link PatternEvaluator} for one board: for every game stage and
+ * every pattern of {@link BoardPatterns}, one {@code short} per base 3 index, all in a single
+ * flat array. The weight of an index is from black's point of view.
+ *
+ * <p>The weights are worked out once per board from the shape of the pattern. Each cell
+ * contributes its positional value, shared out between the patterns it belongs to: corners are
+ * worth most, edges a little, and every disc more as the board fills up. On top of that a line
+ * counts the moves that capture along it for either side, a stand-in for mobility, and the discs
+ * next to an empty cell of the line, which give the opponent moves later on. It also rewards the
+ * unbroken run of discs growing out of a corner it owns, which can no longer be flipped. A
+ * corner region punishes the discs next to a corner that is still empty, which hand that corner
+ * to the opponent.
+ */
+public final class PatternWeights {
+  /**
+   * The number of game stages, split by the number of discs on the board.
+   */
+  public static final int STAGES = 4;
+
+  private static final Map<BoardTopology, PatternWeights> CACHE = new ConcurrentHashMap<>();
+
+  // Per stage, from the opening to the end.
+  private static final int[] DISC = {0, 1, 2, 4};
+  private static final int[] CORNER = {80, 80, 70, 60};
+  private static final int[] EDGE = {4, 4, 3, 2};
+  private static final int[] INTERIOR = {-1, 0, 0, 0};
+  private static final int[] STABLE = {12, 10, 8, 6};
+  private static final int[] NEXT_TO_EMPTY_CORNER = {25, 20, 12, 4};
+  private static final int[] MOBILITY = {10, 10, 8, 4};
+  private static final int[] FRONTIER = {4, 3, 2, 1};
+
+  private final BoardPatterns patterns;
+  private final int[] offset;
+  private final int block;
+  private final short[] weights;
+
+  private PatternWeights(BoardTopology topology) {
+    this.patterns = BoardPatterns.of(topology);
+    int count = patterns.getPatternCount();
+    this.offset = new int[count];
+    int size = 0;
+    for (int p = 0; p < count; p++) {
+      offset[p] = size;
+      size += power(patterns.length(p));
+    }
+    this.block = size;
+    this.weights = new short[STAGES * block];
+
+    int cells = topology.getCellCount();
+    boolean[] corner = new boolean[cells];
+    for (int cell : topology.corners()) {
+      corner[cell] = true;
+    }
+    int[] coverage = new int[cells];
+    int[] cellStart = patterns.cellStarts();
+    for (int cell = 0; cell < cells; cell++) {
+      coverage[cell] = cellStart[cell + 1] - cellStart[cell];
+    }
+    for (int stage = 0; stage < STAGES; stage++) {
+      for (int p = 0; p < count; p++) {
+        fill(topology, stage, p, corner, coverage);
+      }
+    }
+  }
+
+  /**
+   * Gives the weights of a board.
+   *
+   * @param topology the board geometry.
+   * @return the shared weights.
+   */
+  public static PatternWeights of(BoardTopology topology) {
+    return CACHE.computeIfAbsent(topology, PatternWeights::new);
+  }
+
+  private static int power(int length) {
+    int power = 1;
+    for (int k = 0; k < length; k++) {
+      power *= 3;
+    }
+    return power;
+  }
+
+  /**
+   * Works out the weights of one pattern at one stage.
+   */
+  private void fill(BoardTopology topology, int stage, int pattern, boolean[] corner,
+                    int[] coverage) {
+    int length = patterns.length(pattern);
+    int[] cells = new int[length];
+    double[] share = new double[length];
+    for (int k = 0; k < length; k++) {
+      int cell = patterns.cell(pattern, k);
+      cells[k] = cell;
+      int value = DISC[stage];
+      if (corner[cell]) {
+        value += CORNER[stage];
+      } else if (isEdge(topology, cell)) {
+        value += EDGE[stage];
+      } else {
+        value += INTERIOR[stage];
+      }
+      share[k] = (double) value / coverage[cell];
+    }
+
+    int[] digits = new int[length];
+    int base = stage * block + offset[pattern];
+    for (int index = 0; index < power(length); index++) {
+      int rest = index;
+      double score = 0;
+      for (int k = 0; k < length; k++) {
+        digits[k] = rest % 3;
+        rest /= 3;
+        score += sign(digits[k]) * share[k];
+      }
+      if (patterns.isRegion(pattern)) {
+        score += cornerRegion(topology, stage, cells, digits);
+      } else {
+        score += MOBILITY[stage]
+                * (moves(digits, FastGame.BLACK) - moves(digits, FastGame.WHITE));
+        score -= FRONTIER[stage] * frontier(digits);
+        score += stableRun(stage, cells, digits, corner, 0, 1);
+        score += stableRun(stage, cells, digits, corner, length - 1, -1);
+      }
+      weights[base + index] = (short) Math.round(score);
+    }
+  }
+
+  /**
+   * Scores the discs next to the corner of a region while the corner is empty.
+   */
+  private static int cornerRegion(BoardTopology topology, int stage, int[] cells, int[] digits) {
+    if (digits[0] != FastGame.EMPTY) {
+      return 0;
+    }
+    int score = 0;
+    for (int k = 1; k < cells.length; k++) {
+      if (isNeighbor(topology, cells[0], cells[k])) {
+        score -= sign(digits[k]) * NEXT_TO_EMPTY_CORNER[stage];
+      }
+    }
+    return score;
+  }
+
+  /**
+   * Counts the empty cells of a line where a color captures along the line.
+   */
+  private static int moves(int[] digits, int color) {
+    int count = 0;
+    for (int k = 0; k < digits.length; k++) {
+      if (digits[k] == FastGame.EMPTY
+              && (captures(digits, k, 1, color) || captures(digits, k, -1, color))) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  private static boolean captures(int[] digits, int from, int step, int color) {
+    int k = from + step;
+    while (k >= 0 && k < digits.length && digits[k] == FastGame.opponent(color)) {
+      k += step;
+    }
+    return k != from + step && k >= 0 && k < digits.length && digits[k] == color;
+  }
+
+  /**
+   * Counts black's discs next to an empty cell of a line minus white's.
+   */
+  private static int frontier(int[] digits) {
+    int score = 0;
+    for (int k = 0; k < digits.length; k++) {
+      if (digits[k] != FastGame.EMPTY
+              && (k > 0 && digits[k - 1] == FastGame.EMPTY
+              || k + 1 < digits.length && digits[k + 1] == FastGame.EMPTY)) {
+        score += sign(digits[k]);
+      }
+    }
+    return score;
+  }
+
+  /**
+   * Scores the run of one color starting at a corner at one end of a line.
+   */
+  private static int stableRun(int stage, int[] cells, int[] digits, boolean[] corner, int start,
+                               int step) {
+    if (!corner[cells[start]] || digits[start] == FastGame.EMPTY) {
+      return 0;
+    }
+    int run = 0;
+    for (int k = start + step; k >= 0 && k < cells.length && digits[k] == digits[start];
+         k += step) {
+      run++;
+    }
+    return sign(digits[start]) * run * STABLE[stage];
+  }
+
+  private static boolean isEdge(BoardTopology topology, int cell) {
+    for (int s = 0; s < topology.getSlots(); s++) {
+      if (topology.neighbor(cell, s) < 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean isNeighbor(BoardTopology topology, int cell, int other) {
+    for (int s = 0; s < topology.getSlots(); s++) {
+      if (topology.neighbor(cell, s) == other) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static int sign(int code) {
+    return code == FastGame.BLACK ? 1 : code == FastGame.WHITE ? -1 : 0;
+  }
+
+  /**
+   * Gives the stage of a position from its number of empty cells.
+   *
+   * @param cells   the number of cells of the board.
+   * @param empties the number of empty cells.
+   * @return the stage, from 0 to {@link #STAGES} - 1.
+   */
+  public static int stage(int cells, int empties) {
+    return (cells - empties) * STAGES / (cells + 1);
+  }
+
+  /**
+   * Gives where the table of a pattern begins within the tables of a stage.
+   *
+   * @return the offsets, indexed by pattern, not to be modified.
+   */
+  int[] offsets() {
+    return offset;
+  }
+
+  /**
+   * Gives all the weights, stage after stage.
+   *
+   * @return the weights, not to be modified.
+   */
+  short[] weights() {
+    return weights;
+  }
+
+  /**
+   * Gives the number of weights of one stage.
+   *
+   * @return the sum of the table sizes of all patterns.
+   */
+  int getBlock() {
+    return block;
+  }
+
+  public BoardPatterns getPatterns() {
+    return patterns;
+  }
+}
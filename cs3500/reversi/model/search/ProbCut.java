@@ -0,0 +1,175 @@
+package cs3500.reversi.model.search;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import cs3500.reversi.model.engine.BoardTopology;
+
+/**
+ * Parameters of ProbCut selective pruning. For a deep search of depth {@code D} on a board, a
+ * shallow search of depth {@code d} predicts the deep score as {@code a * shallow + b}, with
+ * residuals of standard deviation {@code sigma}. Before searching a node to depth {@code D} the
+ * searcher runs the shallow search against the bounds that make the prediction at least
+ * {@code threshold} standard deviations above beta or below alpha, and cuts the node off if it
+ * gets there. The regressions are fitted offline from self-play positions, per board shape and
+ * size, by {@code cs3500.reversi.tools.ProbCutFitter}, and written one per line as
+ * {@code board depth shallow a b sigma}.
+ */
+public final class ProbCut {
+  /**
+   * The default number of standard deviations a prediction must clear.
+   */
+  public static final double DEFAULT_THRESHOLD = 1.5;
+
+  // Fitted by ProbCutFitter on 500 self-play positions per board with the BasicEvaluator.
+  private static final String[] DEFAULTS = {
+      "hex:4 3 1 1.0353 2.555 63.302",
+      "hex:4 4 2 1.1048 4.575 65.563",
+      "hex:4 5 1 1.2082 11.433 106.126",
+      "hex:4 6 2 1.2731 12.337 119.182",
+      "hex:4 7 3 1.3931 2.625 123.183",
+      "hex:5 3 1 1.0125 0.620 14.821",
+      "hex:5 4 2 1.0027 1.696 13.346",
+      "hex:5 5 1 1.0329 1.014 20.455",
+      "hex:5 6 2 1.0250 2.601 19.291",
+      "hex:5 7 3 1.0326 1.525 19.131",
+      "hex:6 3 1 1.0463 2.993 39.590",
+      "hex:6 4 2 1.1068 5.488 41.036",
+      "hex:6 5 1 1.1572 6.087 61.200",
+      "hex:6 6 2 1.2094 7.132 59.786",
+      "hex:6 7 3 1.2288 1.368 53.807",
+      "square:6 3 1 1.0786 2.784 36.306",
+      "square:6 4 2 1.0758 5.569 37.352",
+      "square:6 5 1 1.1602 3.231 57.096",
+      "square:6 6 2 1.1574 12.551 55.970",
+      "square:6 7 3 1.1777 0.848 50.151",
+      "square:8 3 1 1.0309 4.374 27.910",
+      "square:8 4 2 1.0184 3.573 29.464",
+      "square:8 5 1 1.0568 4.522 41.306",
+      "square:8 6 2 1.0477 4.935 42.338",
+      "square:8 7 3 1.0850 -1.211 38.231"
+  };
+
+  private final Map<String, double[][]> boards;
+  private final double threshold;
+
+  private ProbCut(Map<String, double[][]> boards, double threshold) {
+    if (threshold <= 0) {
+      throw new IllegalArgumentException("Threshold must be positive");
+    }
+    this.boards = boards;
+    this.threshold = threshold;
+  }
+
+  /**
+   * Gives the parameters fitted for the {@link BasicEvaluator} on the boards used most.
+   *
+   * @return the default parameters with the default threshold.
+   */
+  public static ProbCut defaults() {
+    return parse(List.of(DEFAULTS), DEFAULT_THRESHOLD);
+  }
+
+  /**
+   * Reads parameters written one regression per line as {@code board depth shallow a b sigma}.
+   * Blank lines and lines starting with # are skipped.
+   *
+   * @param lines     the lines to read.
+   * @param threshold the number of standard deviations a prediction must clear.
+   * @return the parameters.
+   * @throws IllegalArgumentException if a line is malformed.
+   */
+  public static ProbCut parse(List<String> lines, double threshold) {
+    Map<String, double[][]> boards = new LinkedHashMap<>();
+    for (String line : lines) {
+      String trimmed = line.trim();
+      if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+        continue;
+      }
+      String[] parts = trimmed.split("\\s+");
+      if (parts.length != 6) {
+        throw new IllegalArgumentException("Expected board depth shallow a b sigma: " + line);
+      }
+      int depth = Integer.parseInt(parts[1]);
+      int shallow = Integer.parseInt(parts[2]);
+      double a = Double.parseDouble(parts[3]);
+      double sigma = Double.parseDouble(parts[5]);
+      if (shallow < 0 || shallow >= depth || a <= 0 || sigma < 0) {
+        throw new IllegalArgumentException("Invalid regression: " + line);
+      }
+      double[][] depths = boards.computeIfAbsent(parts[0], key -> new double[0][]);
+      if (depths.length <= depth) {
+        double[][] grown = new double[depth + 1][];
+        System.arraycopy(depths, 0, grown, 0, depths.length);
+        depths = grown;
+        boards.put(parts[0], depths);
+      }
+      depths[depth] = new double[]{shallow, a, Double.parseDouble(parts[4]), sigma};
+    }
+    return new ProbCut(boards, threshold);
+  }
+
+  /**
+   * Copies these parameters with another threshold.
+   *
+   * @param threshold the number of standard deviations a prediction must clear.
+   * @return the adjusted parameters.
+   */
+  public ProbCut withThreshold(double threshold) {
+    return new ProbCut(boards, threshold);
+  }
+
+  /**
+   * Gives the regressions of one board, indexed by deep depth.
+   *
+   * @param board the board searched.
+   * @return for each depth either null or {shallow depth, a, b, sigma}; empty if the board has
+   *         no parameters. Not to be modified.
+   */
+  double[][] forBoard(BoardTopology board) {
+    return boards.getOrDefault(board.toString(), new double[0][]);
+  }
+
+  public double getThreshold() {
+    return threshold;
+  }
+
+  /**
+   * Writes the parameters in the format read by {@link #parse(List, double)}.
+   *
+   * @return one line per regression.
+   */
+  public List<String> format() {
+    List<String> lines = new ArrayList<>();
+    for (Map.Entry<String, double[][]> board : boards.entrySet()) {
+      double[][] depths = board.getValue();
+      for (int depth = 0; depth < depths.length; depth++) {
+        if (depths[depth] != null) {
+          lines.add(line(board.getKey(), depth, (int) depths[depth][0], depths[depth][1],
+                  depths[depth][2], depths[depth][3]));
+        }
+      }
+    }
+    return lines;
+  }
+
+  /**
+   * Formats one regression as a parameter line.
+   *
+   * @param board   the board, as "type:size".
+   * @param depth   the deep depth.
+   * @param shallow the shallow depth.
+   * @param a       the slope.
+   * @param b       the intercept.
+   * @param sigma   the standard deviation of the residuals.
+   * @return the line.
+   */
+  public static String line(String board, int depth, int shallow, double a, double b,
+                            double sigma) {
+    return String.format(Locale.ROOT, "%s %d %d %.4f %.3f %.3f", board, depth, shallow, a, b,
+            sigma);
+  }
+}
@@ -0,0 +1,136 @@
+package cs3500.reversi.model.search;
+
+import java.time.Duration;
+
+/**
+ * Limits on how much work one search may do: a time limit, a node limit and a depth limit. A
+ * search stops at whichever limit it reaches first and answers with the best move it has found
+ * so far. Budgets are immutable; the {@code with} methods return adjusted copies.
+ */
+public final class SearchBudget {
+  private static final SearchBudget UNLIMITED =
+          new SearchBudget(Long.MAX_VALUE, Long.MAX_VALUE, Integer.MAX_VALUE);
+
+  private final long timeNanos;
+  private final long nodes;
+  private final int depth;
+
+  private SearchBudget(long timeNanos, long nodes, int depth) {
+    this.timeNanos = timeNanos;
+    this.nodes = nodes;
+    this.depth = depth;
+  }
+
+  /**
+   * Gives the budget without limits: the search runs until the game is solved or it is
+   * interrupted.
+   *
+   * @return the unlimited budget.
+   */
+  public static SearchBudget unlimited() {
+    return UNLIMITED;
+  }
+
+  /**
+   * Gives a budget with only a depth limit.
+   *
+   * @param depth the number of plies to search, at least 1.
+   * @return the budget.
+   */
+  public static SearchBudget ofDepth(int depth) {
+    return UNLIMITED.withDepth(depth);
+  }
+
+  /**
+   * Gives a budget with only a time limit.
+   *
+   * @param time how long the search may take.
+   * @return the budget.
+   */
+  public static SearchBudget ofTime(Duration time) {
+    return UNLIMITED.withTime(time);
+  }
+
+  /**
+   * Gives a budget with only a node limit.
+   *
+   * @param nodes the number of positions the search may visit, at least 1.
+   * @return the budget.
+   */
+  public static SearchBudget ofNodes(long nodes) {
+    return UNLIMITED.withNodes(nodes);
+  }
+
+  /**
+   * Copies this budget with another time limit.
+   *
+   * @param time how long the search may take.
+   * @return the adjusted budget.
+   */
+  public SearchBudget withTime(Duration time) {
+    if (time == null || time.isNegative()) {
+      throw new IllegalArgumentException("Time must be zero or positive");
+    }
+    return new SearchBudget(time.toNanos(), nodes, depth);
+  }
+
+  /**
+   * Copies this budget with another node limit.
+   *
+   * @param nodes the number of positions the search may visit, at least 1.
+   * @return the adjusted budget.
+   */
+  public SearchBudget withNodes(long nodes) {
+    if (nodes < 1) {
+      throw new IllegalArgumentException("Node limit must be positive");
+    }
+    return new SearchBudget(timeNanos, nodes, depth);
+  }
+
+  /**
+   * Copies this budget with another depth limit.
+   *
+   * @param depth the number of plies to search, at least 1.
+   * @return the adjusted budget.
+   */
+  public SearchBudget withDepth(int depth) {
+    if (depth < 1) {
+      throw new IllegalArgumentException("Depth limit must be positive");
+    }
+    return new SearchBudget(timeNanos, nodes, depth);
+  }
+
+  /**
+   * Gives the time limit.
+   *
+   * @return the limit in nanoseconds, or {@link Long#MAX_VALUE} if there is none.
+   */
+  public long getTimeNanos() {
+    return timeNanos;
+  }
+
+  /**
+   * Gives the node limit.
+   *
+   * @return the limit, or {@link Long#MAX_VALUE} if there is none.
+   */
+  public long getNodes() {
+    return nodes;
+  }
+
+  /**
+   * Gives the depth limit.
+   *
+   * @return the limit in plies, or {@link Integer#MAX_VALUE} if there is none.
+   */
+  public int getDepth() {
+    return depth;
+  }
+
+  @Override
+  public String toString() {
+    return "SearchBudget[time=" + (timeNanos == Long.MAX_VALUE ? "-" : timeNanos / 1_000_000
+            + "ms") + ", nodes=" + (nodes == Long.MAX_VALUE ? "-" : nodes) + ", depth="
+            + (depth == Integer.MAX_VALUE ? "-" : depth) + "]";
+  }
+}
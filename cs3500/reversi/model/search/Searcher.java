@@ -0,0 +1,433 @@
+package cs3500.reversi.model.search;
+
+import cs3500.reversi.model.engine.FastGame;
+import cs3500.reversi.model.engine.StabilityAnalyzer;
+
+/**
+ * Iterative deepening alpha-beta search over a {@link FastGame}. The search is anytime: after
+ * every finished depth, and whenever a root move is proven better during a depth, the best move
+ * so far is published and can be read from any thread with {@link #bestMoveSoFar()}. It stops
+ * when its {@link SearchBudget} runs out, when {@link #stop()} is called or when its thread is
+ * interrupted, and then answers with the best move so far. Results are kept in a {@link
+ * TranspositionTable} that survives from one search to the next, so a search of a position
+ * reached from an earlier search, or from pondering, starts with its work already done.
+ *
+ * <p>Scores are from the point of view of the side to move. A finished game scores
+ * plus or minus {@link #WIN} plus the final disc difference, so a search prefers any win to any
+ * evaluation and larger wins to smaller ones. A searcher is used by one thread at a time.
+ *
+ * <p>With a {@link BatchEvaluator}, the nodes one ply above the leaves score all their children
+ * in one call, try them best first, and only play each one to check that the game goes on.
+ *
+ * <p>Where the remaining depth reaches the end of the game, the stable discs of both sides bound
+ * the final score, and a node whose bound already fails against the window is cut off.
+ */
+public final class Searcher {
+  /**
+   * The score of a won game, before adding the final disc difference.
+   */
+  public static final int WIN = 1 << 20;
+
+  /**
+   * The move reported before any search has started.
+   */
+  public static final int NO_MOVE = -2;
+
+  private static final int INFINITY = 2 * WIN;
+  private static final int NO_CUT = Integer.MIN_VALUE;
+  // Time and interruption are checked once every CHECK_INTERVAL + 1 nodes.
+  private static final int CHECK_INTERVAL = 255;
+  // Closer to the end than this, a subtree costs less to search than its stable discs to find.
+  private static final int STABILITY_DEPTH = 5;
+
+  private final Evaluator evaluator;
+  private final BatchEvaluator batch;
+  private final TranspositionTable table;
+  private final MoveOrdering ordering = new MoveOrdering();
+  private final ProbCut probCut;
+  private double[][] cuts;
+  private StabilityAnalyzer stability;
+
+  private volatile boolean stopRequested;
+  private volatile int bestMove = NO_MOVE;
+  private volatile int bestScore;
+  private volatile int completedDepth;
+
+  private FastGame game;
+  private int[][] moves;
+  private int[] childScores;
+  private long nodes;
+  private long nodeLimit;
+  private long deadline;
+  private boolean aborted;
+
+  /**
+   * Creates a searcher that scores unfinished positions with the given evaluator.
+   *
+   * @param evaluator the evaluator, used only by this searcher.
+   * @param log2Table the base 2 logarithm of the number of transposition table slots.
+   */
+  public Searcher(Evaluator evaluator, int log2Table) {
+    this(evaluator, log2Table, null);
+  }
+
+  /**
+   * Creates a searcher that prunes selectively with ProbCut.
+   *
+   * @param evaluator the evaluator, used only by this searcher.
+   * @param log2Table the base 2 logarithm of the number of transposition table slots.
+   * @param probCut   the ProbCut parameters, fitted for this evaluator, or null to search every
+   *                  node in full.
+   */
+  public Searcher(Evaluator evaluator, int log2Table, ProbCut probCut) {
+    if (evaluator == null) {
+      throw new IllegalArgumentException("Evaluator cannot be null");
+    }
+    this.evaluator = evaluator;
+    this.batch = evaluator instanceof BatchEvaluator ? (BatchEvaluator) evaluator : null;
+    this.table = new TranspositionTable(log2Table);
+    this.probCut = probCut;
+  }
+
+  /**
+   * Searches a position for the side to move.
+   *
+   * @param position the position; it is not modified.
+   * @param budget   the limits of the search.
+   * @return the best move found, or {@link FastGame#PASS} if the side to move has no move.
+   * @throws IllegalArgumentException if the game is over.
+   */
+  public int search(FastGame position, SearchBudget budget) {
+    if (position.isGameOver()) {
+      throw new IllegalArgumentException("The game is over");
+    }
+    forgetBestMove();
+    long start = System.nanoTime();
+    game = new FastGame(position);
+    if (stability == null || stability.getTopology() != game.getTopology()) {
+      stability = new StabilityAnalyzer(game.getTopology());
+    }
+    stability.attach(game);
+    int cells = game.getTopology().getCellCount();
+    if (moves == null || moves[0].length != cells) {
+      moves = new int[2 * cells + 2][cells];
+      childScores = new int[cells];
+    }
+    ordering.newSearch(game.getTopology());
+    cuts = probCut == null ? null : probCut.forBoard(game.getTopology());
+    nodes = 0;
+    nodeLimit = budget.getNodes();
+    deadline = budget.getTimeNanos() == Long.MAX_VALUE
+            ? Long.MAX_VALUE : start + budget.getTimeNanos();
+    aborted = false;
+    stopRequested = false;
+    completedDepth = 0;
+
+    int[] rootMoves = new int[cells];
+    int count = game.legalMoves(rootMoves);
+    if (count == 0) {
+      bestMove = FastGame.PASS;
+      return FastGame.PASS;
+    }
+    bestMove = rootMoves[0];
+    bestScore = 0;
+
+    int empties = game.count(FastGame.EMPTY);
+    int maxDepth = Math.min(budget.getDepth(), empties);
+    for (int depth = 1; depth <= maxDepth && !stopRequested; depth++) {
+      int score = searchRoot(rootMoves, count, depth);
+      if (aborted) {
+        break;
+      }
+      completedDepth = depth;
+      bestScore = score;
+    }
+    return bestMove;
+  }
+
+  /**
+   * Searches every root move to the given depth, best move so far first, and moves the new best
+   * move to the front.
+   */
+  private int searchRoot(int[] rootMoves, int count, int depth) {
+    int alpha = -INFINITY;
+    int best = 0;
+    for (int i = 0; i < count; i++) {
+      game.play(rootMoves[i]);
+      int score = -negamax(depth - 1, -INFINITY, -alpha, 1);
+      game.undo();
+      if (aborted) {
+        break;
+      }
+      if (score > alpha) {
+        alpha = score;
+        best = i;
+        // A full window search of this move finished, so it is safe to report it even if the
+        // depth does not complete.
+        bestMove = rootMoves[i];
+        bestScore = score;
+      }
+    }
+    int move = rootMoves[best];
+    System.arraycopy(rootMoves, 0, rootMoves, 1, best);
+    rootMoves[0] = move;
+    return alpha;
+  }
+
+  private int negamax(int depth, int alpha, int beta, int ply) {
+    nodes++;
+    if (nodes >= nodeLimit || (nodes & CHECK_INTERVAL) == 0 && outOfTime()) {
+      aborted = true;
+    }
+    if (aborted) {
+      return 0;
+    }
+
+    if (cuts != null && depth < cuts.length && cuts[depth] != null) {
+      int cut = probCut(cuts[depth], alpha, beta, ply);
+      if (cut != NO_CUT) {
+        return cut;
+      }
+    }
+
+    if (depth >= STABILITY_DEPTH && depth >= game.count(FastGame.EMPTY)) {
+      int cut = stabilityCut(alpha, beta);
+      if (cut != NO_CUT) {
+        return cut;
+      }
+    }
+
+    // A leaf only needs to know that it is not a pass.
+    if (depth <= 0 && game.hasLegalMove(game.getToMove())) {
+      return evaluator.evaluate(game);
+    }
+    int[] buffer = moves[ply];
+    int count = game.legalMoves(buffer);
+    if (count == 0) {
+      if (!game.hasLegalMove(FastGame.opponent(game.getToMove()))) {
+        return finalScore();
+      }
+      game.pass();
+      int score = -negamax(depth, -beta, -alpha, ply + 1);
+      game.undo();
+      return score;
+    }
+
+    long key = game.hash();
+    long entry = table.probe(key);
+    int tableMove = entry == 0 ? NO_MOVE : TranspositionTable.move(entry);
+    if (entry != 0 && TranspositionTable.depth(entry) >= depth) {
+      int stored = TranspositionTable.score(entry);
+      int bound = TranspositionTable.bound(entry);
+      if (bound == TranspositionTable.EXACT
+              || bound == TranspositionTable.LOWER && stored >= beta
+              || bound == TranspositionTable.UPPER && stored <= alpha) {
+        return stored;
+      }
+    }
+
+    if (depth == 1 && batch != null) {
+      return frontier(buffer, count, alpha, beta, ply, key);
+    }
+
+    int color = game.getToMove();
+    ordering.order(buffer, count, ply, color, tableMove);
+    int originalAlpha = alpha;
+    int best = -INFINITY;
+    int bestCell = NO_MOVE;
+    for (int i = 0; i < count; i++) {
+      game.play(buffer[i]);
+      int score = -negamax(depth - 1, -beta, -alpha, ply + 1);
+      game.undo();
+      if (aborted) {
+        return 0;
+      }
+      if (score > best) {
+        best = score;
+        bestCell = buffer[i];
+        if (score > alpha) {
+          alpha = score;
+          if (alpha >= beta) {
+            ordering.cutoff(buffer[i], ply, color, depth);
+            break;
+          }
+        }
+      }
+    }
+    int bound = best >= beta ? TranspositionTable.LOWER
+            : best > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER;
+    table.store(key, depth, bound, best, bestCell);
+    return best;
+  }
+
+  /**
+   * Searches a node one ply above the leaves with the batch evaluator: every child is scored at
+   * once and the children are tried best first. Each child still counts as a visited node, and
+   * is played only to see whether the game ends there; a child where the side to move must pass
+   * scores the same as after the pass.
+   */
+  private int frontier(int[] buffer, int count, int alpha, int beta, int ply, long key) {
+    int[] scores = childScores;
+    batch.evaluateChildren(game, buffer, count, scores);
+    for (int i = 0; i < count; i++) {
+      // Insertion sort, best for this side first.
+      int move = buffer[i];
+      int score = -scores[i];
+      int j = i;
+      while (j > 0 && scores[j - 1] < score) {
+        scores[j] = scores[j - 1];
+        buffer[j] = buffer[j - 1];
+        j--;
+      }
+      scores[j] = score;
+      buffer[j] = move;
+    }
+
+    int color = game.getToMove();
+    int originalAlpha = alpha;
+    int best = -INFINITY;
+    int bestCell = NO_MOVE;
+    for (int i = 0; i < count; i++) {
+      nodes++;
+      int score = scores[i];
+      game.play(buffer[i]);
+      if (!game.hasLegalMove(game.getToMove()) && !game.hasLegalMove(color)) {
+        score = -finalScore();
+      }
+      game.undo();
+      if (score > best) {
+        best = score;
+        bestCell = buffer[i];
+        if (score > alpha) {
+          alpha = score;
+          if (alpha >= beta) {
+            ordering.cutoff(buffer[i], ply, color, 1);
+            break;
+          }
+        }
+      }
+    }
+    int bound = best >= beta ? TranspositionTable.LOWER
+            : best > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER;
+    table.store(key, 1, bound, best, bestCell);
+    return best;
+  }
+
+  /**
+   * Tries to cut a node off with a shallow null window search: the deep score is predicted as
+   * {@code a * shallow + b}, so a shallow score at or above {@code (t * sigma + beta - b) / a}
+   * makes a fail high likely, and one at or below {@code (-t * sigma + alpha - b) / a} a fail
+   * low. Runs before the node's own moves are generated since the shallow search reuses this
+   * ply's move buffer.
+   */
+  private int probCut(double[] regression, int alpha, int beta, int ply) {
+    int shallow = (int) regression[0];
+    double a = regression[1];
+    double b = regression[2];
+    double margin = probCut.getThreshold() * regression[3];
+    if (beta < WIN / 2) {
+      int bound = (int) Math.ceil((margin + beta - b) / a);
+      if (bound < WIN / 2 && negamax(shallow, bound - 1, bound, ply) >= bound && !aborted) {
+        return beta;
+      }
+    }
+    if (alpha > -WIN / 2) {
+      int bound = (int) Math.floor((-margin + alpha - b) / a);
+      if (bound > -WIN / 2 && negamax(shallow, bound, bound + 1, ply) <= bound && !aborted) {
+        return alpha;
+      }
+    }
+    return NO_CUT;
+  }
+
+  /**
+   * Bounds the final score by the stable discs: the side to move ends with at most every disc
+   * but the opponent's stable ones, and at least its own stable ones.
+   */
+  private int stabilityCut(int alpha, int beta) {
+    int player = game.getToMove();
+    int opponent = FastGame.opponent(player);
+    int cells = game.getTopology().getCellCount();
+    // Working out stability only pays when the bound could cut even if every disc were stable.
+    if (outcome(cells - 2 * game.count(opponent)) <= alpha) {
+      int upper = outcome(cells - 2 * stability.count(opponent));
+      if (upper <= alpha) {
+        return upper;
+      }
+    }
+    if (outcome(2 * game.count(player) - cells) >= beta) {
+      int lower = outcome(2 * stability.count(player) - cells);
+      if (lower >= beta) {
+        return lower;
+      }
+    }
+    return NO_CUT;
+  }
+
+  private boolean outOfTime() {
+    return stopRequested || Thread.currentThread().isInterrupted()
+            || deadline != Long.MAX_VALUE && System.nanoTime() - deadline >= 0;
+  }
+
+  private int finalScore() {
+    int player = game.getToMove();
+    return outcome(game.count(player) - game.count(FastGame.opponent(player)));
+  }
+
+  private static int outcome(int difference) {
+    return Integer.signum(difference) * WIN + difference;
+  }
+
+  /**
+   * Asks a running search to stop as soon as possible. Can be called from any thread.
+   */
+  public void stop() {
+    stopRequested = true;
+  }
+
+  /**
+   * Forgets the best move of the last search, so {@link #bestMoveSoFar()} gives {@link #NO_MOVE}
+   * until the next search publishes one. Every search starts with this. Can be called from any
+   * thread.
+   */
+  public void forgetBestMove() {
+    bestMove = NO_MOVE;
+  }
+
+  /**
+   * Gives the best move of the running or last search.
+   *
+   * @return a cell, {@link FastGame#PASS}, or {@link #NO_MOVE} before the running search has
+   *         published a move.
+   */
+  public int bestMoveSoFar() {
+    return bestMove;
+  }
+
+  /**
+   * Gives the score of the best move so far.
+   *
+   * @return the score for the side to move at the root.
+   */
+  public int getBestScore() {
+    return bestScore;
+  }
+
+  /**
+   * Gives the deepest depth the running or last search has finished.
+   *
+   * @return the depth in plies, 0 if none has finished.
+   */
+  public int getCompletedDepth() {
+    return completedDepth;
+  }
+
+  /**
+   * Gives the number of positions visited by the last search.
+   *
+   * @return the node count.
+   */
+  public long getNodes() {
+    return nodes;
+  }
+}
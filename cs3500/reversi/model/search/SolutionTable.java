@@ -0,0 +1,188 @@
+package cs3500.reversi.model.search;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import cs3500.reversi.model.engine.BoardSymmetry;
+import cs3500.reversi.model.engine.BoardTopology;
+import cs3500.reversi.model.engine.FastGame;
+
+/**
+ * The game-theoretic value of every reachable position of a small board, read from a memory
+ * mapped file. A value is the final disc difference, for the side to move, when both sides play
+ * perfectly. Positions are stored once for all their symmetric images, under the exact key of
+ * {@link BoardSymmetry#canonicalKey(FastGame)}, so a lookup costs one key and a binary search.
+ *
+ * <p>The file is big endian: the magic number, the format version, 1 for a hex board or 0 for a
+ * square one, the board size and its number of cells; then, for every disc count from 0 to the
+ * number of cells, the index of the first entry with that many discs, and the total number of
+ * entries; then the keys of all entries as longs, in increasing order within each disc count;
+ * then their values, one byte each. Tables are written by {@code cs3500.reversi.tools.
+ * RetrogradeSolver}.
+ */
+public final class SolutionTable {
+  /**
+   * The value reported for a position that is not in the table.
+   */
+  public static final int UNKNOWN = Integer.MIN_VALUE;
+
+  private static final int MAGIC = 0x52534f4c;
+  private static final int VERSION = 1;
+
+  private final BoardTopology topology;
+  private final BoardSymmetry symmetry;
+  private final long[] layerStart;
+  private final LongBuffer keys;
+  private final ByteBuffer values;
+
+  private SolutionTable(BoardTopology topology, long[] layerStart, LongBuffer keys,
+                        ByteBuffer values) {
+    this.topology = topology;
+    this.symmetry = BoardSymmetry.of(topology);
+    this.layerStart = layerStart;
+    this.keys = keys;
+    this.values = values;
+  }
+
+  /**
+   * Gives the file name a table of a board is stored under.
+   *
+   * @param topology the board.
+   * @return the file name, such as {@code hex3.solution}.
+   */
+  public static String fileName(BoardTopology topology) {
+    return (topology.isHex() ? "hex" : "square") + topology.getSize() + ".solution";
+  }
+
+  /**
+   * Maps a table file into memory.
+   *
+   * @param file the file.
+   * @return the table.
+   * @throws IOException              if the file cannot be read.
+   * @throws IllegalArgumentException if the file is not a solution table.
+   */
+  public static SolutionTable open(Path file) throws IOException {
+    ByteBuffer data;
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+    if (data.limit() < 20 || data.getInt() != MAGIC) {
+      throw new IllegalArgumentException(file + " is not a solution table");
+    }
+    if (data.getInt() != VERSION) {
+      throw new IllegalArgumentException(file + " has an unknown format version");
+    }
+    boolean hex = data.getInt() == 1;
+    int size = data.getInt();
+    BoardTopology topology = hex ? BoardTopology.hex(size) : BoardTopology.square(size);
+    int cells = data.getInt();
+    if (cells != topology.getCellCount()) {
+      throw new IllegalArgumentException(file + " does not match " + topology);
+    }
+    long[] layerStart = new long[cells + 2];
+    for (int d = 0; d < layerStart.length; d++) {
+      layerStart[d] = data.getLong();
+    }
+    long entries = layerStart[cells + 1];
+    if (data.remaining() != entries * (Long.BYTES + 1)) {
+      throw new IllegalArgumentException(file + " is truncated");
+    }
+    int keysAt = data.position();
+    int valuesAt = keysAt + (int) (entries * Long.BYTES);
+    LongBuffer keys = data.duplicate().position(keysAt).limit(valuesAt).slice().asLongBuffer();
+    ByteBuffer values = data.duplicate().position(valuesAt).slice();
+    return new SolutionTable(topology, layerStart, keys, values);
+  }
+
+  /**
+   * Writes a table file.
+   *
+   * @param file     the file to create or replace.
+   * @param topology the board.
+   * @param keys     for every disc count, the keys of the positions with that many discs in
+   *                 increasing order; empty or null where there are none.
+   * @param values   the values of those positions, in the same order.
+   * @throws IOException if the file cannot be written.
+   */
+  public static void write(Path file, BoardTopology topology, long[][] keys, byte[][] values)
+          throws IOException {
+    int cells = topology.getCellCount();
+    if (keys.length != cells + 1 || values.length != cells + 1) {
+      throw new IllegalArgumentException("Expected one layer per disc count");
+    }
+    try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+            Files.newOutputStream(file), 1 << 16))) {
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      out.writeInt(topology.isHex() ? 1 : 0);
+      out.writeInt(topology.getSize());
+      out.writeInt(cells);
+      long start = 0;
+      for (long[] layer : keys) {
+        out.writeLong(start);
+        start += layer == null ? 0 : layer.length;
+      }
+      out.writeLong(start);
+      for (long[] layer : keys) {
+        if (layer != null) {
+          for (long key : layer) {
+            out.writeLong(key);
+          }
+        }
+      }
+      for (byte[] layer : values) {
+        if (layer != null) {
+          out.write(layer);
+        }
+      }
+    }
+  }
+
+  /**
+   * Looks up the value of a position.
+   *
+   * @param position a position on the table's board.
+   * @return the final disc difference for the side to move under perfect play, or {@link
+   *         #UNKNOWN} if the position is not in the table.
+   * @throws IllegalArgumentException if the position is on another board.
+   */
+  public int value(FastGame position) {
+    long key = symmetry.canonicalKey(position);
+    int discs = topology.getCellCount() - position.count(FastGame.EMPTY);
+    long low = layerStart[discs];
+    long high = layerStart[discs + 1] - 1;
+    while (low <= high) {
+      long mid = (low + high) >>> 1;
+      long found = keys.get((int) mid);
+      if (found < key) {
+        low = mid + 1;
+      } else if (found > key) {
+        high = mid - 1;
+      } else {
+        return values.get((int) mid);
+      }
+    }
+    return UNKNOWN;
+  }
+
+  /**
+   * Gives the number of positions in the table.
+   *
+   * @return the number of entries.
+   */
+  public long size() {
+    return layerStart[layerStart.length - 1];
+  }
+
+  public BoardTopology getTopology() {
+    return topology;
+  }
+}
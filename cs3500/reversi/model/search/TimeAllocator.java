@@ -0,0 +1,44 @@
+package cs3500.reversi.model.search;
+
+import cs3500.reversi.model.engine.FastGame;
+
+/**
+ * Splits a clock's remaining time across the moves still to come. Every move fills one cell, so
+ * the side to move has about half the empty cells left to play. Each move gets an even share of
+ * the bank plus most of the increment, scaled by how hard the position looks: a forced move gets
+ * almost nothing, and a position with many more moves than usual for its board gets up to twice
+ * the share. That matters most on hex boards, where the number of moves swings widely from one
+ * position to the next. No move gets more than a quarter of the bank.
+ */
+public final class TimeAllocator {
+  private static final int MIN_MOVES_LEFT = 3;
+  private static final long MIN_TIME = 1_000_000L;
+
+  /**
+   * Gives the time to spend on the next move.
+   *
+   * @param remainingNanos the time left on the mover's clock.
+   * @param incrementNanos the time added to the clock after the move.
+   * @param position       the position to move in, with the mover to move.
+   * @return the time to search, in nanoseconds; at least a millisecond while time remains.
+   */
+  public long allocate(long remainingNanos, long incrementNanos, FastGame position) {
+    if (remainingNanos <= 0) {
+      return 0;
+    }
+    int cells = position.getTopology().getCellCount();
+    int movesLeft = Math.max(MIN_MOVES_LEFT, (position.count(FastGame.EMPTY) + 1) / 2);
+    double share = (double) remainingNanos / movesLeft + 0.75 * incrementNanos;
+
+    int mobility = position.legalMoves(new int[cells]);
+    if (mobility <= 1) {
+      share /= 16;
+    } else {
+      double typical = 2 + cells / 8.0;
+      share *= Math.max(0.5, Math.min(2.0, Math.sqrt(mobility / typical)));
+    }
+
+    long cap = remainingNanos / 4 + incrementNanos;
+    return Math.max(Math.min(MIN_TIME, remainingNanos), Math.min(cap, (long) share));
+  }
+}
@@ -0,0 +1,123 @@
+package cs3500.reversi.model.search;
+
+import java.util.Arrays;
+
+/**
+ * A fixed size hash table of search results, keyed by {@link
+ * cs3500.reversi.model.engine.FastGame#hash()}. Each slot is two longs: the full key and an
+ * entry packing the score, the bound type, the searched depth and the best move. A new result
+ * replaces the old one in its slot unless the old one is for the same position and was searched
+ * deeper. The table is used by one thread at a time.
+ */
+public final class TranspositionTable {
+  /**
+   * The score is exact.
+   */
+  public static final int EXACT = 1;
+
+  /**
+   * The score is a lower bound: the search failed high.
+   */
+  public static final int LOWER = 2;
+
+  /**
+   * The score is an upper bound: the search failed low.
+   */
+  public static final int UPPER = 3;
+
+  private final long[] keys;
+  private final long[] entries;
+  private final int mask;
+
+  /**
+   * Creates an empty table.
+   *
+   * @param log2Size the base 2 logarithm of the number of slots, from 4 to 26.
+   */
+  public TranspositionTable(int log2Size) {
+    if (log2Size < 4 || log2Size > 26) {
+      throw new IllegalArgumentException("Table size must be between 2^4 and 2^26 slots");
+    }
+    this.keys = new long[1 << log2Size];
+    this.entries = new long[1 << log2Size];
+    this.mask = (1 << log2Size) - 1;
+  }
+
+  /**
+   * Looks up a position.
+   *
+   * @param key the hash of the position.
+   * @return the packed entry, or 0 if the position is not in the table.
+   */
+  public long probe(long key) {
+    int slot = (int) key & mask;
+    return keys[slot] == key ? entries[slot] : 0;
+  }
+
+  /**
+   * Records the result of searching a position.
+   *
+   * @param key   the hash of the position.
+   * @param depth the depth searched.
+   * @param bound {@link #EXACT}, {@link #LOWER} or {@link #UPPER}.
+   * @param score the score found.
+   * @param move  the best move found, a cell or {@link Searcher#NO_MOVE}.
+   */
+  public void store(long key, int depth, int bound, int score, int move) {
+    int slot = (int) key & mask;
+    if (keys[slot] == key && entries[slot] != 0 && depth(entries[slot]) > depth) {
+      return;
+    }
+    keys[slot] = key;
+    entries[slot] = (long) bound << 56 | (long) (depth & 0xFF) << 48
+            | (long) ((move + 2) & 0xFFFF) << 32 | (score & 0xFFFFFFFFL);
+  }
+
+  /**
+   * Empties the table.
+   */
+  public void clear() {
+    Arrays.fill(keys, 0);
+    Arrays.fill(entries, 0);
+  }
+
+  /**
+   * Gives the score of an entry.
+   *
+   * @param entry a packed entry.
+   * @return the score for the side to move.
+   */
+  public static int score(long entry) {
+    return (int) entry;
+  }
+
+  /**
+   * Gives the best move of an entry.
+   *
+   * @param entry a packed entry.
+   * @return a cell or {@link Searcher#NO_MOVE}.
+   */
+  public static int move(long entry) {
+    return (int) (entry >>> 32 & 0xFFFF) - 2;
+  }
+
+  /**
+   * Gives the searched depth of an entry.
+   *
+   * @param entry a packed entry.
+   * @return the depth in plies.
+   */
+  public static int depth(long entry) {
+    return (int) (entry >>> 48 & 0xFF);
+  }
+
+  /**
+   * Gives the bound type of an entry.
+   *
+   * @param entry a packed entry.
+   * @return {@link #EXACT}, {@link #LOWER} or {@link #UPPER}.
+   */
+  public static int bound(long entry) {
+    return (int) (entry >>> 56);
+  }
+}
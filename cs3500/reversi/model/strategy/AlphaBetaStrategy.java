@@ -0,0 +1,142 @@
+package cs3500.reversi.model.strategy;
+
+import java.time.Duration;
+
+import cs3500.reversi.model.CellColor;
+import cs3500.reversi.model.Disc;
+import cs3500.reversi.model.GameClock;
+import cs3500.reversi.model.IGame;
+import cs3500.reversi.model.MoveAction;
+import cs3500.reversi.model.ReadOnlyIGame;
+import cs3500.reversi.model.engine.BoardTopology;
+import cs3500.reversi.model.engine.FastGame;
+import cs3500.reversi.model.search.BasicEvaluator;
+import cs3500.reversi.model.search.Evaluator;
+import cs3500.reversi.model.search.ProbCut;
+import cs3500.reversi.model.search.SearchBudget;
+import cs3500.reversi.model.search.Searcher;
+import cs3500.reversi.model.search.TimeAllocator;
+
+/**
+ * A strategy that looks ahead with an iterative deepening alpha-beta {@link Searcher} on a
+ * {@link FastGame} copy of the game. Without a budget it uses the one it was created with, or,
+ * when the game is played on a {@link GameClock}, searches for as long as a {@link TimeAllocator}
+ * gives it. An explicit budget is also cut down to the allocated time. The searcher's
+ * transposition table is kept between moves and filled while pondering.
+ */
+public class AlphaBetaStrategy implements PonderingStrategy {
+  // 2^18 slots, 4 MB.
+  private static final int TABLE_SIZE = 18;
+
+  private final Searcher searcher;
+  private final SearchBudget defaultBudget;
+  private final TimeAllocator allocator = new TimeAllocator();
+  private volatile BoardTopology topology;
+  private volatile boolean pondered;
+
+  /**
+   * Creates a strategy that searches four plies with the {@link BasicEvaluator}.
+   */
+  public AlphaBetaStrategy() {
+    this(new BasicEvaluator(), SearchBudget.ofDepth(4));
+  }
+
+  /**
+   * Creates a strategy with the given evaluator and default budget.
+   *
+   * @param evaluator     Scores unfinished positions; not shared with other strategies.
+   * @param defaultBudget The budget used by {@link #chooseMove(ReadOnlyIGame, CellColor)}.
+   */
+  public AlphaBetaStrategy(Evaluator evaluator, SearchBudget defaultBudget) {
+    this(evaluator, defaultBudget, null);
+  }
+
+  /**
+   * Creates a strategy with the given evaluator and default budget that prunes with ProbCut.
+   *
+   * @param evaluator     Scores unfinished positions; not shared with other strategies.
+   * @param defaultBudget The budget used by {@link #chooseMove(ReadOnlyIGame, CellColor)}.
+   * @param probCut       ProbCut parameters fitted for the evaluator, or null for none.
+   */
+  public AlphaBetaStrategy(Evaluator evaluator, SearchBudget defaultBudget, ProbCut probCut) {
+    if (defaultBudget == null) {
+      throw new IllegalArgumentException("Budget cannot be null");
+    }
+    this.searcher = new Searcher(evaluator, TABLE_SIZE, probCut);
+    this.defaultBudget = defaultBudget;
+  }
+
+  @Override
+  public MoveAction chooseMove(ReadOnlyIGame game, CellColor playerColor) {
+    return chooseMove(game, playerColor,
+            game.getClock() == null ? defaultBudget : SearchBudget.unlimited());
+  }
+
+  /**
+   * Chooses a move within the given budget. Searches on the same strategy run one at a time, so
+   * a search started while an interrupted one is still winding down waits for it.
+   *
+   * @param game        The current game state as a ReadonlyIGame object.
+   * @param playerColor The color of the player making the move.
+   * @param budget      The time, node and depth limits of the search.
+   * @return The best move found before the budget ran out or the search was interrupted.
+   */
+  @Override
+  public synchronized MoveAction chooseMove(ReadOnlyIGame game, CellColor playerColor,
+                                            SearchBudget budget) {
+    IGame copy = game.cloneGame();
+    if (copy.isGameOver()) {
+      return new MoveAction();
+    }
+    FastGame position = FastGame.of(copy);
+    if (position.getToMove() != FastGame.code(playerColor)) {
+      // The model lets a player ask out of turn; search as if the opponent had passed.
+      position.pass();
+    }
+    GameClock clock = copy.getClock();
+    if (clock != null) {
+      long share = allocator.allocate(clock.remainingNanos(playerColor),
+              clock.getIncrementNanos(), position);
+      if (share < budget.getTimeNanos()) {
+        budget = budget.withTime(Duration.ofNanos(share));
+      }
+    }
+    topology = position.getTopology();
+    // The pondered move is the opponent's; it must be gone before it stops being hidden.
+    searcher.forgetBestMove();
+    pondered = false;
+    return toAction(searcher.search(position, budget));
+  }
+
+  @Override
+  public synchronized void ponder(ReadOnlyIGame game, CellColor playerColor) {
+    IGame copy = game.cloneGame();
+    if (copy.isGameOver() || Thread.currentThread().isInterrupted()) {
+      return;
+    }
+    FastGame position = FastGame.of(copy);
+    if (position.getToMove() == FastGame.code(playerColor)) {
+      position.pass();
+    }
+    pondered = true;
+    searcher.search(position, SearchBudget.unlimited());
+  }
+
+  @Override
+  public MoveAction bestMoveSoFar() {
+    int move = searcher.bestMoveSoFar();
+    return move == Searcher.NO_MOVE || pondered ? null : toAction(move);
+  }
+
+  @Override
+  public void interrupt() {
+    searcher.stop();
+  }
+
+  private MoveAction toAction(int move) {
+    if (move == FastGame.PASS) {
+      return new MoveAction();
+    }
+    return new MoveAction(new Disc(topology.q(move), topology.r(move)));
+  }
+}
@@ -0,0 +1,41 @@
+package cs3500.reversi.model.strategy;
+
+import cs3500.reversi.model.CellColor;
+import cs3500.reversi.model.MoveAction;
+import cs3500.reversi.model.ReadOnlyIGame;
+import cs3500.reversi.model.search.SearchBudget;
+
+/**
+ * A strategy that searches, and can therefore be given a budget, be asked for its best move
+ * while it is still thinking and be told to stop early. Stopping is cooperative: an interrupted
+ * {@link #chooseMove(ReadOnlyIGame, CellColor, SearchBudget)} returns promptly with the best
+ * move found so far rather than throwing. Interrupting the thread that runs the search has the
+ * same effect as {@link #interrupt()}.
+ */
+public interface AnytimeStrategy extends ReversiStrategies {
+
+  /**
+   * Chooses a move within the given budget.
+   *
+   * @param game        The current game state as a ReadonlyIGame object.
+   * @param playerColor The color of the player making the move.
+   * @param budget      The time, node and depth limits of the search.
+   * @return The best move found before the budget ran out or the search was interrupted.
+   */
+  MoveAction chooseMove(ReadOnlyIGame game, CellColor playerColor, SearchBudget budget);
+
+  /**
+   * Gives the best move of the running search, or of the last one once it has finished. Can be
+   * called from any thread.
+   *
+   * @return The best move so far, or null if the running search has not found one yet, or
+   *         if the last search was pondering.
+   */
+  MoveAction bestMoveSoFar();
+
+  /**
+   * Asks the running search to stop and answer with its best move so far. Can be called from
+   * any thread; does nothing if no search is running.
+   */
+  void interrupt();
+}
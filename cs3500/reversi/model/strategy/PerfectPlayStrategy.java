@@ -0,0 +1,103 @@
+package cs3500.reversi.model.strategy;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import cs3500.reversi.model.CellColor;
+import cs3500.reversi.model.Disc;
+import cs3500.reversi.model.IGame;
+import cs3500.reversi.model.MoveAction;
+import cs3500.reversi.model.ReadOnlyIGame;
+import cs3500.reversi.model.engine.BoardTopology;
+import cs3500.reversi.model.engine.FastGame;
+import cs3500.reversi.model.search.SolutionTable;
+
+/**
+ * A strategy that plays perfectly on boards that have been solved outright: it looks every move
+ * up in the board's {@link SolutionTable} and plays the one that leaves the opponent the worst
+ * value, so it answers at once and never loses a won game or a disc it could keep. Tables are
+ * read from one directory, under {@link SolutionTable#fileName(BoardTopology)}, the first time a
+ * board is played. On boards without a table, and in the unlikely case of a position missing
+ * from one, it asks another strategy.
+ */
+public class PerfectPlayStrategy implements ReversiStrategies {
+  // Tables are shared between all strategies, since they are read only and can be large.
+  private static final Map<Path, Optional<SolutionTable>> TABLES = new ConcurrentHashMap<>();
+
+  private final Path directory;
+  private final ReversiStrategies fallback;
+
+  /**
+   * Creates a strategy that reads its tables from the given directory.
+   *
+   * @param directory Where the solution tables are.
+   * @param fallback  The strategy used where no table has the answer.
+   */
+  public PerfectPlayStrategy(Path directory, ReversiStrategies fallback) {
+    if (directory == null || fallback == null) {
+      throw new IllegalArgumentException("Directory and fallback cannot be null");
+    }
+    this.directory = directory;
+    this.fallback = fallback;
+  }
+
+  @Override
+  public MoveAction chooseMove(ReadOnlyIGame game, CellColor playerColor) {
+    IGame copy = game.cloneGame();
+    if (copy.isGameOver()) {
+      return new MoveAction();
+    }
+    FastGame position = FastGame.of(copy);
+    if (position.getToMove() != FastGame.code(playerColor)) {
+      // The model lets a player ask out of turn; answer as if the opponent had passed.
+      position.pass();
+    }
+    BoardTopology topology = position.getTopology();
+    SolutionTable table = table(topology);
+    if (table == null) {
+      return fallback.chooseMove(game, playerColor);
+    }
+
+    int[] moves = new int[topology.getCellCount()];
+    int count = position.legalMoves(moves);
+    if (count == 0) {
+      return new MoveAction();
+    }
+    int best = -1;
+    int bestValue = Integer.MIN_VALUE;
+    for (int i = 0; i < count; i++) {
+      position.play(moves[i]);
+      int value = table.value(position);
+      position.undo();
+      if (value == SolutionTable.UNKNOWN) {
+        return fallback.chooseMove(game, playerColor);
+      }
+      if (-value > bestValue) {
+        bestValue = -value;
+        best = moves[i];
+      }
+    }
+    return new MoveAction(new Disc(topology.q(best), topology.r(best)));
+  }
+
+  /**
+   * Gives the table of a board, mapping it on first use, or null if there is none.
+   */
+  private SolutionTable table(BoardTopology topology) {
+    Path file = directory.resolve(SolutionTable.fileName(topology)).toAbsolutePath();
+    return TABLES.computeIfAbsent(file, path -> {
+      if (!Files.isReadable(path)) {
+        return Optional.empty();
+      }
+      try {
+        return Optional.of(SolutionTable.open(path));
+      } catch (IOException e) {
+        throw new IllegalStateException("Cannot read " + path, e);
+      }
+    }).orElse(null);
+  }
+}
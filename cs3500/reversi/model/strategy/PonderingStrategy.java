@@ -0,0 +1,24 @@
+package cs3500.reversi.model.strategy;
+
+import cs3500.reversi.model.CellColor;
+import cs3500.reversi.model.ReadOnlyIGame;
+
+/**
+ * An anytime strategy that can think during the opponent's turn. Pondering searches the
+ * opponent's replies, most likely first, and keeps what it learns in the strategy's caches; when
+ * the opponent's actual move arrives the pondering is interrupted and the next
+ * {@code chooseMove} reuses the part of that work that matches the move played.
+ */
+public interface PonderingStrategy extends AnytimeStrategy {
+
+  /**
+   * Searches the given position, with the opponent of the given color to move, until
+   * {@link #interrupt()} is called, the thread is interrupted or there is nothing left to
+   * search. The moves it finds are the opponent's, so from the start of pondering until the
+   * next move search publishes a move, {@link #bestMoveSoFar()} reports null.
+   *
+   * @param game        The current game state, with the opponent to move.
+   * @param playerColor The color of the player that is pondering.
+   */
+  void ponder(ReadOnlyIGame game, CellColor playerColor);
+}
@@ -0,0 +1,71 @@
+package cs3500.reversi.players;
+
+import java.time.Duration;
+
+/**
+ * A point in time by which a player must have answered a move request. Deadlines are measured on
+ * {@link System#nanoTime()}, so they are unaffected by changes to the wall clock.
+ */
+public final class Deadline {
+  private static final Deadline NONE = new Deadline(0, false);
+
+  private final long expiresAt;
+  private final boolean bounded;
+
+  private Deadline(long expiresAt, boolean bounded) {
+    this.expiresAt = expiresAt;
+    this.bounded = bounded;
+  }
+
+  /**
+   * Creates a deadline the given time from now.
+   *
+   * @param timeout how long the player has.
+   * @return the deadline.
+   */
+  public static Deadline after(Duration timeout) {
+    if (timeout == null || timeout.isNegative()) {
+      throw new IllegalArgumentException("Timeout must be zero or positive");
+    }
+    return new Deadline(System.nanoTime() + timeout.toNanos(), true);
+  }
+
+  /**
+   * Gives a deadline that never expires.
+   *
+   * @return the unbounded deadline.
+   */
+  public static Deadline none() {
+    return NONE;
+  }
+
+  /**
+   * Checks whether this deadline can expire at all.
+   *
+   * @return false for {@link #none()}.
+   */
+  public boolean isBounded() {
+    return bounded;
+  }
+
+  /**
+   * Checks whether the deadline has passed.
+   *
+   * @return true once no time remains.
+   */
+  public boolean isExpired() {
+    return bounded && expiresAt - System.nanoTime() <= 0;
+  }
+
+  /**
+   * Gives the time left before the deadline.
+   *
+   * @return the remaining nanoseconds, zero once expired, or {@link Long#MAX_VALUE} if unbounded.
+   */
+  public long remainingNanos() {
+    if (!bounded) {
+      return Long.MAX_VALUE;
+    }
+    return Math.max(0, expiresAt - System.nanoTime());
+  }
+}
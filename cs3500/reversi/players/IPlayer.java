@@ -1,7 +1,11 @@
 package cs3500.reversi.players;
 
+import java.util.concurrent.CompletableFuture;
+
 import cs3500.reversi.model.CellColor;
 import cs3500.reversi.model.IGame;
+import cs3500.reversi.model.MoveAction;
+import cs3500.reversi.model.ReadOnlyIGame;
 //import cs3500.reversi.model.ReversiGame;
 import cs3500.reversi.model.strategy.ReversiStrategies;
 
@@ -32,6 +36,23 @@ public interface IPlayer {
    */
   void passMove(IGame game);
 
+  /**
+   * Asks this player for its next move without blocking the caller. The player works from a copy
+   * of the game, so the caller may keep using the game while the player thinks. The returned
+   * future completes exceptionally with a {@link java.util.concurrent.TimeoutException} when the
+   * deadline passes first; cancelling it, or the timeout, stops the thinking. Only players that
+   * choose their own moves can be asked; a human's moves come from the view instead.
+   *
+   * @param game     the reversi game this player is playing, with this player to move.
+   * @param deadline when the answer is due.
+   * @return the chosen move or pass, once known.
+   * @throws IllegalStateException if this player does not choose its own moves.
+   */
+  default CompletableFuture<MoveAction> requestMove(ReadOnlyIGame game, Deadline deadline) {
+    throw new IllegalStateException("A " + getClass().getSimpleName()
+            + " cannot be asked for a move");
+  }
+
   ReversiStrategies getStrategy();
 }
 
@@ -1,16 +1,37 @@
 package cs3500.reversi.players;
 
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
 import cs3500.reversi.model.CellColor;
 import cs3500.reversi.model.IGame;
 import cs3500.reversi.model.MoveAction;
+import cs3500.reversi.model.ReadOnlyIGame;
+import cs3500.reversi.model.search.SearchBudget;
+import cs3500.reversi.model.strategy.AnytimeStrategy;
 import cs3500.reversi.model.strategy.ReversiStrategies;
 
 /**
  * Represents the Player that is using strategies on the Reversi board instead of a user.
  */
 public class MachinePlayer implements IPlayer {
+  // Shared by every machine player that is not given its own executor; daemon threads so a
+  // search still running when the program ends does not keep it alive.
+  private static final ExecutorService SEARCH_POOL = Executors.newFixedThreadPool(
+          Runtime.getRuntime().availableProcessors(), task -> {
+            Thread thread = new Thread(task, "reversi-search");
+            thread.setDaemon(true);
+            return thread;
+          });
+
   private final CellColor color;
   private final ReversiStrategies strategy;
+  private final Executor executor;
 
   /**
    * Creates a new Machine Player.
@@ -18,20 +39,34 @@ public class MachinePlayer implements IPlayer {
    * @param color the color of the new Player.
    */
   public MachinePlayer(CellColor color, ReversiStrategies strategy) {
+    this(color, strategy, SEARCH_POOL);
+  }
+
+  /**
+   * Creates a new Machine Player that thinks on the given executor.
+   *
+   * @param color    the color of the new Player.
+   * @param strategy the strategy that picks the moves.
+   * @param executor runs the strategy when a move is requested.
+   */
+  public MachinePlayer(CellColor color, ReversiStrategies strategy, Executor executor) {
     if (color == null) {
       throw new IllegalArgumentException("Invalid color");
     }
+    if (executor == null) {
+      throw new IllegalArgumentException("Executor cannot be null");
+    }
     this.color = color;
     this.strategy = strategy;
+    this.executor = executor;
   }
 
   @Override
   public void play(IGame game, int q, int r) {
-    MoveAction action = strategy.chooseMove(game, this.color);
-    if (!action.isPass()) {
+    if (game.isValidMove(q, r, this.color)) {
       game.makeMove(q, r, this.color);
     } else {
-      passMove(game);
+      throw new IllegalArgumentException("Invalid move");
     }
   }
 
@@ -40,6 +75,111 @@ public class MachinePlayer implements IPlayer {
     game.implementPass(this.color);
   }
 
+  /**
+   * Asks the strategy for a move on its executor. An {@link AnytimeStrategy} is given the time
+   * left before the deadline, less a safety margin, so that it answers in time with the best
+   * move it found instead of timing out.
+   *
+   * @param game     the reversi game this player is playing, with this player to move.
+   * @param deadline when the answer is due.
+   * @return the chosen move or pass, once known.
+   */
+  @Override
+  public CompletableFuture<MoveAction> requestMove(ReadOnlyIGame game, Deadline deadline) {
+    CompletableFuture<MoveAction> result = new CompletableFuture<>();
+    Search search = new Search(game.cloneGame(), deadline, result);
+    // Stops the search when the request is cancelled or times out. A search that answered is
+    // left alone, so the thread it ran on is never interrupted after the fact.
+    result.whenComplete((move, error) -> {
+      if (error != null) {
+        if (strategy instanceof AnytimeStrategy) {
+          ((AnytimeStrategy) strategy).interrupt();
+        }
+        search.stop();
+      }
+    });
+    if (deadline.isBounded()) {
+      result.orTimeout(deadline.remainingNanos(), TimeUnit.NANOSECONDS);
+    }
+    try {
+      executor.execute(search);
+    } catch (RejectedExecutionException e) {
+      result.completeExceptionally(e);
+    }
+    return result;
+  }
+
+  /**
+   * One request's search. It interrupts the thread it runs on only while the strategy is
+   * thinking, and clears that interrupt before handing the thread back to the executor.
+   */
+  private final class Search implements Runnable {
+    private final IGame position;
+    private final Deadline deadline;
+    private final CompletableFuture<MoveAction> result;
+    private Thread runner;
+    private boolean done;
+    private boolean interrupted;
+
+    Search(IGame position, Deadline deadline, CompletableFuture<MoveAction> result) {
+      this.position = position;
+      this.deadline = deadline;
+      this.result = result;
+    }
+
+    @Override
+    public void run() {
+      synchronized (this) {
+        if (done) {
+          return;
+        }
+        runner = Thread.currentThread();
+      }
+      try {
+        if (strategy instanceof AnytimeStrategy && deadline.isBounded()) {
+          SearchBudget budget = SearchBudget.ofTime(Duration.ofNanos(answerTime(deadline)));
+          result.complete(((AnytimeStrategy) strategy).chooseMove(position, color, budget));
+        } else {
+          result.complete(strategy.chooseMove(position, color));
+        }
+      } catch (RuntimeException e) {
+        result.completeExceptionally(e);
+      } finally {
+        synchronized (this) {
+          done = true;
+          runner = null;
+          if (interrupted) {
+            Thread.interrupted();
+          }
+        }
+      }
+    }
+
+    /**
+     * Keeps the search from starting, or interrupts it if it is running on another thread.
+     */
+    synchronized void stop() {
+      if (done) {
+        return;
+      }
+      if (runner == null) {
+        done = true;
+      } else if (runner != Thread.currentThread()) {
+        interrupted = true;
+        runner.interrupt();
+      }
+    }
+  }
+
+  /**
+   * Gives the time a search may use before a deadline: what is left, less a tenth of it and a
+   * few milliseconds to finish the node being searched and hand back the move.
+   */
+  private static long answerTime(Deadline deadline) {
+    long remaining = deadline.remainingNanos();
+    return Math.max(0, remaining - remaining / 10 - 5_000_000L);
+  }
+
   @Override
   public CellColor getColor() {
     return this.color;
@@ -49,4 +189,4 @@ public class MachinePlayer implements IPlayer {
     return this.strategy;
   }
 
-}
\ No newline at end of file
+}
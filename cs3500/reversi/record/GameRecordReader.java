@@ -0,0 +1,221 @@
+package cs3500.reversi.record;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import cs3500.reversi.model.engine.BoardTopology;
+import cs3500.reversi.model.engine.FastGame;
+
+/**
+ * Reads a stream of games written by {@link GameRecordWriter}, one game at a time. {@link
+ * #next()} moves to the next game and reads its board and players; its moves are then read one
+ * by one, or all at once into a caller's array. The stream is read through an internal buffer
+ * and moves are decoded straight out of it, so reading a move allocates nothing. Moves left
+ * unread are skipped by the next call to {@link #next()}. A reader is used by one thread at a
+ * time.
+ */
+public final class GameRecordReader implements Closeable {
+  private final InputStream in;
+  private final byte[] buffer = new byte[1 << 16];
+  private int position;
+  private int limit;
+  private BoardTopology topology;
+  private String black;
+  private String white;
+  private int moveCount;
+  private int movesRead;
+
+  /**
+   * Opens a record stream.
+   *
+   * @param in the stream to read from; closed with this reader.
+   * @throws IOException              if the stream cannot be read.
+   * @throws IllegalArgumentException if the stream does not start with a record header.
+   */
+  public GameRecordReader(InputStream in) throws IOException {
+    if (in == null) {
+      throw new IllegalArgumentException("Input cannot be null");
+    }
+    this.in = in;
+    for (byte expected : GameRecordWriter.MAGIC) {
+      if (!fill() || buffer[position++] != expected) {
+        throw new IllegalArgumentException("Not a game record stream");
+      }
+    }
+    if (!fill() || buffer[position++] != GameRecordWriter.VERSION) {
+      throw new IllegalArgumentException("Unknown game record version");
+    }
+  }
+
+  /**
+   * Moves to the next game of the stream.
+   *
+   * @return false at the end of the stream.
+   * @throws IOException              if the stream cannot be read or ends inside a game.
+   * @throws IllegalArgumentException if the record is malformed.
+   */
+  public boolean next() throws IOException {
+    while (movesRead < moveCount) {
+      nextMove();
+    }
+    topology = null;
+    moveCount = 0;
+    movesRead = 0;
+    if (!fill()) {
+      return false;
+    }
+    int board = readVarint();
+    int size = board >>> 1;
+    // Topologies are cached for good, so a corrupt size must not build a huge one.
+    if (size < 2 || size > GameRecordWriter.MAX_BOARD_SIZE) {
+      throw new IllegalArgumentException("Bad board in game record: " + board);
+    }
+    BoardTopology read = (board & 1) != 0 ? BoardTopology.hex(size) : BoardTopology.square(size);
+    black = readString();
+    white = readString();
+    int count = readVarint();
+    if (count < 0) {
+      throw new IllegalArgumentException("Bad move count in game record: " + count);
+    }
+    moveCount = count;
+    topology = read;
+    return true;
+  }
+
+  /**
+   * Checks whether the current game has moves left to read.
+   *
+   * @return true if {@link #nextMove()} can be called.
+   */
+  public boolean hasMove() {
+    return movesRead < moveCount;
+  }
+
+  /**
+   * Reads the next move of the current game.
+   *
+   * @return the dense cell index, or {@link FastGame#PASS}.
+   * @throws IOException              if the stream cannot be read or ends inside the game.
+   * @throws IllegalStateException    if the game has no moves left.
+   * @throws IllegalArgumentException if the move is not on the board.
+   */
+  public int nextMove() throws IOException {
+    if (movesRead >= moveCount) {
+      throw new IllegalStateException("No moves left in this game");
+    }
+    int code = readVarint();
+    movesRead++;
+    if (code == GameRecordWriter.PASS_CODE) {
+      return FastGame.PASS;
+    }
+    // A corrupt five-byte varint can overflow to a negative code.
+    if (code < 0 || code > topology.getCellCount()) {
+      throw new IllegalArgumentException("No cell " + (code - 1) + " on " + topology);
+    }
+    return code - 1;
+  }
+
+  /**
+   * Reads the remaining moves of the current game.
+   *
+   * @param out receives the moves; it must have room for them.
+   * @return the number of moves read.
+   * @throws IOException if the stream cannot be read or ends inside the game.
+   */
+  public int readMoves(int[] out) throws IOException {
+    int count = 0;
+    while (movesRead < moveCount) {
+      out[count++] = nextMove();
+    }
+    return count;
+  }
+
+  /**
+   * Makes sure there is at least one unread byte in the buffer.
+   *
+   * @return false at the end of the stream.
+   */
+  private boolean fill() throws IOException {
+    if (position < limit) {
+      return true;
+    }
+    position = 0;
+    limit = 0;
+    int read;
+    do {
+      read = in.read(buffer, 0, buffer.length);
+    } while (read == 0);
+    if (read < 0) {
+      return false;
+    }
+    limit = read;
+    return true;
+  }
+
+  private int readByte() throws IOException {
+    if (!fill()) {
+      throw new EOFException("Game record stream ends inside a game");
+    }
+    return buffer[position++] & 0xff;
+  }
+
+  private int readVarint() throws IOException {
+    int value = 0;
+    for (int shift = 0; shift < 32; shift += 7) {
+      int b = readByte();
+      value |= (b & 0x7f) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new IllegalArgumentException("Varint too long in game record");
+  }
+
+  private String readString() throws IOException {
+    int length = readVarint();
+    if (length < 0 || length > GameRecordWriter.MAX_NAME_BYTES) {
+      throw new IllegalArgumentException("Bad name length in game record: " + length);
+    }
+    byte[] bytes = new byte[length];
+    for (int i = 0; i < length; ) {
+      fill();
+      if (position >= limit) {
+        throw new EOFException("Game record stream ends inside a game");
+      }
+      int chunk = Math.min(length - i, limit - position);
+      System.arraycopy(buffer, position, bytes, i, chunk);
+      position += chunk;
+      i += chunk;
+    }
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Gives the board of the current game.
+   *
+   * @return the board, or null before the first game and after the last.
+   */
+  public BoardTopology getTopology() {
+    return topology;
+  }
+
+  public String getBlack() {
+    return black;
+  }
+
+  public String getWhite() {
+    return white;
+  }
+
+  public int getMoveCount() {
+    return moveCount;
+  }
+
+  @Override
+  public void close() throws IOException {
+    in.close();
+  }
+}
@@ -0,0 +1,220 @@
+package cs3500.reversi.record;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import cs3500.reversi.model.engine.BoardTopology;
+import cs3500.reversi.model.engine.FastGame;
+
+/**
+ * Writes games to a stream in the compact binary record format read by {@link
+ * GameRecordReader}. The stream starts with the four magic bytes {@code RVGR} and a version
+ * byte. Each game is then, as unsigned LEB128 varints: the board, as its size times 2 plus 1
+ * for a hex board; the black and the white player, each as a byte length and UTF-8 bytes; the
+ * number of moves; and the moves, each as its dense cell index plus 1, or 0 for a pass. On every
+ * board of up to 127 cells a move takes one byte.
+ *
+ * <p>A game can be written at once, or move by move as it is played, between {@link
+ * #beginGame} and {@link #endGame}. Moves are encoded into a reusable buffer, so writing a move
+ * allocates nothing. Nothing reaches the underlying stream before a game ends, and a writer is
+ * used by one thread at a time.
+ */
+public final class GameRecordWriter implements Closeable, Flushable {
+  static final byte[] MAGIC = {'R', 'V', 'G', 'R'};
+  static final int VERSION = 1;
+  static final int PASS_CODE = 0;
+  static final int MAX_BOARD_SIZE = 64;
+  static final int MAX_NAME_BYTES = 1 << 16;
+
+  private final OutputStream out;
+  private byte[] buffer = new byte[1 << 16];
+  private int length;
+  private byte[] moves = new byte[256];
+  private int moveBytes;
+  private int moveCount;
+  private BoardTopology topology;
+  private byte[] black;
+  private byte[] white;
+
+  /**
+   * Starts a record stream.
+   *
+   * @param out the stream to write to; closed with this writer.
+   * @throws IOException if the stream header cannot be written.
+   */
+  public GameRecordWriter(OutputStream out) throws IOException {
+    if (out == null) {
+      throw new IllegalArgumentException("Output cannot be null");
+    }
+    this.out = out;
+    System.arraycopy(MAGIC, 0, buffer, 0, MAGIC.length);
+    buffer[MAGIC.length] = VERSION;
+    length = MAGIC.length + 1;
+  }
+
+  /**
+   * Starts a game.
+   *
+   * @param board the board the game is played on.
+   * @param black the name of the black player.
+   * @param white the name of the white player.
+   * @throws IllegalStateException    if the previous game has not ended.
+   * @throws IllegalArgumentException if the board is larger than {@value #MAX_BOARD_SIZE} or a
+   *                                  name longer than {@value #MAX_NAME_BYTES} bytes.
+   */
+  public void beginGame(BoardTopology board, String black, String white) {
+    if (topology != null) {
+      throw new IllegalStateException("The previous game has not ended");
+    }
+    if (board == null || black == null || white == null) {
+      throw new IllegalArgumentException("Board and players cannot be null");
+    }
+    if (board.getSize() > MAX_BOARD_SIZE) {
+      throw new IllegalArgumentException("Board too large for a game record: " + board);
+    }
+    byte[] blackBytes = black.getBytes(StandardCharsets.UTF_8);
+    byte[] whiteBytes = white.getBytes(StandardCharsets.UTF_8);
+    if (blackBytes.length > MAX_NAME_BYTES || whiteBytes.length > MAX_NAME_BYTES) {
+      throw new IllegalArgumentException("Player name too long for a game record");
+    }
+    this.topology = board;
+    this.black = blackBytes;
+    this.white = whiteBytes;
+    moveBytes = 0;
+    moveCount = 0;
+  }
+
+  /**
+   * Adds a move to the current game.
+   *
+   * @param cell a dense cell index, or {@link FastGame#PASS}.
+   * @throws IllegalStateException    if no game has begun.
+   * @throws IllegalArgumentException if the cell is not on the board.
+   */
+  public void move(int cell) {
+    if (topology == null) {
+      throw new IllegalStateException("No game has begun");
+    }
+    if (cell != FastGame.PASS && (cell < 0 || cell >= topology.getCellCount())) {
+      throw new IllegalArgumentException("No cell " + cell + " on " + topology);
+    }
+    if (moves.length - moveBytes < 5) {
+      moves = Arrays.copyOf(moves, moves.length * 2);
+    }
+    moveBytes = putVarint(moves, moveBytes, cell == FastGame.PASS ? PASS_CODE : cell + 1);
+    moveCount++;
+  }
+
+  /**
+   * Ends the current game and queues its record for the stream. If the stream cannot be
+   * written, the game is dropped and the next one can begin.
+   *
+   * @throws IOException           if the stream cannot be written.
+   * @throws IllegalStateException if no game has begun.
+   */
+  public void endGame() throws IOException {
+    if (topology == null) {
+      throw new IllegalStateException("No game has begun");
+    }
+    int size = 4 * 5 + black.length + white.length + moveBytes;
+    if (buffer.length - length < size) {
+      try {
+        flushBuffer();
+      } catch (IOException e) {
+        topology = null;
+        throw e;
+      }
+      if (buffer.length < size) {
+        buffer = new byte[size];
+      }
+    }
+    length = putVarint(buffer, length, topology.getSize() * 2 + (topology.isHex() ? 1 : 0));
+    length = putString(black, length);
+    length = putString(white, length);
+    length = putVarint(buffer, length, moveCount);
+    System.arraycopy(moves, 0, buffer, length, moveBytes);
+    length += moveBytes;
+    topology = null;
+  }
+
+  /**
+   * Writes a whole game.
+   *
+   * @param board the board the game is played on.
+   * @param black the name of the black player.
+   * @param white the name of the white player.
+   * @param plays the moves in order, as dense cell indices or {@link FastGame#PASS}.
+   * @param count the number of moves.
+   * @throws IOException              if the stream cannot be written.
+   * @throws IllegalArgumentException if a move is not on the board; nothing is written then.
+   */
+  public void write(BoardTopology board, String black, String white, int[] plays, int count)
+          throws IOException {
+    if (board == null || plays == null || count < 0 || count > plays.length) {
+      throw new IllegalArgumentException("Bad board or moves");
+    }
+    // Checked before the game begins, so a bad move does not leave it open.
+    for (int i = 0; i < count; i++) {
+      if (plays[i] != FastGame.PASS && (plays[i] < 0 || plays[i] >= board.getCellCount())) {
+        throw new IllegalArgumentException("No cell " + plays[i] + " on " + board);
+      }
+    }
+    beginGame(board, black, white);
+    for (int i = 0; i < count; i++) {
+      move(plays[i]);
+    }
+    endGame();
+  }
+
+  private int putString(byte[] bytes, int at) {
+    at = putVarint(buffer, at, bytes.length);
+    System.arraycopy(bytes, 0, buffer, at, bytes.length);
+    return at + bytes.length;
+  }
+
+  /**
+   * Writes an unsigned varint, 7 bits per byte, low bits first.
+   */
+  static int putVarint(byte[] into, int at, int value) {
+    while ((value & ~0x7f) != 0) {
+      into[at++] = (byte) (value & 0x7f | 0x80);
+      value >>>= 7;
+    }
+    into[at++] = (byte) value;
+    return at;
+  }
+
+  private void flushBuffer() throws IOException {
+    out.write(buffer, 0, length);
+    length = 0;
+  }
+
+  /**
+   * Sends every ended game to the stream and flushes it.
+   *
+   * @throws IOException if the stream cannot be written.
+   */
+  @Override
+  public void flush() throws IOException {
+    flushBuffer();
+    out.flush();
+  }
+
+  /**
+   * Flushes the ended games and closes the stream. A game that has not ended is dropped.
+   *
+   * @throws IOException if the stream cannot be written or closed.
+   */
+  @Override
+  public void close() throws IOException {
+    try {
+      flushBuffer();
+    } finally {
+      out.close();
+    }
+  }
+}
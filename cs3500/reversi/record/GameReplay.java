@@ -0,0 +1,210 @@
+package cs3500.reversi.record;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import cs3500.reversi.model.engine.BoardTopology;
+import cs3500.reversi.model.engine.FastGame;
+
+/**
+ * Steps back and forth through a recorded game. When it is created the game is played through
+ * once and the position is saved every {@code interval} plies, as its cells, one byte each, and
+ * the side to move. Any ply is then reached from the nearest checkpoint at or before it in at
+ * most {@code interval - 1} moves; a step back within the stretch since the last checkpoint is a
+ * single undo. A replay is used by one thread at a time.
+ */
+public final class GameReplay {
+  /**
+   * The checkpoint interval used when none is given.
+   */
+  public static final int DEFAULT_INTERVAL = 8;
+
+  private final BoardTopology topology;
+  private final int[] moves;
+  private final int interval;
+  private final int cellCount;
+  // The cells of every checkpoint, one after the other.
+  private final byte[] checkpointCells;
+  // For every checkpoint: side to move, passes and last color played, two bits each.
+  private final byte[] checkpointState;
+  private final FastGame position;
+  // The ply of the checkpoint the position was last loaded from.
+  private int base;
+
+  /**
+   * Prepares a game for replay, at its start.
+   *
+   * @param topology the board the game was played on.
+   * @param moves    the moves, as dense cell indices or {@link FastGame#PASS}.
+   * @param count    the number of moves.
+   * @param interval the number of plies between checkpoints.
+   * @throws IllegalArgumentException if the interval is not positive or a move is not legal.
+   */
+  public GameReplay(BoardTopology topology, int[] moves, int count, int interval) {
+    if (topology == null || moves == null) {
+      throw new IllegalArgumentException("Board and moves cannot be null");
+    }
+    if (interval < 1) {
+      throw new IllegalArgumentException("Checkpoint interval must be positive");
+    }
+    this.topology = topology;
+    this.moves = Arrays.copyOf(moves, count);
+    this.interval = interval;
+    this.cellCount = topology.getCellCount();
+    int checkpoints = count / interval + 1;
+    this.checkpointCells = new byte[checkpoints * cellCount];
+    this.checkpointState = new byte[checkpoints];
+    this.position = new FastGame(topology);
+
+    for (int ply = 0; ; ply++) {
+      if (ply % interval == 0) {
+        int checkpoint = ply / interval;
+        position.copyCells(checkpointCells, checkpoint * cellCount);
+        checkpointState[checkpoint] = (byte) (position.getToMove()
+                | Math.min(position.getPasses(), 3) << 2 | position.getLastPlayed() << 4);
+      }
+      if (ply == count) {
+        break;
+      }
+      apply(this.moves[ply], ply);
+    }
+    load(0);
+  }
+
+  /**
+   * Prepares the current game of a record reader for replay, reading its remaining moves.
+   *
+   * @param reader   a reader positioned on a game whose moves have not been read.
+   * @param interval the number of plies between checkpoints.
+   * @return the replay, at the start of the game.
+   * @throws IOException              if the moves cannot be read.
+   * @throws IllegalStateException    if the reader is not on a game.
+   * @throws IllegalArgumentException if a move is not legal.
+   */
+  public static GameReplay read(GameRecordReader reader, int interval) throws IOException {
+    if (reader.getTopology() == null) {
+      throw new IllegalStateException("The reader is not on a game");
+    }
+    int[] moves = new int[reader.getMoveCount()];
+    int count = reader.readMoves(moves);
+    return new GameReplay(reader.getTopology(), moves, count, interval);
+  }
+
+  /**
+   * Plays one recorded move on the position.
+   */
+  private void apply(int move, int ply) {
+    if (move == FastGame.PASS) {
+      position.pass();
+    } else if (move < 0 || move >= cellCount || !position.isLegal(move)) {
+      throw new IllegalArgumentException("Illegal move " + move + " at ply " + ply);
+    } else {
+      position.play(move);
+    }
+  }
+
+  /**
+   * Puts the position on a checkpoint.
+   */
+  private void load(int checkpoint) {
+    int state = checkpointState[checkpoint];
+    position.load(checkpointCells, checkpoint * cellCount, state & 3, state >> 2 & 3,
+            state >> 4 & 3);
+    base = checkpoint * interval;
+  }
+
+  /**
+   * Moves to any ply of the game.
+   *
+   * @param ply the number of moves played, from 0 to {@link #getLength()}.
+   * @throws IllegalArgumentException if the ply is out of range.
+   */
+  public void jump(int ply) {
+    if (ply < 0 || ply > moves.length) {
+      throw new IllegalArgumentException("No ply " + ply + " in a game of " + moves.length);
+    }
+    int current = getPly();
+    // Undoing is only worth it when it is shorter than replaying from the nearest checkpoint.
+    if (ply >= base && ply <= current && current - ply < interval) {
+      while (getPly() > ply) {
+        position.undo();
+      }
+      return;
+    }
+    if (ply < current || ply - current >= interval) {
+      load(ply / interval);
+    }
+    while (getPly() < ply) {
+      int at = getPly();
+      apply(moves[at], at);
+    }
+  }
+
+  /**
+   * Plays the next move.
+   *
+   * @return false, without moving, at the end of the game.
+   */
+  public boolean next() {
+    if (getPly() == moves.length) {
+      return false;
+    }
+    jump(getPly() + 1);
+    return true;
+  }
+
+  /**
+   * Takes back the last move.
+   *
+   * @return false, without moving, at the start of the game.
+   */
+  public boolean previous() {
+    if (getPly() == 0) {
+      return false;
+    }
+    jump(getPly() - 1);
+    return true;
+  }
+
+  /**
+   * Gives the number of moves played to reach the current position.
+   *
+   * @return the current ply.
+   */
+  public int getPly() {
+    return base + position.getPly();
+  }
+
+  /**
+   * Gives the number of moves of the game.
+   *
+   * @return the last ply.
+   */
+  public int getLength() {
+    return moves.length;
+  }
+
+  /**
+   * Gives a recorded move.
+   *
+   * @param ply the ply the move is played at, from 0 to {@link #getLength()} - 1.
+   * @return the dense cell index, or {@link FastGame#PASS}.
+   */
+  public int moveAt(int ply) {
+    return moves[ply];
+  }
+
+  /**
+   * Gives the current position. It belongs to the replay and changes as it moves: read it, and
+   * copy it before playing on it.
+   *
+   * @return the position.
+   */
+  public FastGame getPosition() {
+    return position;
+  }
+
+  public BoardTopology getTopology() {
+    return topology;
+  }
+}
@@ -0,0 +1,267 @@
+package cs3500.reversi.tools;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import cs3500.reversi.archive.GameArchive;
+import cs3500.reversi.archive.GameVisitor;
+import cs3500.reversi.model.engine.BoardTopology;
+import cs3500.reversi.model.engine.FastGame;
+import cs3500.reversi.record.GameRecordReader;
+import cs3500.reversi.tournament.Tournament;
+
+/**
+ * Gathers statistics over every game of an archive. The archive is scanned on all cores, each
+ * thread replaying its games on a {@link FastGame} into counters of its own, and the counters
+ * are added up at the end. For each board it counts games, plies (moves and passes alike),
+ * passes and results; for each first move of each board, games and results; and for each board,
+ * games by final disc difference. Rates are left to the reader, as ratios of the counts.
+ *
+ * <p>Each table is written to its own file in a compact columnar format: the magic {@code RVCT},
+ * a version byte, the number of columns and of rows as varints, then each column in turn, as its
+ * name (a varint length and UTF-8 bytes) followed by all its values as zigzag varints. Boards are
+ * coded as their size times 2, plus 1 for a hex board; cells are dense cell indices, or -1 for a
+ * pass. A summary is printed as well.
+ *
+ * <p>Usage: {@code ArchiveAnalytics [--archive archive] [--out analytics] [--threads n]}.
+ */
+public final class ArchiveAnalytics {
+  private static final byte[] MAGIC = {'R', 'V', 'C', 'T'};
+  private static final int VERSION = 1;
+
+  private ArchiveAnalytics() {
+  }
+
+  /**
+   * Runs the analysis described by command line arguments.
+   *
+   * @param args the options described in the class comment.
+   * @throws IOException if the archive cannot be read or a table cannot be written.
+   */
+  public static void main(String[] args) throws IOException {
+    Map<String, String> options = Tournament.parseOptions(args);
+    GameArchive archive = GameArchive.open(Paths.get(options.getOrDefault("archive",
+            "archive")));
+    Path out = Paths.get(options.getOrDefault("out", "analytics"));
+    int threads = Integer.parseInt(options.getOrDefault("threads",
+            String.valueOf(Runtime.getRuntime().availableProcessors())));
+    long begin = System.nanoTime();
+    Map<Integer, BoardStats> boards = analyze(archive, threads);
+    System.err.println("Analyzed " + archive.size() + " games in "
+            + (System.nanoTime() - begin) / 1_000_000 + " ms");
+    write(boards, out);
+    summarize(boards, System.out);
+  }
+
+  /**
+   * Scans an archive and adds up the statistics of every thread, by board code.
+   */
+  private static Map<Integer, BoardStats> analyze(GameArchive archive, int threads)
+          throws IOException {
+    Map<Integer, BoardStats> total = new TreeMap<>();
+    for (Collector collector : archive.scan(threads, Collector::new)) {
+      for (Map.Entry<Integer, BoardStats> entry : collector.boards.entrySet()) {
+        BoardStats stats = total.get(entry.getKey());
+        if (stats == null) {
+          total.put(entry.getKey(), entry.getValue());
+        } else {
+          stats.add(entry.getValue());
+        }
+      }
+    }
+    return total;
+  }
+
+  /**
+   * The counters of one board.
+   */
+  private static final class BoardStats {
+    private static final int BLACK_WINS = 0;
+    private static final int WHITE_WINS = 1;
+    private static final int DRAWS = 2;
+
+    private final BoardTopology topology;
+    private long games;
+    private long plies;
+    private long passes;
+    private final long[] results = new long[3];
+    // Results by first move; the last row is a pass.
+    private final long[][] firstMoves;
+    // Games by final disc difference, black minus white, offset by the number of cells.
+    private final long[] differences;
+
+    BoardStats(BoardTopology topology) {
+      this.topology = topology;
+      this.firstMoves = new long[topology.getCellCount() + 1][3];
+      this.differences = new long[2 * topology.getCellCount() + 1];
+    }
+
+    void add(BoardStats other) {
+      games += other.games;
+      plies += other.plies;
+      passes += other.passes;
+      for (int r = 0; r < 3; r++) {
+        results[r] += other.results[r];
+      }
+      for (int m = 0; m < firstMoves.length; m++) {
+        for (int r = 0; r < 3; r++) {
+          firstMoves[m][r] += other.firstMoves[m][r];
+        }
+      }
+      for (int d = 0; d < differences.length; d++) {
+        differences[d] += other.differences[d];
+      }
+    }
+  }
+
+  /**
+   * Replays the games of one scanning thread into its own counters.
+   */
+  private static final class Collector implements GameVisitor {
+    private final Map<Integer, BoardStats> boards = new TreeMap<>();
+    private final Map<Integer, FastGame> positions = new TreeMap<>();
+
+    @Override
+    public void visit(long gameId, GameRecordReader game) throws IOException {
+      BoardTopology topology = game.getTopology();
+      int code = boardCode(topology);
+      BoardStats stats = boards.computeIfAbsent(code, c -> new BoardStats(topology));
+      FastGame position = positions.computeIfAbsent(code, c -> new FastGame(topology));
+      while (position.getPly() > 0) {
+        position.undo();
+      }
+      int first = -1;
+      while (game.hasMove()) {
+        int move = game.nextMove();
+        if (move == FastGame.PASS) {
+          position.pass();
+          stats.passes++;
+        } else {
+          position.play(move);
+        }
+        if (position.getPly() == 1) {
+          first = move;
+        }
+      }
+      int difference = position.count(FastGame.BLACK) - position.count(FastGame.WHITE);
+      int result = difference > 0 ? BoardStats.BLACK_WINS
+              : difference < 0 ? BoardStats.WHITE_WINS : BoardStats.DRAWS;
+      stats.games++;
+      stats.plies += position.getPly();
+      stats.results[result]++;
+      if (position.getPly() > 0) {
+        int row = first == FastGame.PASS ? topology.getCellCount() : first;
+        stats.firstMoves[row][result]++;
+      }
+      stats.differences[difference + topology.getCellCount()]++;
+    }
+  }
+
+  private static int boardCode(BoardTopology topology) {
+    return topology.getSize() * 2 + (topology.isHex() ? 1 : 0);
+  }
+
+  /**
+   * Writes the three tables.
+   */
+  private static void write(Map<Integer, BoardStats> boards, Path out) throws IOException {
+    Files.createDirectories(out);
+    List<long[]> boardRows = new ArrayList<>();
+    List<long[]> moveRows = new ArrayList<>();
+    List<long[]> differenceRows = new ArrayList<>();
+    for (Map.Entry<Integer, BoardStats> entry : boards.entrySet()) {
+      int code = entry.getKey();
+      BoardStats stats = entry.getValue();
+      boardRows.add(new long[]{code, stats.games, stats.plies, stats.passes,
+              stats.results[BoardStats.BLACK_WINS], stats.results[BoardStats.WHITE_WINS],
+              stats.results[BoardStats.DRAWS]});
+      int cells = stats.topology.getCellCount();
+      for (int m = 0; m <= cells; m++) {
+        long[] counts = stats.firstMoves[m];
+        if (counts[0] + counts[1] + counts[2] > 0) {
+          moveRows.add(new long[]{code, m == cells ? FastGame.PASS : m,
+                  counts[0] + counts[1] + counts[2], counts[BoardStats.BLACK_WINS],
+                  counts[BoardStats.WHITE_WINS], counts[BoardStats.DRAWS]});
+        }
+      }
+      for (int d = 0; d < stats.differences.length; d++) {
+        if (stats.differences[d] > 0) {
+          differenceRows.add(new long[]{code, d - cells, stats.differences[d]});
+        }
+      }
+    }
+    writeTable(out.resolve("boards.rvct"), new String[]{"board", "games", "plies", "passes",
+        "black_wins", "white_wins", "draws"}, boardRows);
+    writeTable(out.resolve("first_moves.rvct"), new String[]{"board", "cell", "games",
+        "black_wins", "white_wins", "draws"}, moveRows);
+    writeTable(out.resolve("outcomes.rvct"), new String[]{"board", "disc_difference",
+        "games"}, differenceRows);
+  }
+
+  /**
+   * Writes one table, column after column.
+   */
+  private static void writeTable(Path file, String[] columns, List<long[]> rows)
+          throws IOException {
+    try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+            Files.newOutputStream(file)))) {
+      out.write(MAGIC);
+      out.writeByte(VERSION);
+      writeVarint(out, columns.length);
+      writeVarint(out, rows.size());
+      for (int c = 0; c < columns.length; c++) {
+        byte[] name = columns[c].getBytes(StandardCharsets.UTF_8);
+        writeVarint(out, name.length);
+        out.write(name);
+        for (long[] row : rows) {
+          writeVarint(out, row[c] << 1 ^ row[c] >> 63);
+        }
+      }
+    }
+  }
+
+  private static void writeVarint(DataOutputStream out, long value) throws IOException {
+    while ((value & ~0x7fL) != 0) {
+      out.writeByte((int) (value & 0x7f | 0x80));
+      value >>>= 7;
+    }
+    out.writeByte((int) value);
+  }
+
+  /**
+   * Prints the rates a reader would first ask for.
+   */
+  private static void summarize(Map<Integer, BoardStats> boards, PrintStream out) {
+    for (BoardStats stats : boards.values()) {
+      BoardTopology topology = stats.topology;
+      out.printf("%s: %d games, %.1f plies a game, %.3f passes a game, black %.1f%%"
+                      + " white %.1f%% draws %.1f%%%n", topology, stats.games,
+              (double) stats.plies / stats.games, (double) stats.passes / stats.games,
+              percent(stats.results[BoardStats.BLACK_WINS], stats.games),
+              percent(stats.results[BoardStats.WHITE_WINS], stats.games),
+              percent(stats.results[BoardStats.DRAWS], stats.games));
+      for (int m = 0; m < topology.getCellCount(); m++) {
+        long[] counts = stats.firstMoves[m];
+        long games = counts[0] + counts[1] + counts[2];
+        if (games > 0) {
+          out.printf("  first move (%d,%d): %d games, black wins %.1f%%%n", topology.q(m),
+                  topology.r(m), games, percent(counts[BoardStats.BLACK_WINS], games));
+        }
+      }
+    }
+  }
+
+  private static double percent(long part, long whole) {
+    return whole == 0 ? 0 : 100.0 * part / whole;
+  }
+}
@@ -0,0 +1,64 @@
+package cs3500.reversi.tools;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+
+import cs3500.reversi.archive.ArchiveWriter;
+import cs3500.reversi.archive.GameArchive;
+import cs3500.reversi.record.GameRecordReader;
+import cs3500.reversi.tournament.Tournament;
+
+/**
+ * Adds the games of record files, as written by {@link cs3500.reversi.record.GameRecordWriter},
+ * to a {@link GameArchive}, creating it if needed.
+ *
+ * <p>Usage: {@code ArchiveImport --in games.rec[,more.rec] [--out archive]
+ * [--block-bytes 32768]}.
+ */
+public final class ArchiveImport {
+
+  private ArchiveImport() {
+  }
+
+  /**
+   * Imports the record files described by command line arguments.
+   *
+   * @param args the options described in the class comment.
+   * @throws IOException if a file cannot be read or the archive cannot be written.
+   */
+  public static void main(String[] args) throws IOException {
+    Map<String, String> options = Tournament.parseOptions(args);
+    if (!options.containsKey("in")) {
+      throw new IllegalArgumentException("Usage: ArchiveImport --in games.rec [--out archive]");
+    }
+    Path out = Paths.get(options.getOrDefault("out", "archive"));
+    int blockBytes = Integer.parseInt(options.getOrDefault("block-bytes",
+            String.valueOf(ArchiveWriter.DEFAULT_BLOCK_BYTES)));
+    int[] moves = new int[256];
+    long begin = System.nanoTime();
+    long games = 0;
+    try (ArchiveWriter archive = ArchiveWriter.open(out, blockBytes,
+            ArchiveWriter.DEFAULT_SEGMENT_BYTES)) {
+      for (String file : options.get("in").split(",")) {
+        try (GameRecordReader reader = new GameRecordReader(
+                new BufferedInputStream(Files.newInputStream(Paths.get(file))))) {
+          while (reader.next()) {
+            if (moves.length < reader.getMoveCount()) {
+              moves = new int[reader.getMoveCount()];
+            }
+            int count = reader.readMoves(moves);
+            archive.add(reader.getTopology(), reader.getBlack(), reader.getWhite(), moves, count);
+            games++;
+          }
+        }
+        System.err.println(file + ": " + games + " games so far");
+      }
+    }
+    System.out.println(games + " games added to " + out + " in "
+            + (System.nanoTime() - begin) / 1_000_000 + " ms");
+  }
+}
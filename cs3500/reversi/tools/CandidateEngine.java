@@ -0,0 +1,71 @@
+package cs3500.reversi.tools;
+
+import cs3500.reversi.model.engine.BoardTopology;
+
+/**
+ * A move generator under test by the {@link DifferentialOracle}. Implementations wrap an
+ * optimized engine behind the few operations the oracle compares with the regular model.
+ * Cells are the dense indices of the {@link BoardTopology}; colors are the codes of
+ * {@link cs3500.reversi.model.engine.FastGame}.
+ */
+public interface CandidateEngine {
+
+  /**
+   * Sets up the start position of a board, black to move.
+   *
+   * @param topology the board to play on.
+   */
+  void reset(BoardTopology topology);
+
+  /**
+   * Gives the color to move.
+   *
+   * @return BLACK or WHITE.
+   */
+  int toMove();
+
+  /**
+   * Writes the legal moves of the side to move in cell order.
+   *
+   * @param out receives the moves.
+   * @return the number of moves.
+   */
+  int legalMoves(int[] out);
+
+  /**
+   * Checks whether a color has any legal move.
+   *
+   * @param color BLACK or WHITE.
+   * @return true if it has one.
+   */
+  boolean hasLegalMove(int color);
+
+  /**
+   * Plays a move for the side to move.
+   *
+   * @param cell    the cell to play.
+   * @param flipped receives the cells that changed color, in any order.
+   * @return the number of flipped cells.
+   */
+  int play(int cell, int[] flipped);
+
+  /**
+   * Passes for the side to move.
+   */
+  void pass();
+
+  /**
+   * Gives the number of cells holding a color.
+   *
+   * @param color EMPTY, BLACK or WHITE.
+   * @return the count.
+   */
+  int count(int color);
+
+  /**
+   * Checks whether the game is over.
+   *
+   * @return true after two passes in a row.
+   */
+  boolean isGameOver();
+}
@@ -0,0 +1,450 @@
+package cs3500.reversi.tools;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import cs3500.reversi.model.CellColor;
+import cs3500.reversi.model.IGame;
+import cs3500.reversi.model.engine.BoardTopology;
+import cs3500.reversi.model.engine.FastGame;
+import cs3500.reversi.players.HumanPlayer;
+import cs3500.reversi.tournament.BoardType;
+import cs3500.reversi.tournament.HeadlessGame;
+import cs3500.reversi.tournament.Tournament;
+
+/**
+ * Plays random games on the regular model and on a {@link CandidateEngine} side by side and
+ * compares them at every ply: side to move, legal moves, flipped discs, scores, whether each
+ * color has a move and whether the game is over. Games run in parallel and the first
+ * divergence found is shrunk, by dropping moves while the game still diverges, before it is
+ * printed.
+ *
+ * <p>Usage: {@code DifferentialOracle [--engine fast]
+ * [--boards hex:2,hex:3,hex:4,hex:5,hex:6,square:4,square:6,square:8] [--games 1000000]
+ * [--pass-rate 0.02] [--threads n] [--seed n]}. The pass rate is the chance of passing
+ * voluntarily while a move is available, which exercises the pass and game over rules.
+ */
+public final class DifferentialOracle {
+  private static final Map<String, Supplier<CandidateEngine>> ENGINES = new LinkedHashMap<>();
+  private static final int BATCH = 500;
+
+  static {
+    ENGINES.put("fast", FastGameCandidate::new);
+  }
+
+  private final Supplier<CandidateEngine> engines;
+  private final List<BoardType> types = new ArrayList<>();
+  private final List<Integer> sizes = new ArrayList<>();
+  private final double passRate;
+
+  /**
+   * Creates an oracle.
+   *
+   * @param engines  creates a fresh candidate for each worker.
+   * @param boards   the boards to play on, as "type:size"; games cycle through them.
+   * @param passRate the chance of a voluntary pass at each ply.
+   */
+  public DifferentialOracle(Supplier<CandidateEngine> engines, List<String> boards,
+                            double passRate) {
+    if (boards.isEmpty() || passRate < 0 || passRate >= 1) {
+      throw new IllegalArgumentException("Invalid oracle settings");
+    }
+    this.engines = engines;
+    for (String board : boards) {
+      String[] parts = board.split(":");
+      types.add(BoardType.parse(parts[0]));
+      sizes.add(Integer.parseInt(parts[1]));
+    }
+    this.passRate = passRate;
+  }
+
+  /**
+   * Runs the oracle described by command line arguments.
+   *
+   * @param args the options described in the class comment.
+   */
+  public static void main(String[] args) {
+    Map<String, String> options = Tournament.parseOptions(args);
+    Supplier<CandidateEngine> engines = ENGINES.get(options.getOrDefault("engine", "fast"));
+    if (engines == null) {
+      throw new IllegalArgumentException("Unknown engine, expected one of " + ENGINES.keySet());
+    }
+    DifferentialOracle oracle = new DifferentialOracle(engines, Arrays.asList(
+            options.getOrDefault("boards",
+                    "hex:2,hex:3,hex:4,hex:5,hex:6,square:4,square:6,square:8").split(",")),
+            Double.parseDouble(options.getOrDefault("pass-rate", "0.02")));
+    Divergence divergence = oracle.run(
+            Long.parseLong(options.getOrDefault("games", "1000000")),
+            Integer.parseInt(options.getOrDefault("threads",
+                    String.valueOf(Runtime.getRuntime().availableProcessors()))),
+            Long.parseLong(options.getOrDefault("seed", "1")), System.out);
+    if (divergence != null) {
+      System.exit(1);
+    }
+  }
+
+  /**
+   * Plays random games until the given number have been checked or one diverges.
+   *
+   * @param games   the number of games to play.
+   * @param threads the number of worker threads.
+   * @param seed    the seed of the random games; game i always plays the same moves.
+   * @param out     where progress and the result are printed.
+   * @return the shrunk divergence, or null if every game agreed.
+   */
+  public Divergence run(long games, int threads, long seed, PrintStream out) {
+    AtomicReference<Divergence> found = new AtomicReference<>();
+    AtomicBoolean stop = new AtomicBoolean();
+    AtomicLong checked = new AtomicLong();
+    AtomicLong plies = new AtomicLong();
+    ExecutorService pool = Executors.newWorkStealingPool(threads);
+    long start = System.nanoTime();
+    try {
+      List<Future<?>> batches = new ArrayList<>();
+      for (long first = 0; first < games; first += BATCH) {
+        long from = first;
+        long to = Math.min(games, first + BATCH);
+        batches.add(pool.submit(() -> {
+          CandidateEngine engine = engines.get();
+          for (long game = from; game < to && !stop.get(); game++) {
+            int board = (int) (game % types.size());
+            SplittableRandom random = new SplittableRandom(seed * 0x9E3779B97F4A7C15L + game);
+            Divergence divergence = play(types.get(board), sizes.get(board), engine,
+                    new RandomMoves(random, passRate));
+            if (divergence.isDivergent() && found.compareAndSet(null, divergence)) {
+              stop.set(true);
+            }
+            checked.incrementAndGet();
+            plies.addAndGet(divergence.moves.length);
+          }
+        }));
+      }
+      for (Future<?> batch : batches) {
+        batch.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Oracle run was interrupted", e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("A game failed to run", e.getCause());
+    } finally {
+      pool.shutdownNow();
+    }
+    double seconds = (System.nanoTime() - start) / 1e9;
+    out.printf("Checked %d games, %d plies in %.1f s (%.0f games/s)%n", checked.get(),
+            plies.get(), seconds, checked.get() / seconds);
+
+    Divergence divergence = found.get();
+    if (divergence == null) {
+      out.println("No divergence found");
+      return null;
+    }
+    out.printf("Divergence found after %d moves, shrinking%n", divergence.moves.length);
+    Divergence shrunk = shrink(divergence);
+    out.print(shrunk);
+    return shrunk;
+  }
+
+  /**
+   * Removes chunks of moves from a diverging game for as long as the remaining moves are still
+   * a legal game that diverges, halving the chunk size whenever nothing can be removed.
+   *
+   * @param divergence a diverging game.
+   * @return a diverging game with no removable chunk left.
+   */
+  public Divergence shrink(Divergence divergence) {
+    Divergence best = divergence;
+    int chunk = Math.max(1, best.moves.length / 2);
+    while (chunk >= 1) {
+      boolean removed = false;
+      for (int from = 0; from + chunk <= best.moves.length && !removed; from += chunk) {
+        int[] fewer = new int[best.moves.length - chunk];
+        System.arraycopy(best.moves, 0, fewer, 0, from);
+        System.arraycopy(best.moves, from + chunk, fewer, from, fewer.length - from);
+        Divergence attempt = play(best.type, best.size, engines.get(), new GivenMoves(fewer));
+        if (attempt.isDivergent()) {
+          best = attempt;
+          removed = true;
+        }
+      }
+      if (!removed) {
+        chunk /= 2;
+      } else {
+        chunk = Math.min(chunk, Math.max(1, best.moves.length / 2));
+      }
+    }
+    return best;
+  }
+
+  /**
+   * Plays one game on both engines and compares them after every ply.
+   *
+   * @param type    the board shape.
+   * @param size    the board size.
+   * @param engine  the candidate, reset by this method.
+   * @param chooser picks each move among the legal ones.
+   * @return the moves played and, if the engines disagreed or one of them threw, how.
+   */
+  public static Divergence play(BoardType type, int size, CandidateEngine engine,
+                                MoveChooser chooser) {
+    BoardTopology topology = type == BoardType.HEX
+            ? BoardTopology.hex(size) : BoardTopology.square(size);
+    int cells = topology.getCellCount();
+    IGame reference = HeadlessGame.newStartedGame(type, size, new HumanPlayer(CellColor.BLACK),
+            new HumanPlayer(CellColor.WHITE));
+    int[] expected = new int[cells];
+    int[] actual = new int[cells];
+    int[] flipped = new int[cells];
+    byte[] before = new byte[cells];
+    int[] played = new int[2 * cells + 2];
+    int ply = 0;
+
+    // A crash of either engine is a divergence too, and is shrunk like any other.
+    try {
+      engine.reset(topology);
+      while (true) {
+        String problem = compareState(reference, engine, topology);
+        if (problem != null) {
+          return new Divergence(type, size, Arrays.copyOf(played, ply), problem);
+        }
+        if (reference.isGameOver()) {
+          return new Divergence(type, size, Arrays.copyOf(played, ply), null);
+        }
+
+        CellColor color = reference.getCurrentPlayer().getColor();
+        int count = 0;
+        for (int cell = 0; cell < cells; cell++) {
+          if (reference.isValidMove(topology.q(cell), topology.r(cell), color)) {
+            expected[count++] = cell;
+          }
+        }
+        int candidateCount = engine.legalMoves(actual);
+        if (!Arrays.equals(expected, 0, count, actual, 0, candidateCount)) {
+          return new Divergence(type, size, Arrays.copyOf(played, ply), "legal moves: model "
+                  + cellsToString(topology, expected, count) + ", engine "
+                  + cellsToString(topology, actual, candidateCount));
+        }
+
+        int move = chooser.next(expected, count);
+        if (move == MoveChooser.STOP) {
+          return new Divergence(type, size, Arrays.copyOf(played, ply), null);
+        }
+        if (move != FastGame.PASS && Arrays.stream(expected, 0, count).noneMatch(m -> m == move)) {
+          return new Divergence(type, size, Arrays.copyOf(played, ply), null).invalid();
+        }
+        played[ply++] = move;
+        if (move == FastGame.PASS) {
+          reference.implementPass(color);
+          engine.pass();
+          continue;
+        }
+
+        for (int cell = 0; cell < cells; cell++) {
+          before[cell] = FastGame.code(reference.getGrid().getCellColor(topology.q(cell),
+                  topology.r(cell)));
+        }
+        reference.makeMove(topology.q(move), topology.r(move), color);
+        int flipCount = engine.play(move, flipped);
+        int[] changed = new int[cells];
+        int changedCount = 0;
+        for (int cell = 0; cell < cells; cell++) {
+          if (cell != move && before[cell] != FastGame.code(reference.getGrid().getCellColor(
+                  topology.q(cell), topology.r(cell)))) {
+            changed[changedCount++] = cell;
+          }
+        }
+        int[] candidateFlips = Arrays.copyOf(flipped, flipCount);
+        Arrays.sort(candidateFlips);
+        if (!Arrays.equals(changed, 0, changedCount, candidateFlips, 0, flipCount)) {
+          return new Divergence(type, size, Arrays.copyOf(played, ply), "flips: model "
+                  + cellsToString(topology, changed, changedCount) + ", engine "
+                  + cellsToString(topology, candidateFlips, flipCount));
+        }
+      }
+    } catch (RuntimeException e) {
+      return new Divergence(type, size, Arrays.copyOf(played, ply),
+              "crash: " + e.getClass().getName());
+    }
+  }
+
+  private static String compareState(IGame reference, CandidateEngine engine,
+                                     BoardTopology topology) {
+    if (reference.isGameOver() != engine.isGameOver()) {
+      return "game over: model " + reference.isGameOver() + ", engine " + engine.isGameOver();
+    }
+    int black = reference.getScore(CellColor.BLACK);
+    int white = reference.getScore(CellColor.WHITE);
+    if (black != engine.count(FastGame.BLACK) || white != engine.count(FastGame.WHITE)
+            || topology.getCellCount() - black - white != engine.count(FastGame.EMPTY)) {
+      return "scores: model " + black + "-" + white + ", engine "
+              + engine.count(FastGame.BLACK) + "-" + engine.count(FastGame.WHITE);
+    }
+    if (reference.isGameOver()) {
+      return null;
+    }
+    int toMove = FastGame.code(reference.getCurrentPlayer().getColor());
+    if (toMove != engine.toMove()) {
+      return "side to move: model " + FastGame.color(toMove) + ", engine "
+              + FastGame.color(engine.toMove());
+    }
+    for (CellColor color : new CellColor[]{CellColor.BLACK, CellColor.WHITE}) {
+      boolean expected = reference.hasValidMoveForPlayer(color);
+      if (expected != engine.hasLegalMove(FastGame.code(color))) {
+        return color + " has a move: model " + expected + ", engine " + !expected;
+      }
+    }
+    return null;
+  }
+
+  private static String cellsToString(BoardTopology topology, int[] cells, int count) {
+    StringBuilder result = new StringBuilder("[");
+    for (int i = 0; i < count; i++) {
+      if (i > 0) {
+        result.append(", ");
+      }
+      result.append("(").append(topology.q(cells[i])).append(",")
+              .append(topology.r(cells[i])).append(")");
+    }
+    return result.append("]").toString();
+  }
+
+  /**
+   * Picks the next move of a game.
+   */
+  public interface MoveChooser {
+    /**
+     * Returned to end the game early.
+     */
+    int STOP = -2;
+
+    /**
+     * Picks a move.
+     *
+     * @param legal the legal moves in cell order.
+     * @param count the number of legal moves.
+     * @return a cell, {@link FastGame#PASS} or {@link #STOP}.
+     */
+    int next(int[] legal, int count);
+  }
+
+  /**
+   * Uniformly random moves, with the occasional voluntary pass.
+   */
+  private static final class RandomMoves implements MoveChooser {
+    private final SplittableRandom random;
+    private final double passRate;
+
+    private RandomMoves(SplittableRandom random, double passRate) {
+      this.random = random;
+      this.passRate = passRate;
+    }
+
+    @Override
+    public int next(int[] legal, int count) {
+      if (count == 0 || random.nextDouble() < passRate) {
+        return FastGame.PASS;
+      }
+      return legal[random.nextInt(count)];
+    }
+  }
+
+  /**
+   * Replays a fixed list of moves.
+   */
+  private static final class GivenMoves implements MoveChooser {
+    private final int[] moves;
+    private int next;
+
+    private GivenMoves(int[] moves) {
+      this.moves = moves;
+    }
+
+    @Override
+    public int next(int[] legal, int count) {
+      return next < moves.length ? moves[next++] : STOP;
+    }
+  }
+
+  /**
+   * A game played by the oracle: its moves and, if the engines disagreed, the disagreement
+   * found after the last move.
+   */
+  public static final class Divergence {
+    private final BoardType type;
+    private final int size;
+    private final int[] moves;
+    private final String problem;
+    private final boolean invalid;
+
+    private Divergence(BoardType type, int size, int[] moves, String problem) {
+      this(type, size, moves, problem, false);
+    }
+
+    private Divergence(BoardType type, int size, int[] moves, String problem, boolean invalid) {
+      this.type = type;
+      this.size = size;
+      this.moves = moves;
+      this.problem = problem;
+      this.invalid = invalid;
+    }
+
+    private Divergence invalid() {
+      return new Divergence(type, size, moves, null, true);
+    }
+
+    /**
+     * Checks whether the engines disagreed.
+     *
+     * @return true if this game is a reproduction of a divergence.
+     */
+    public boolean isDivergent() {
+      return problem != null && !invalid;
+    }
+
+    /**
+     * Gives the moves of the game.
+     *
+     * @return a copy of the cells played, {@link FastGame#PASS} for passes.
+     */
+    public int[] getMoves() {
+      return moves.clone();
+    }
+
+    /**
+     * Describes the disagreement.
+     *
+     * @return what the engines disagreed on, or null if they agreed.
+     */
+    public String getProblem() {
+      return problem;
+    }
+
+    @Override
+    public String toString() {
+      BoardTopology topology = type == BoardType.HEX
+              ? BoardTopology.hex(size) : BoardTopology.square(size);
+      StringBuilder result = new StringBuilder();
+      result.append(type).append(" size ").append(size).append(", ").append(moves.length)
+              .append(" moves:");
+      for (int move : moves) {
+        result.append(move == FastGame.PASS ? " pass"
+                : " (" + topology.q(move) + "," + topology.r(move) + ")");
+      }
+      return result.append(System.lineSeparator()).append("then ").append(problem)
+              .append(System.lineSeparator()).toString();
+    }
+  }
+}
@@ -0,0 +1,53 @@
+package cs3500.reversi.tools;
+
+import cs3500.reversi.model.engine.BoardTopology;
+import cs3500.reversi.model.engine.FastGame;
+
+/**
+ * Puts {@link FastGame} under test.
+ */
+public final class FastGameCandidate implements CandidateEngine {
+  private FastGame game;
+
+  @Override
+  public void reset(BoardTopology topology) {
+    game = new FastGame(topology);
+  }
+
+  @Override
+  public int toMove() {
+    return game.getToMove();
+  }
+
+  @Override
+  public int legalMoves(int[] out) {
+    return game.legalMoves(out);
+  }
+
+  @Override
+  public boolean hasLegalMove(int color) {
+    return game.hasLegalMove(color);
+  }
+
+  @Override
+  public int play(int cell, int[] flipped) {
+    int count = game.flips(cell, game.getToMove(), flipped);
+    game.play(cell);
+    return count;
+  }
+
+  @Override
+  public void pass() {
+    game.pass();
+  }
+
+  @Override
+  public int count(int color) {
+    return game.count(color);
+  }
+
+  @Override
+  public boolean isGameOver() {
+    return game.isGameOver();
+  }
+}
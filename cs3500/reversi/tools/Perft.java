@@ -0,0 +1,309 @@
+package cs3500.reversi.tools;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import cs3500.reversi.model.CellColor;
+import cs3500.reversi.model.IGame;
+import cs3500.reversi.model.engine.BoardTopology;
+import cs3500.reversi.model.engine.FastGame;
+import cs3500.reversi.players.HumanPlayer;
+import cs3500.reversi.tournament.BoardType;
+import cs3500.reversi.tournament.HeadlessGame;
+import cs3500.reversi.tournament.Tournament;
+
+/**
+ * Counts the positions reachable in exactly N plies, the standard measure of move generation
+ * speed and correctness. A pass is a ply of its own and only happens when the side to move has
+ * no legal move; a finished game counts as one leaf at whatever depth it ends.
+ *
+ * <p>Usage: {@code Perft [--board hex:4] [--depth 6] [--threads n]
+ * [--position cells --to-move black|white] [--validate true]}. The position lists every cell in
+ * row order as X (black), O (white) or - (empty), so the output of the textual views can be
+ * pasted as is. A position with white to move is set up as black having just passed.
+ * With {@code --validate true} every node is also replayed on the regular model and the legal
+ * moves, the resulting boards and the pass decisions are compared.
+ */
+public final class Perft {
+  private static final int SEQUENTIAL_DEPTH = 3;
+
+  private Perft() {
+  }
+
+  /**
+   * Runs perft for every depth from 1 to the requested one and prints the node counts.
+   *
+   * @param args the options described in the class comment.
+   */
+  public static void main(String[] args) {
+    Map<String, String> options = Tournament.parseOptions(args);
+    String[] board = options.getOrDefault("board", "hex:4").split(":");
+    BoardType type = BoardType.parse(board[0]);
+    int size = Integer.parseInt(board.length > 1 ? board[1] : (type == BoardType.HEX ? "4" : "8"));
+    int depth = Integer.parseInt(options.getOrDefault("depth", "6"));
+    int threads = Integer.parseInt(options.getOrDefault("threads", "1"));
+    boolean validate = Boolean.parseBoolean(options.getOrDefault("validate", "false"));
+    CellColor toMove = CellColor.valueOf(options.getOrDefault("to-move", "black").toUpperCase());
+    String position = options.get("position");
+
+    BoardTopology topology = type == BoardType.HEX
+            ? BoardTopology.hex(size) : BoardTopology.square(size);
+    FastGame game = position == null ? new FastGame(topology)
+            : FastGame.withCells(topology, parsePosition(topology, position));
+    IGame reference = null;
+    if (validate) {
+      reference = HeadlessGame.newStartedGame(type, size, new HumanPlayer(CellColor.BLACK),
+              new HumanPlayer(CellColor.WHITE));
+      if (position != null) {
+        for (int cell = 0; cell < topology.getCellCount(); cell++) {
+          reference.getGrid().setCell(topology.q(cell), topology.r(cell),
+                  FastGame.color(game.cell(cell)));
+        }
+      }
+    }
+    if (toMove == CellColor.WHITE) {
+      game.pass();
+      if (reference != null) {
+        reference.implementPass(CellColor.BLACK);
+      }
+    }
+
+    ForkJoinPool pool = threads > 1 ? new ForkJoinPool(threads) : null;
+    try {
+      for (int d = 1; d <= depth; d++) {
+        report(System.out, topology, d, game, reference, pool);
+      }
+    } finally {
+      if (pool != null) {
+        pool.shutdown();
+      }
+    }
+  }
+
+  private static void report(PrintStream out, BoardTopology topology, int depth, FastGame game,
+                             IGame reference, ForkJoinPool pool) {
+    long start = System.nanoTime();
+    long nodes;
+    if (reference != null) {
+      nodes = validate(reference, new FastGame(game), depth);
+    } else if (pool != null) {
+      nodes = parallel(game, depth, pool);
+    } else {
+      nodes = perft(new FastGame(game), depth);
+    }
+    double seconds = Math.max((System.nanoTime() - start) / 1e9, 1e-9);
+    out.printf("%s depth %d: %d nodes in %.3f s (%.0f nodes/s)%s%n", topology, depth, nodes,
+            seconds, nodes / seconds, reference != null ? ", validated" : "");
+  }
+
+  /**
+   * Counts the leaves below a position on the calling thread.
+   *
+   * @param game  the position; it is restored before returning.
+   * @param depth the number of plies to look ahead.
+   * @return the number of leaves.
+   */
+  public static long perft(FastGame game, int depth) {
+    int cells = game.getTopology().getCellCount();
+    int[][] moves = new int[depth + 1][cells];
+    return perft(game, depth, moves);
+  }
+
+  private static long perft(FastGame game, int depth, int[][] moves) {
+    if (depth == 0 || game.isGameOver()) {
+      return 1;
+    }
+    int[] buffer = moves[depth];
+    int count = game.legalMoves(buffer);
+    if (count == 0) {
+      game.pass();
+      long nodes = perft(game, depth - 1, moves);
+      game.undo();
+      return nodes;
+    }
+    if (depth == 1) {
+      return count;
+    }
+    long nodes = 0;
+    for (int i = 0; i < count; i++) {
+      game.play(buffer[i]);
+      nodes += perft(game, depth - 1, moves);
+      game.undo();
+    }
+    return nodes;
+  }
+
+  /**
+   * Counts the leaves below a position, splitting the top of the tree over a fork/join pool.
+   *
+   * @param game  the position; it is not modified.
+   * @param depth the number of plies to look ahead.
+   * @param pool  the pool to run on.
+   * @return the number of leaves.
+   */
+  public static long parallel(FastGame game, int depth, ForkJoinPool pool) {
+    return pool.invoke(new PerftTask(new FastGame(game), depth));
+  }
+
+  /**
+   * Counts the leaves below a position while checking, at every node, that the position agrees
+   * with the regular model: same legal moves, same pass decision, same board after every move.
+   *
+   * @param reference the position on the regular model; it is not modified.
+   * @param game      the same position on the fast engine; it is restored before returning.
+   * @param depth     the number of plies to look ahead.
+   * @return the number of leaves.
+   * @throws IllegalStateException describing the first disagreement.
+   */
+  public static long validate(IGame reference, FastGame game, int depth) {
+    BoardTopology topology = game.getTopology();
+    checkSameBoard(reference, game);
+    if (reference.isGameOver() != game.isGameOver()) {
+      throw new IllegalStateException("Game over differs at ply " + game.getPly());
+    }
+    if (depth == 0 || game.isGameOver()) {
+      return 1;
+    }
+    CellColor color = reference.getCurrentPlayer().getColor();
+    if (FastGame.code(color) != game.getToMove()) {
+      throw new IllegalStateException("Side to move differs at ply " + game.getPly());
+    }
+
+    int[] moves = new int[topology.getCellCount()];
+    int count = game.legalMoves(moves);
+    List<Integer> expected = new ArrayList<>();
+    for (int cell = 0; cell < topology.getCellCount(); cell++) {
+      if (reference.isValidMove(topology.q(cell), topology.r(cell), color)) {
+        expected.add(cell);
+      }
+    }
+    List<Integer> actual = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      actual.add(moves[i]);
+    }
+    if (!expected.equals(actual)) {
+      throw new IllegalStateException("Legal moves differ at ply " + game.getPly()
+              + ": model " + expected + ", engine " + actual);
+    }
+    if (reference.hasValidMoveForPlayer(color) != (count > 0)) {
+      throw new IllegalStateException("Pass decision differs at ply " + game.getPly());
+    }
+
+    long nodes = 0;
+    if (count == 0) {
+      IGame child = reference.cloneGame();
+      child.implementPass(color);
+      game.pass();
+      nodes += validate(child, game, depth - 1);
+      game.undo();
+      return nodes;
+    }
+    for (int i = 0; i < count; i++) {
+      int move = moves[i];
+      IGame child = reference.cloneGame();
+      child.makeMove(topology.q(move), topology.r(move), color);
+      game.play(move);
+      nodes += validate(child, game, depth - 1);
+      game.undo();
+    }
+    return nodes;
+  }
+
+  private static void checkSameBoard(IGame reference, FastGame game) {
+    BoardTopology topology = game.getTopology();
+    for (int cell = 0; cell < topology.getCellCount(); cell++) {
+      CellColor expected = reference.getGrid().getCellColor(topology.q(cell), topology.r(cell));
+      if (FastGame.code(expected) != game.cell(cell)) {
+        throw new IllegalStateException("Cell (" + topology.q(cell) + ", " + topology.r(cell)
+                + ") differs at ply " + game.getPly());
+      }
+    }
+    if (reference.getScore(CellColor.BLACK) != game.count(FastGame.BLACK)
+            || reference.getScore(CellColor.WHITE) != game.count(FastGame.WHITE)) {
+      throw new IllegalStateException("Scores differ at ply " + game.getPly());
+    }
+  }
+
+  /**
+   * Reads a position written as X, O and - characters in row order, ignoring whitespace.
+   *
+   * @param topology the board geometry.
+   * @param text     the cells.
+   * @return one color code per cell.
+   * @throws IllegalArgumentException if a character is unknown or the cell count is wrong.
+   */
+  public static byte[] parsePosition(BoardTopology topology, String text) {
+    byte[] cells = new byte[topology.getCellCount()];
+    int cell = 0;
+    for (char c : text.toCharArray()) {
+      if (Character.isWhitespace(c)) {
+        continue;
+      }
+      if (cell == cells.length) {
+        throw new IllegalArgumentException("Too many cells for " + topology);
+      }
+      switch (c) {
+        case 'X':
+          cells[cell++] = FastGame.BLACK;
+          break;
+        case 'O':
+          cells[cell++] = FastGame.WHITE;
+          break;
+        case '-':
+        case '_':
+          cells[cell++] = FastGame.EMPTY;
+          break;
+        default:
+          throw new IllegalArgumentException("Unknown cell: " + c);
+      }
+    }
+    if (cell != cells.length) {
+      throw new IllegalArgumentException("Expected " + cells.length + " cells but got " + cell);
+    }
+    return cells;
+  }
+
+  /**
+   * Perft over one subtree; subtrees deeper than {@link #SEQUENTIAL_DEPTH} are split further.
+   */
+  private static final class PerftTask extends RecursiveTask<Long> {
+    private static final long serialVersionUID = 1L;
+
+    private final FastGame game;
+    private final int depth;
+
+    private PerftTask(FastGame game, int depth) {
+      this.game = game;
+      this.depth = depth;
+    }
+
+    @Override
+    protected Long compute() {
+      if (depth <= SEQUENTIAL_DEPTH || game.isGameOver()) {
+        return perft(game, depth);
+      }
+      int[] moves = new int[game.getTopology().getCellCount()];
+      int count = game.legalMoves(moves);
+      List<PerftTask> children = new ArrayList<>();
+      if (count == 0) {
+        FastGame child = new FastGame(game);
+        child.pass();
+        children.add(new PerftTask(child, depth - 1));
+      }
+      for (int i = 0; i < count; i++) {
+        FastGame child = new FastGame(game);
+        child.play(moves[i]);
+        children.add(new PerftTask(child, depth - 1));
+      }
+      long nodes = 0;
+      for (PerftTask task : invokeAll(children)) {
+        nodes += task.join();
+      }
+      return nodes;
+    }
+  }
+}
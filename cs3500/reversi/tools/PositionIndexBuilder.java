@@ -0,0 +1,43 @@
+package cs3500.reversi.tools;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+
+import cs3500.reversi.archive.GameArchive;
+import cs3500.reversi.archive.PositionIndex;
+import cs3500.reversi.tournament.Tournament;
+
+/**
+ * Builds the {@link PositionIndex} of a game archive.
+ *
+ * <p>Usage: {@code PositionIndexBuilder [--archive archive] [--out positions.rvp]
+ * [--threads n] [--run-entries 4000000]}. Each thread holds 32 bytes per run entry, and the
+ * index takes 16 bytes per position of every game, plus as much again for the runs while it
+ * is built.
+ */
+public final class PositionIndexBuilder {
+
+  private PositionIndexBuilder() {
+  }
+
+  /**
+   * Builds the index described by command line arguments.
+   *
+   * @param args the options described in the class comment.
+   * @throws IOException if the archive cannot be read or the index cannot be written.
+   */
+  public static void main(String[] args) throws IOException {
+    Map<String, String> options = Tournament.parseOptions(args);
+    GameArchive archive = GameArchive.open(Paths.get(options.getOrDefault("archive",
+            "archive")));
+    Path out = Paths.get(options.getOrDefault("out", "positions.rvp"));
+    int threads = Integer.parseInt(options.getOrDefault("threads",
+            String.valueOf(Runtime.getRuntime().availableProcessors())));
+    int runEntries = Integer.parseInt(options.getOrDefault("run-entries", "4000000"));
+    PositionIndex.build(archive, out, threads, runEntries, System.err);
+    System.out.println(PositionIndex.open(out).size() + " positions of " + archive.size()
+            + " games -> " + out);
+  }
+}
@@ -0,0 +1,220 @@
+package cs3500.reversi.tools;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import cs3500.reversi.model.engine.BoardTopology;
+import cs3500.reversi.model.engine.FastGame;
+import cs3500.reversi.model.search.BasicEvaluator;
+import cs3500.reversi.model.search.ProbCut;
+import cs3500.reversi.model.search.SearchBudget;
+import cs3500.reversi.model.search.Searcher;
+import cs3500.reversi.tournament.Tournament;
+
+/**
+ * Fits the ProbCut regressions used by {@link Searcher}. Positions are sampled from self-play
+ * games of a shallow search with some random moves mixed in, each position is searched to every
+ * depth involved, and for each pair of deep and shallow depths a least squares line predicts the
+ * deep score from the shallow one. Positions that are solved at either depth are left out.
+ *
+ * <p>Usage: {@code ProbCutFitter [--boards hex:4,hex:5,hex:6,square:6,square:8]
+ * [--depths 3:1,4:2,5:1,6:2,7:3] [--positions 200] [--threads n] [--seed n] [--out file]}.
+ * Each depth pair is written {@code deep:shallow}. The output is in the format read by
+ * {@link ProbCut#parse(List, double)}.
+ */
+public final class ProbCutFitter {
+  private static final double RANDOM_MOVES = 0.2;
+  private static final double SAMPLE_RATE = 0.25;
+
+  private ProbCutFitter() {
+  }
+
+  /**
+   * Fits the regressions described by command line arguments.
+   *
+   * @param args the options described in the class comment.
+   * @throws IOException if the output file cannot be written.
+   */
+  public static void main(String[] args) throws IOException {
+    Map<String, String> options = Tournament.parseOptions(args);
+    List<int[]> pairs = new ArrayList<>();
+    for (String pair : options.getOrDefault("depths", "3:1,4:2,5:1,6:2,7:3").split(",")) {
+      String[] parts = pair.split(":");
+      pairs.add(new int[]{Integer.parseInt(parts[0]), Integer.parseInt(parts[1])});
+    }
+    int positions = Integer.parseInt(options.getOrDefault("positions", "200"));
+    int threads = Integer.parseInt(options.getOrDefault("threads",
+            String.valueOf(Runtime.getRuntime().availableProcessors())));
+    long seed = Long.parseLong(options.getOrDefault("seed", "1"));
+
+    List<String> lines = new ArrayList<>();
+    lines.add("# board depth shallow a b sigma, " + positions + " positions per board");
+    for (String board : options.getOrDefault("boards",
+            "hex:4,hex:5,hex:6,square:6,square:8").split(",")) {
+      String[] parts = board.split(":");
+      int size = Integer.parseInt(parts[1]);
+      BoardTopology topology = parts[0].equals("hex")
+              ? BoardTopology.hex(size) : BoardTopology.square(size);
+      lines.addAll(fit(topology, pairs, positions, threads, seed, System.err));
+    }
+    if (options.containsKey("out")) {
+      Files.write(Paths.get(options.get("out")), lines);
+    } else {
+      lines.forEach(System.out::println);
+    }
+  }
+
+  /**
+   * Fits the regressions of one board.
+   *
+   * @param topology  the board.
+   * @param pairs     the {deep, shallow} depth pairs to fit.
+   * @param positions the number of positions to sample.
+   * @param threads   the number of worker threads.
+   * @param seed      the seed of the self-play games.
+   * @param log       where progress is reported.
+   * @return one parameter line per depth pair that had enough data.
+   */
+  public static List<String> fit(BoardTopology topology, List<int[]> pairs, int positions,
+                                 int threads, long seed, PrintStream log) {
+    TreeSet<Integer> depthSet = new TreeSet<>();
+    for (int[] pair : pairs) {
+      if (pair[1] < 0 || pair[1] >= pair[0]) {
+        throw new IllegalArgumentException("Shallow depth must be below the deep depth");
+      }
+      depthSet.add(pair[0]);
+      depthSet.add(pair[1]);
+    }
+    int[] depths = depthSet.stream().mapToInt(Integer::intValue).toArray();
+    List<FastGame> sample = sample(topology, positions, depths[depths.length - 1] + 2,
+            new SplittableRandom(seed));
+
+    ExecutorService pool = Executors.newWorkStealingPool(threads);
+    int[][] scores = new int[sample.size()][];
+    try {
+      List<Future<int[]>> futures = new ArrayList<>();
+      for (FastGame position : sample) {
+        futures.add(pool.submit(() -> scores(position, depths)));
+      }
+      for (int i = 0; i < futures.size(); i++) {
+        scores[i] = futures.get(i).get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Fitting was interrupted", e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("A search failed", e.getCause());
+    } finally {
+      pool.shutdownNow();
+    }
+
+    List<String> lines = new ArrayList<>();
+    for (int[] pair : pairs) {
+      int deep = Arrays.binarySearch(depths, pair[0]);
+      int shallow = Arrays.binarySearch(depths, pair[1]);
+      double sumX = 0;
+      double sumY = 0;
+      double sumXx = 0;
+      double sumXy = 0;
+      int n = 0;
+      for (int[] row : scores) {
+        if (Math.abs(row[deep]) >= Searcher.WIN / 2 || Math.abs(row[shallow]) >= Searcher.WIN / 2) {
+          continue;
+        }
+        double x = row[shallow];
+        double y = row[deep];
+        sumX += x;
+        sumY += y;
+        sumXx += x * x;
+        sumXy += x * y;
+        n++;
+      }
+      double spread = n * sumXx - sumX * sumX;
+      if (n < 10 || spread <= 0) {
+        log.printf("%s %d:%d skipped, %d usable positions%n", topology, pair[0], pair[1], n);
+        continue;
+      }
+      double a = (n * sumXy - sumX * sumY) / spread;
+      double b = (sumY - a * sumX) / n;
+      double squares = 0;
+      for (int[] row : scores) {
+        if (Math.abs(row[deep]) >= Searcher.WIN / 2 || Math.abs(row[shallow]) >= Searcher.WIN / 2) {
+          continue;
+        }
+        double residual = row[deep] - (a * row[shallow] + b);
+        squares += residual * residual;
+      }
+      double sigma = Math.sqrt(squares / Math.max(1, n - 2));
+      if (a <= 0) {
+        log.printf("%s %d:%d skipped, slope %.3f%n", topology, pair[0], pair[1], a);
+        continue;
+      }
+      lines.add(ProbCut.line(topology.toString(), pair[0], pair[1], a, b, sigma));
+      log.printf("%s %d:%d fitted on %d positions%n", topology, pair[0], pair[1], n);
+    }
+    return lines;
+  }
+
+  /**
+   * Plays self-play games and keeps a random subset of their positions that have a move and at
+   * least the given number of empty cells.
+   */
+  private static List<FastGame> sample(BoardTopology topology, int positions, int minEmpties,
+                                       SplittableRandom random) {
+    List<FastGame> sample = new ArrayList<>();
+    Searcher player = new Searcher(new BasicEvaluator(), 16);
+    int[] moves = new int[topology.getCellCount()];
+    SearchBudget budget = SearchBudget.ofDepth(2);
+    while (sample.size() < positions) {
+      FastGame game = new FastGame(topology);
+      int before = sample.size();
+      while (!game.isGameOver() && game.count(FastGame.EMPTY) >= minEmpties
+              && sample.size() < positions) {
+        int count = game.legalMoves(moves);
+        if (count == 0) {
+          game.pass();
+          continue;
+        }
+        if (game.getPly() > 0 && random.nextDouble() < SAMPLE_RATE) {
+          sample.add(new FastGame(game));
+        }
+        game.play(random.nextDouble() < RANDOM_MOVES ? moves[random.nextInt(count)]
+                : player.search(game, budget));
+      }
+      if (sample.size() == before && game.getPly() == 0) {
+        throw new IllegalArgumentException(topology + " is too small for these depths");
+      }
+    }
+    return sample;
+  }
+
+  /**
+   * Searches a position to each depth with a fresh searcher, so no depth sees the results of
+   * another.
+   */
+  private static int[] scores(FastGame position, int[] depths) {
+    int[] scores = new int[depths.length];
+    for (int i = 0; i < depths.length; i++) {
+      Searcher searcher = new Searcher(new BasicEvaluator(), 12);
+      if (depths[i] == 0) {
+        scores[i] = new BasicEvaluator().evaluate(position);
+      } else {
+        searcher.search(position, SearchBudget.ofDepth(depths[i]));
+        scores[i] = searcher.getBestScore();
+      }
+    }
+    return scores;
+  }
+}
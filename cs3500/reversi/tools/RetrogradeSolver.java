@@ -0,0 +1,261 @@
+package cs3500.reversi.tools;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import cs3500.reversi.model.engine.BoardSymmetry;
+import cs3500.reversi.model.engine.BoardTopology;
+import cs3500.reversi.model.engine.FastGame;
+import cs3500.reversi.model.search.SolutionTable;
+import cs3500.reversi.tournament.Tournament;
+
+/**
+ * Solves small hex boards outright and writes a {@link SolutionTable} for each. Every move adds
+ * a disc, so the reachable positions fall into layers by disc count. The solver first enumerates
+ * the layers forward from the start position, keeping each position once for all its symmetric
+ * images, then values them backward from the full board: a finished game is worth its disc
+ * difference, a position with moves the best of its children, and a position whose side must
+ * pass the opposite of the same cells with the other side to move. Each layer is split between
+ * worker threads.
+ *
+ * <p>Usage: {@code RetrogradeSolver [--sizes 2,3,4] [--threads n] [--out directory]}. Hex 4
+ * has about 16 million classes of positions, takes a minute or two on one core, fits in 1 GB
+ * of heap and writes a 140 MB table.
+ */
+public final class RetrogradeSolver {
+  // Positions per task: large enough to amortize a task, small enough to balance the threads.
+  private static final int CHUNK = 1 << 14;
+
+  private RetrogradeSolver() {
+  }
+
+  /**
+   * Solves the boards described by command line arguments.
+   *
+   * @param args the options described in the class comment.
+   * @throws IOException if a table cannot be written.
+   */
+  public static void main(String[] args) throws IOException {
+    Map<String, String> options = Tournament.parseOptions(args);
+    int threads = Integer.parseInt(options.getOrDefault("threads",
+            String.valueOf(Runtime.getRuntime().availableProcessors())));
+    Path out = Paths.get(options.getOrDefault("out", "solutions"));
+    Files.createDirectories(out);
+    for (String size : options.getOrDefault("sizes", "2,3,4").split(",")) {
+      BoardTopology topology = BoardTopology.hex(Integer.parseInt(size));
+      Path file = out.resolve(SolutionTable.fileName(topology));
+      solve(topology, threads, file, System.err);
+      System.out.println(topology + " -> " + file);
+    }
+  }
+
+  /**
+   * Solves one board and writes its table.
+   *
+   * @param topology the board, of at most 39 cells.
+   * @param threads  the number of worker threads.
+   * @param file     the table file to write.
+   * @param log      where progress is reported.
+   * @throws IOException              if the table cannot be written.
+   * @throws IllegalArgumentException if the board is too large for exact keys.
+   */
+  public static void solve(BoardTopology topology, int threads, Path file, PrintStream log)
+          throws IOException {
+    int cells = topology.getCellCount();
+    BoardSymmetry symmetry = BoardSymmetry.of(topology);
+    FastGame start = new FastGame(topology);
+    int first = cells - start.count(FastGame.EMPTY);
+    long[][] keys = new long[cells + 1][];
+    byte[][] values = new byte[cells + 1][];
+
+    ExecutorService pool = Executors.newWorkStealingPool(threads);
+    try {
+      long begin = System.nanoTime();
+      keys[first] = withPassSiblings(topology, new long[]{symmetry.canonicalKey(start)});
+      long total = 0;
+      for (int discs = first; discs <= cells && keys[discs].length > 0; discs++) {
+        if (discs < cells) {
+          keys[discs + 1] = withPassSiblings(topology, expand(pool, topology, keys[discs]));
+        }
+        total += keys[discs].length;
+        log.println(topology + " " + discs + " discs: " + keys[discs].length + " positions");
+      }
+      for (int discs = cells; discs >= first; discs--) {
+        if (keys[discs] != null) {
+          values[discs] = value(pool, topology, keys[discs],
+                  discs < cells ? keys[discs + 1] : null,
+                  discs < cells ? values[discs + 1] : null);
+        }
+      }
+      log.println(topology + " solved, " + total + " positions in "
+              + (System.nanoTime() - begin) / 1_000_000 + " ms, start position worth "
+              + values[first][Arrays.binarySearch(keys[first], symmetry.canonicalKey(start))]);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Solving was interrupted", e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("A worker failed", e.getCause());
+    } finally {
+      pool.shutdownNow();
+    }
+    SolutionTable.write(file, topology, keys, values);
+  }
+
+  /**
+   * Gives the sorted keys of every position one move after the given ones.
+   */
+  private static long[] expand(ExecutorService pool, BoardTopology topology, long[] layer)
+          throws InterruptedException, ExecutionException {
+    List<Future<long[]>> futures = new ArrayList<>();
+    for (int from = 0; from < layer.length; from += CHUNK) {
+      int lo = from;
+      int hi = Math.min(layer.length, from + CHUNK);
+      futures.add(pool.submit(() -> {
+        BoardSymmetry symmetry = BoardSymmetry.of(topology);
+        int[] moves = new int[topology.getCellCount()];
+        long[] children = new long[4 * (hi - lo)];
+        int count = 0;
+        for (int i = lo; i < hi; i++) {
+          FastGame position = decode(topology, layer[i]);
+          int n = position.legalMoves(moves);
+          for (int m = 0; m < n; m++) {
+            position.play(moves[m]);
+            if (count == children.length) {
+              children = Arrays.copyOf(children, 2 * count);
+            }
+            children[count++] = symmetry.canonicalKey(position);
+            position.undo();
+          }
+        }
+        return distinct(children, count);
+      }));
+    }
+    long[][] parts = new long[futures.size()][];
+    int length = 0;
+    for (int i = 0; i < parts.length; i++) {
+      parts[i] = futures.get(i).get();
+      length += parts[i].length;
+    }
+    long[] all = new long[length];
+    int at = 0;
+    for (long[] part : parts) {
+      System.arraycopy(part, 0, all, at, part.length);
+      at += part.length;
+    }
+    return distinct(all, length);
+  }
+
+  /**
+   * Adds, for every position whose side to move must pass, the same cells with the other side
+   * to move, which is where the game goes on.
+   */
+  private static long[] withPassSiblings(BoardTopology topology, long[] layer) {
+    long[] all = Arrays.copyOf(layer, 2 * layer.length);
+    int count = layer.length;
+    for (long key : layer) {
+      FastGame position = decode(topology, key);
+      if (!position.hasLegalMove(position.getToMove())
+              && position.hasLegalMove(FastGame.opponent(position.getToMove()))) {
+        all[count++] = key ^ 1;
+      }
+    }
+    return distinct(all, count);
+  }
+
+  /**
+   * Values one layer from the values of the next.
+   */
+  private static byte[] value(ExecutorService pool, BoardTopology topology, long[] layer,
+                              long[] nextKeys, byte[] nextValues)
+          throws InterruptedException, ExecutionException {
+    byte[] values = new byte[layer.length];
+    boolean[] passes = new boolean[layer.length];
+    List<Future<?>> futures = new ArrayList<>();
+    for (int from = 0; from < layer.length; from += CHUNK) {
+      int lo = from;
+      int hi = Math.min(layer.length, from + CHUNK);
+      futures.add(pool.submit(() -> {
+        BoardSymmetry symmetry = BoardSymmetry.of(topology);
+        int[] moves = new int[topology.getCellCount()];
+        for (int i = lo; i < hi; i++) {
+          FastGame position = decode(topology, layer[i]);
+          int player = position.getToMove();
+          int n = position.legalMoves(moves);
+          if (n == 0) {
+            if (position.hasLegalMove(FastGame.opponent(player))) {
+              passes[i] = true;
+            } else {
+              values[i] = (byte) (position.count(player)
+                      - position.count(FastGame.opponent(player)));
+            }
+            continue;
+          }
+          int best = Integer.MIN_VALUE;
+          for (int m = 0; m < n; m++) {
+            position.play(moves[m]);
+            int child = Arrays.binarySearch(nextKeys, symmetry.canonicalKey(position));
+            position.undo();
+            if (child < 0) {
+              throw new IllegalStateException("Missing child of position " + layer[i]);
+            }
+            best = Math.max(best, -nextValues[child]);
+          }
+          values[i] = (byte) best;
+        }
+        return null;
+      }));
+    }
+    for (Future<?> future : futures) {
+      future.get();
+    }
+    // The position after a pass has the same cells, so it is in this layer and has moves.
+    for (int i = 0; i < layer.length; i++) {
+      if (passes[i]) {
+        values[i] = (byte) -values[Arrays.binarySearch(layer, layer[i] ^ 1)];
+      }
+    }
+    return values;
+  }
+
+  /**
+   * Rebuilds the position a key stands for, as its canonical image.
+   */
+  private static FastGame decode(BoardTopology topology, long key) {
+    byte[] cells = new byte[topology.getCellCount()];
+    long digits = key >>> 1;
+    for (int cell = 0; cell < cells.length; cell++) {
+      cells[cell] = (byte) (digits % 3);
+      digits /= 3;
+    }
+    FastGame position = FastGame.withCells(topology, cells);
+    if ((key & 1) != 0) {
+      position.pass();
+    }
+    return position;
+  }
+
+  /**
+   * Sorts the first {@code count} keys and drops the repeated ones.
+   */
+  private static long[] distinct(long[] keys, int count) {
+    Arrays.sort(keys, 0, count);
+    int kept = 0;
+    for (int i = 0; i < count; i++) {
+      if (kept == 0 || keys[i] != keys[kept - 1]) {
+        keys[kept++] = keys[i];
+      }
+    }
+    return Arrays.copyOf(keys, kept);
+  }
+}
@@ -0,0 +1,51 @@
+package cs3500.reversi.tournament;
+
+import cs3500.reversi.model.IGame;
+import cs3500.reversi.model.ReversiHexGame;
+import cs3500.reversi.model.ReversiSquareGame;
+import cs3500.reversi.players.IPlayer;
+
+/**
+ * The board shapes a headless game can be played on. Each constant knows how to build the
+ * matching model so the tournament code never has to switch on the board type itself.
+ */
+public enum BoardType {
+  HEX {
+    @Override
+    public IGame newGame(IPlayer black, IPlayer white, int size) {
+      return new ReversiHexGame(black, white, size);
+    }
+  },
+  SQUARE {
+    @Override
+    public IGame newGame(IPlayer black, IPlayer white, int size) {
+      return new ReversiSquareGame(black, white, size);
+    }
+  };
+
+  /**
+   * Creates a new, not yet started, game on a board of this shape.
+   *
+   * @param black the player moving first.
+   * @param white the player moving second.
+   * @param size  the size of the board.
+   * @return the new game.
+   */
+  public abstract IGame newGame(IPlayer black, IPlayer white, int size);
+
+  /**
+   * Finds the board type with the given name, ignoring case.
+   *
+   * @param name "hex" or "square".
+   * @return the matching board type.
+   * @throws IllegalArgumentException if there is no such board type.
+   */
+  public static BoardType parse(String name) {
+    for (BoardType type : values()) {
+      if (type.name().equalsIgnoreCase(name)) {
+        return type;
+      }
+    }
+    throw new IllegalArgumentException("Unknown board type: " + name);
+  }
+}
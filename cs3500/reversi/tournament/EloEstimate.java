@@ -0,0 +1,77 @@
+package cs3500.reversi.tournament;
+
+/**
+ * Converts match scores into Elo differences. A score is the fraction of game points taken, so
+ * a win counts 1, a draw 0.5 and a loss 0.
+ */
+public final class EloEstimate {
+  private static final double Z_95 = 1.959964;
+
+  private final double elo;
+  private final double margin;
+
+  private EloEstimate(double elo, double margin) {
+    this.elo = elo;
+    this.margin = margin;
+  }
+
+  /**
+   * Estimates the Elo difference and its 95% confidence margin from a win/draw/loss record.
+   *
+   * @param wins   games won.
+   * @param draws  games drawn.
+   * @param losses games lost.
+   * @return the estimate, or an estimate of 0 with infinite margin if no game was played.
+   */
+  public static EloEstimate of(long wins, long draws, long losses) {
+    long games = wins + draws + losses;
+    if (games == 0) {
+      return new EloEstimate(0, Double.POSITIVE_INFINITY);
+    }
+    double score = (wins + 0.5 * draws) / games;
+    double variance = (wins * Math.pow(1 - score, 2) + draws * Math.pow(0.5 - score, 2)
+            + losses * Math.pow(score, 2)) / games;
+    double deviation = Math.sqrt(variance / games);
+    double low = fromScore(score - Z_95 * deviation);
+    double high = fromScore(score + Z_95 * deviation);
+    return new EloEstimate(fromScore(score), (high - low) / 2);
+  }
+
+  /**
+   * Converts an expected score into an Elo difference. Scores of 0 and 1 are clamped so the
+   * result stays finite.
+   *
+   * @param score the expected score, between 0 and 1.
+   * @return the Elo difference that predicts this score.
+   */
+  public static double fromScore(double score) {
+    double clamped = Math.min(Math.max(score, 1e-3), 1 - 1e-3);
+    return -400 * Math.log10(1 / clamped - 1);
+  }
+
+  /**
+   * Converts an Elo difference into the score it predicts.
+   *
+   * @param elo the Elo difference.
+   * @return the expected score, between 0 and 1.
+   */
+  public static double toScore(double elo) {
+    return 1 / (1 + Math.pow(10, -elo / 400));
+  }
+
+  public double getElo() {
+    return elo;
+  }
+
+  public double getMargin() {
+    return margin;
+  }
+
+  @Override
+  public String toString() {
+    if (Double.isInfinite(margin)) {
+      return String.format("%+.0f", elo);
+    }
+    return String.format("%+.0f +/- %.0f", elo, margin);
+  }
+}
@@ -0,0 +1,77 @@
+package cs3500.reversi.tournament;
+
+import cs3500.reversi.model.CellColor;
+
+/**
+ * The outcome of one headless game. A game that was aborted because a strategy threw or
+ * asked for an illegal move is recorded as a forfeit by the color that was to move.
+ */
+public final class GameResult {
+  private final int blackScore;
+  private final int whiteScore;
+  private final int plies;
+  private final CellColor forfeitedBy;
+
+  /**
+   * Creates the result of a game.
+   *
+   * @param blackScore  number of black discs at the end.
+   * @param whiteScore  number of white discs at the end.
+   * @param plies       number of moves and passes played, including the opening.
+   * @param forfeitedBy the color that forfeited, or null if the game was played out.
+   */
+  public GameResult(int blackScore, int whiteScore, int plies, CellColor forfeitedBy) {
+    this.blackScore = blackScore;
+    this.whiteScore = whiteScore;
+    this.plies = plies;
+    this.forfeitedBy = forfeitedBy;
+  }
+
+  public int getBlackScore() {
+    return blackScore;
+  }
+
+  public int getWhiteScore() {
+    return whiteScore;
+  }
+
+  public int getPlies() {
+    return plies;
+  }
+
+  public CellColor getForfeitedBy() {
+    return forfeitedBy;
+  }
+
+  /**
+   * Gives the color that won the game.
+   *
+   * @return BLACK or WHITE, or EMPTY for a draw.
+   */
+  public CellColor winner() {
+    if (forfeitedBy == CellColor.BLACK) {
+      return CellColor.WHITE;
+    } else if (forfeitedBy == CellColor.WHITE) {
+      return CellColor.BLACK;
+    } else if (blackScore > whiteScore) {
+      return CellColor.BLACK;
+    } else if (whiteScore > blackScore) {
+      return CellColor.WHITE;
+    }
+    return CellColor.EMPTY;
+  }
+
+  /**
+   * Gives the game points earned by the given color: 1 for a win, 0.5 for a draw, 0 for a loss.
+   *
+   * @param color BLACK or WHITE.
+   * @return the points earned.
+   */
+  public double pointsFor(CellColor color) {
+    CellColor winner = winner();
+    if (winner == CellColor.EMPTY) {
+      return 0.5;
+    }
+    return winner == color ? 1.0 : 0.0;
+  }
+}
@@ -0,0 +1,170 @@
+package cs3500.reversi.tournament;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import cs3500.reversi.controller.DummyController;
+import cs3500.reversi.model.CellColor;
+import cs3500.reversi.model.CoordinateSystem;
+import cs3500.reversi.model.Disc;
+import cs3500.reversi.model.GameClock;
+import cs3500.reversi.model.IBoard;
+import cs3500.reversi.model.IGame;
+import cs3500.reversi.model.MoveAction;
+import cs3500.reversi.model.strategy.ReversiStrategies;
+import cs3500.reversi.players.IPlayer;
+import cs3500.reversi.players.MachinePlayer;
+
+/**
+ * Plays machine versus machine games on the regular model without any view. The game is
+ * driven by asking the player to move for a strategy and applying its answer directly, so no
+ * controller callbacks are involved and games can run on any thread.
+ */
+public final class HeadlessGame {
+
+  private HeadlessGame() {
+  }
+
+  /**
+   * Plays one game to the end.
+   *
+   * @param type    the shape of the board.
+   * @param size    the size of the board.
+   * @param black   the strategy moving first.
+   * @param white   the strategy moving second.
+   * @param opening moves forced on both sides before the strategies take over.
+   * @return the result of the game.
+   */
+  public static GameResult play(BoardType type, int size, ReversiStrategies black,
+                                ReversiStrategies white, List<CoordinateSystem> opening) {
+    return play(type, size, black, white, opening, null, null);
+  }
+
+  /**
+   * Plays one game to the end on a clock that starts after the opening. A strategy that runs
+   * out of time forfeits.
+   *
+   * @param type      the shape of the board.
+   * @param size      the size of the board.
+   * @param black     the strategy moving first.
+   * @param white     the strategy moving second.
+   * @param opening   moves forced on both sides before the strategies take over.
+   * @param bank      the time each side starts with, or null to play without a clock.
+   * @param increment the time added after each move, or null for none.
+   * @return the result of the game.
+   */
+  public static GameResult play(BoardType type, int size, ReversiStrategies black,
+                                ReversiStrategies white, List<CoordinateSystem> opening,
+                                Duration bank, Duration increment) {
+    IGame game = newStartedGame(type, size, new MachinePlayer(CellColor.BLACK, black),
+            new MachinePlayer(CellColor.WHITE, white));
+    int plies = 0;
+    for (CoordinateSystem move : opening) {
+      game.makeMove(move.getQ(), move.getR(), game.getCurrentPlayer().getColor());
+      plies++;
+    }
+    if (bank != null) {
+      game.setClock(new GameClock(bank, increment == null ? Duration.ZERO : increment));
+    }
+
+    int maxPlies = 2 * countCells(game.getGrid()) + 2;
+    while (!game.isGameOver() && plies < maxPlies) {
+      IPlayer current = game.getCurrentPlayer();
+      try {
+        MoveAction action = current.getStrategy().chooseMove(game, current.getColor());
+        if (action == null || action.isPass()) {
+          game.implementPass(current.getColor());
+        } else {
+          CoordinateSystem move = action.getMove();
+          game.makeMove(move.getQ(), move.getR(), current.getColor());
+        }
+      } catch (RuntimeException e) {
+        return new GameResult(game.getScore(CellColor.BLACK), game.getScore(CellColor.WHITE),
+                plies, current.getColor());
+      }
+      plies++;
+      GameClock clock = game.getClock();
+      if (clock != null && clock.isFlagged(current.getColor())) {
+        return new GameResult(game.getScore(CellColor.BLACK), game.getScore(CellColor.WHITE),
+                plies, current.getColor());
+      }
+    }
+    return new GameResult(game.getScore(CellColor.BLACK), game.getScore(CellColor.WHITE),
+            plies, null);
+  }
+
+  /**
+   * Generates a random opening by playing uniformly random legal moves from the start position.
+   * The opening stops early if the side to move has no legal move.
+   *
+   * @param type   the shape of the board.
+   * @param size   the size of the board.
+   * @param plies  the number of moves in the opening.
+   * @param random the source of randomness.
+   * @return the moves of the opening in order.
+   */
+  public static List<CoordinateSystem> randomOpening(BoardType type, int size, int plies,
+                                                     Random random) {
+    IGame game = newStartedGame(type, size, new MachinePlayer(CellColor.BLACK, null),
+            new MachinePlayer(CellColor.WHITE, null));
+    List<CoordinateSystem> opening = new ArrayList<>();
+    for (int i = 0; i < plies; i++) {
+      CellColor color = game.getCurrentPlayer().getColor();
+      List<CoordinateSystem> moves = legalMoves(game, color);
+      if (moves.isEmpty()) {
+        break;
+      }
+      CoordinateSystem move = moves.get(random.nextInt(moves.size()));
+      game.makeMove(move.getQ(), move.getR(), color);
+      opening.add(move);
+    }
+    return opening;
+  }
+
+  /**
+   * Lists every legal move of the given color in row order.
+   *
+   * @param game  the game to look at.
+   * @param color the color to move.
+   * @return the legal moves.
+   */
+  public static List<CoordinateSystem> legalMoves(IGame game, CellColor color) {
+    List<CoordinateSystem> moves = new ArrayList<>();
+    IBoard board = game.getGrid();
+    for (int q = 0; q < board.getRows(); q++) {
+      for (int r = 0; r < board.getNumberOfColumnsInRow(q); r++) {
+        if (game.isValidMove(q, r, color)) {
+          moves.add(new Disc(q, r));
+        }
+      }
+    }
+    return moves;
+  }
+
+  /**
+   * Creates a game with two silent listeners attached and starts it.
+   *
+   * @param type  the shape of the board.
+   * @param size  the size of the board.
+   * @param black the player moving first.
+   * @param white the player moving second.
+   * @return the started game.
+   */
+  public static IGame newStartedGame(BoardType type, int size, IPlayer black, IPlayer white) {
+    IGame game = type.newGame(black, white, size);
+    game.addModelStatusListener(new DummyController());
+    game.addModelStatusListener(new DummyController());
+    game.startGame();
+    return game;
+  }
+
+  private static int countCells(IBoard board) {
+    int cells = 0;
+    for (int q = 0; q < board.getRows(); q++) {
+      cells += board.getNumberOfColumnsInRow(q);
+    }
+    return cells;
+  }
+}
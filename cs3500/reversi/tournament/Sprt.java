@@ -0,0 +1,141 @@
+package cs3500.reversi.tournament;
+
+/**
+ * A sequential probability ratio test on game pairs. Each sample is the average score the
+ * candidate took from one opening played with both colors, so it is one of 0, 1/4, 1/2, 3/4 or 1
+ * (the pentanomial model). The log-likelihood ratio uses the normal approximation of the
+ * generalized SPRT, which tracks the variance observed so far instead of assuming one. Every
+ * bucket gets a small pseudo-count first, so pairs that all end alike, as between deterministic
+ * engines, still give a variance and the test stops.
+ */
+public final class Sprt {
+
+  /**
+   * The state of the test.
+   */
+  public enum Decision {
+    /**
+     * The candidate is not stronger than the lower Elo bound.
+     */
+    ACCEPT_H0,
+    /**
+     * The candidate is at least as strong as the upper Elo bound.
+     */
+    ACCEPT_H1,
+    /**
+     * More pairs are needed.
+     */
+    CONTINUE
+  }
+
+  // Added to every pentanomial bucket before the mean and variance are taken.
+  private static final double PSEUDO_COUNT = 1e-3;
+
+  private final double elo0;
+  private final double elo1;
+  private final double lowerBound;
+  private final double upperBound;
+  private final long[] pentanomial = new long[5];
+
+  /**
+   * Creates a test of H0: elo = elo0 against H1: elo = elo1.
+   *
+   * @param elo0  the Elo difference under the null hypothesis.
+   * @param elo1  the Elo difference under the alternative hypothesis, greater than elo0.
+   * @param alpha probability of accepting H1 when H0 holds.
+   * @param beta  probability of accepting H0 when H1 holds.
+   */
+  public Sprt(double elo0, double elo1, double alpha, double beta) {
+    if (elo1 <= elo0 || alpha <= 0 || alpha >= 1 || beta <= 0 || beta >= 1) {
+      throw new IllegalArgumentException("Invalid SPRT parameters");
+    }
+    this.elo0 = elo0;
+    this.elo1 = elo1;
+    this.lowerBound = Math.log(beta / (1 - alpha));
+    this.upperBound = Math.log((1 - beta) / alpha);
+  }
+
+  /**
+   * Records the result of one game pair.
+   *
+   * @param points the candidate's points over both games, 0, 0.5, 1, 1.5 or 2.
+   */
+  public void addPair(double points) {
+    int bucket = (int) Math.round(points * 2);
+    if (bucket < 0 || bucket > 4) {
+      throw new IllegalArgumentException("A pair is worth between 0 and 2 points");
+    }
+    pentanomial[bucket]++;
+  }
+
+  /**
+   * Computes the log-likelihood ratio of H1 over H0 for the pairs recorded so far.
+   *
+   * @return the log-likelihood ratio, or 0 before the first pair.
+   */
+  public double llr() {
+    long pairs = pairs();
+    if (pairs == 0) {
+      return 0;
+    }
+    double total = pairs + 5 * PSEUDO_COUNT;
+    double mean = 0;
+    for (int i = 0; i < 5; i++) {
+      mean += (pentanomial[i] + PSEUDO_COUNT) * (i / 4.0);
+    }
+    mean /= total;
+    double variance = 0;
+    for (int i = 0; i < 5; i++) {
+      variance += (pentanomial[i] + PSEUDO_COUNT) * Math.pow(i / 4.0 - mean, 2);
+    }
+    variance /= total;
+    double s0 = EloEstimate.toScore(elo0);
+    double s1 = EloEstimate.toScore(elo1);
+    return pairs * (s1 - s0) * (2 * mean - s0 - s1) / (2 * variance);
+  }
+
+  /**
+   * Decides whether the test can stop.
+   *
+   * @return the decision for the pairs recorded so far.
+   */
+  public Decision decision() {
+    double llr = llr();
+    if (llr >= upperBound) {
+      return Decision.ACCEPT_H1;
+    } else if (llr <= lowerBound) {
+      return Decision.ACCEPT_H0;
+    }
+    return Decision.CONTINUE;
+  }
+
+  /**
+   * Gives the number of game pairs recorded.
+   *
+   * @return the number of pairs.
+   */
+  public long pairs() {
+    long pairs = 0;
+    for (long count : pentanomial) {
+      pairs += count;
+    }
+    return pairs;
+  }
+
+  /**
+   * Gives how many pairs ended with each point total, from 0 points to 2 points.
+   *
+   * @return a copy of the five pentanomial counts.
+   */
+  public long[] getPentanomial() {
+    return pentanomial.clone();
+  }
+
+  public double getLowerBound() {
+    return lowerBound;
+  }
+
+  public double getUpperBound() {
+    return upperBound;
+  }
+}
@@ -0,0 +1,176 @@
+package cs3500.reversi.tournament;
+
+import java.io.PrintStream;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import cs3500.reversi.model.CellColor;
+import cs3500.reversi.model.CoordinateSystem;
+
+/**
+ * Strength regression check between a baseline and a candidate strategy. Random openings are
+ * played in pairs, once with each color, on a work-stealing pool, and a {@link Sprt} is updated
+ * as pairs finish. The run stops as soon as the test accepts either hypothesis or the pair limit
+ * is reached.
+ *
+ * <p>Usage: {@code SprtHarness --baseline name --candidate name [--board hex] [--size 4]
+ * [--elo0 0] [--elo1 10] [--alpha 0.05] [--beta 0.05] [--opening-plies 4]
+ * [--max-pairs 20000] [--threads n] [--seed n]}.
+ */
+public final class SprtHarness {
+  private final String baseline;
+  private final String candidate;
+  private final BoardType type;
+  private final int size;
+  private final int openingPlies;
+  private final long maxPairs;
+  private final int threads;
+  private final long seed;
+  private final Sprt sprt;
+  private long wins;
+  private long draws;
+  private long losses;
+
+  /**
+   * Creates a harness.
+   *
+   * @param baseline     name of the reference strategy.
+   * @param candidate    name of the strategy under test.
+   * @param type         the board shape.
+   * @param size         the board size.
+   * @param openingPlies number of random moves in each opening.
+   * @param maxPairs     the most game pairs to play before giving up.
+   * @param threads      number of worker threads.
+   * @param seed         seed for the random openings.
+   * @param sprt         the test to run.
+   */
+  public SprtHarness(String baseline, String candidate, BoardType type, int size,
+                     int openingPlies, long maxPairs, int threads, long seed, Sprt sprt) {
+    StrategyCatalog.create(baseline);
+    StrategyCatalog.create(candidate);
+    if (openingPlies < 0 || maxPairs < 1 || threads < 1) {
+      throw new IllegalArgumentException("Invalid harness settings");
+    }
+    this.baseline = baseline;
+    this.candidate = candidate;
+    this.type = type;
+    this.size = size;
+    this.openingPlies = openingPlies;
+    this.maxPairs = maxPairs;
+    this.threads = threads;
+    this.seed = seed;
+    this.sprt = sprt;
+  }
+
+  /**
+   * Runs the test described by command line arguments and prints the outcome.
+   *
+   * @param args the options described in the class comment.
+   */
+  public static void main(String[] args) {
+    Map<String, String> options = Tournament.parseOptions(args);
+    if (!options.containsKey("baseline") || !options.containsKey("candidate")) {
+      throw new IllegalArgumentException("--baseline and --candidate are required");
+    }
+    BoardType type = BoardType.parse(options.getOrDefault("board", "hex"));
+    Sprt sprt = new Sprt(Double.parseDouble(options.getOrDefault("elo0", "0")),
+            Double.parseDouble(options.getOrDefault("elo1", "10")),
+            Double.parseDouble(options.getOrDefault("alpha", "0.05")),
+            Double.parseDouble(options.getOrDefault("beta", "0.05")));
+    SprtHarness harness = new SprtHarness(options.get("baseline"), options.get("candidate"),
+            type, Integer.parseInt(options.getOrDefault("size", type == BoardType.HEX ? "4" : "8")),
+            Integer.parseInt(options.getOrDefault("opening-plies", "4")),
+            Long.parseLong(options.getOrDefault("max-pairs", "20000")),
+            Integer.parseInt(options.getOrDefault("threads",
+                    String.valueOf(Runtime.getRuntime().availableProcessors()))),
+            Long.parseLong(options.getOrDefault("seed", "1")), sprt);
+    harness.run(System.out);
+  }
+
+  /**
+   * Plays game pairs until the test reaches a decision or the pair limit is hit.
+   *
+   * @param out where progress and the final result are printed.
+   * @return the decision, CONTINUE if the pair limit was reached first.
+   */
+  public Sprt.Decision run(PrintStream out) {
+    ExecutorService pool = Executors.newWorkStealingPool(threads);
+    CompletionService<Double> pending = new ExecutorCompletionService<>(pool);
+    Random random = new Random(seed);
+    long submitted = 0;
+    long inFlight = 0;
+    Sprt.Decision decision = Sprt.Decision.CONTINUE;
+    long start = System.nanoTime();
+    try {
+      while (decision == Sprt.Decision.CONTINUE && (submitted < maxPairs || inFlight > 0)) {
+        while (submitted < maxPairs && inFlight < 2L * threads) {
+          List<CoordinateSystem> opening =
+                  HeadlessGame.randomOpening(type, size, openingPlies, random);
+          pending.submit(() -> playPair(opening));
+          submitted++;
+          inFlight++;
+        }
+        double points = pending.take().get();
+        inFlight--;
+        sprt.addPair(points);
+        decision = sprt.decision();
+        if (sprt.pairs() % 100 == 0) {
+          out.printf("%d pairs, LLR %.2f (%.2f, %.2f), elo %s%n", sprt.pairs(), sprt.llr(),
+                  sprt.getLowerBound(), sprt.getUpperBound(), currentElo());
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("SPRT run was interrupted", e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("A game failed to run", e.getCause());
+    } finally {
+      pool.shutdownNow();
+    }
+    double seconds = (System.nanoTime() - start) / 1e9;
+
+    long[] pentanomial = sprt.getPentanomial();
+    out.printf("%s vs %s on %s size %d: %s after %d pairs%n", candidate, baseline, type, size,
+            decision, sprt.pairs());
+    out.printf("LLR %.2f (%.2f, %.2f), pentanomial [%d %d %d %d %d]%n", sprt.llr(),
+            sprt.getLowerBound(), sprt.getUpperBound(), pentanomial[0], pentanomial[1],
+            pentanomial[2], pentanomial[3], pentanomial[4]);
+    out.printf("elo %s, %.1f games/s%n", currentElo(), 2 * sprt.pairs() / seconds);
+    return decision;
+  }
+
+  /**
+   * Plays the opening once with each color and returns the candidate's total points.
+   */
+  private double playPair(List<CoordinateSystem> opening) {
+    GameResult asBlack = HeadlessGame.play(type, size, StrategyCatalog.create(candidate),
+            StrategyCatalog.create(baseline), opening);
+    GameResult asWhite = HeadlessGame.play(type, size, StrategyCatalog.create(baseline),
+            StrategyCatalog.create(candidate), opening);
+    double first = asBlack.pointsFor(CellColor.BLACK);
+    double second = asWhite.pointsFor(CellColor.WHITE);
+    record(first);
+    record(second);
+    return first + second;
+  }
+
+  private synchronized EloEstimate currentElo() {
+    return EloEstimate.of(wins, draws, losses);
+  }
+
+  private synchronized void record(double points) {
+    if (points == 1.0) {
+      wins++;
+    } else if (points == 0.0) {
+      losses++;
+    } else {
+      draws++;
+    }
+  }
+}
@@ -0,0 +1,72 @@
+package cs3500.reversi.tournament;
+
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import cs3500.reversi.model.search.BasicEvaluator;
+import cs3500.reversi.model.search.MobilityEvaluator;
+import cs3500.reversi.model.search.PatternEvaluator;
+import cs3500.reversi.model.search.ProbCut;
+import cs3500.reversi.model.search.SearchBudget;
+import cs3500.reversi.model.strategy.AlphaBetaStrategy;
+import cs3500.reversi.model.strategy.AvoidNextToCorners;
+import cs3500.reversi.model.strategy.CaptureCorner;
+import cs3500.reversi.model.strategy.MaximumCapture;
+import cs3500.reversi.model.strategy.PerfectPlayStrategy;
+import cs3500.reversi.model.strategy.ReversiStrategies;
+
+/**
+ * Maps the names used on the command line to the strategies they stand for. A new strategy is
+ * created for every game so strategies that keep state never share it between threads.
+ */
+public final class StrategyCatalog {
+  private static final Map<String, Supplier<ReversiStrategies>> STRATEGIES =
+          new LinkedHashMap<>();
+
+  static {
+    STRATEGIES.put("maximum", MaximumCapture::new);
+    STRATEGIES.put("avoid", AvoidNextToCorners::new);
+    STRATEGIES.put("corner", CaptureCorner::new);
+    STRATEGIES.put("alphabeta", AlphaBetaStrategy::new);
+    STRATEGIES.put("probcut", () -> new AlphaBetaStrategy(new BasicEvaluator(),
+            SearchBudget.ofDepth(6), ProbCut.defaults()));
+    STRATEGIES.put("mobility", () -> new AlphaBetaStrategy(new MobilityEvaluator(),
+            SearchBudget.ofDepth(4)));
+    STRATEGIES.put("pattern", () -> new AlphaBetaStrategy(new PatternEvaluator(),
+            SearchBudget.ofDepth(4)));
+    STRATEGIES.put("perfect", () -> new PerfectPlayStrategy(
+            Paths.get(System.getProperty("reversi.solutions", "solutions")),
+            new AlphaBetaStrategy()));
+  }
+
+  private StrategyCatalog() {
+  }
+
+  /**
+   * Creates a fresh instance of the named strategy.
+   *
+   * @param name the name of the strategy.
+   * @return a new strategy.
+   * @throws IllegalArgumentException if no strategy has that name.
+   */
+  public static ReversiStrategies create(String name) {
+    Supplier<ReversiStrategies> supplier = STRATEGIES.get(name);
+    if (supplier == null) {
+      throw new IllegalArgumentException("Unknown strategy: " + name + ", expected one of "
+              + names());
+    }
+    return supplier.get();
+  }
+
+  /**
+   * Gives the names of all known strategies in registration order.
+   *
+   * @return the strategy names.
+   */
+  public static Set<String> names() {
+    return STRATEGIES.keySet();
+  }
+}
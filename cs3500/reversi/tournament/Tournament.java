@@ -0,0 +1,316 @@
+package cs3500.reversi.tournament;
+
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import cs3500.reversi.model.CellColor;
+import cs3500.reversi.model.CoordinateSystem;
+
+/**
+ * Command line tournament between machine strategies. Every pairing plays the same set of random
+ * openings twice, once with each strategy moving first, so neither side profits from the color
+ * or from a lucky opening. Games run on a work-stealing pool with one worker per core.
+ *
+ * <p>Usage: {@code tournament [--mode roundrobin|gauntlet] [--strategies a,b,...]
+ * [--boards hex:4,square:8] [--openings n] [--opening-plies n] [--threads n] [--seed n]
+ * [--clock seconds+increment]}. In gauntlet mode the first strategy plays every other one; in
+ * round robin mode every strategy plays every other one. With a clock, such as {@code 10+0.1},
+ * every game is played on a {@link cs3500.reversi.model.GameClock} and a strategy that runs out
+ * of time forfeits; use no more threads than cores so games do not steal each other's time.
+ */
+public final class Tournament {
+  private final List<String> strategies;
+  private final boolean gauntlet;
+  private final List<Board> boards;
+  private final int openings;
+  private final int openingPlies;
+  private final int threads;
+  private final long seed;
+  private final Duration bank;
+  private final Duration increment;
+
+  /**
+   * Creates a tournament.
+   *
+   * @param strategies   names of the strategies taking part, see {@link StrategyCatalog}.
+   * @param gauntlet     true to only pair the first strategy with the others.
+   * @param boards       the boards every pairing is played on, as "type:size".
+   * @param openings     number of random openings per pairing and board.
+   * @param openingPlies number of random moves in each opening.
+   * @param threads      number of worker threads.
+   * @param seed         seed for the random openings.
+   */
+  public Tournament(List<String> strategies, boolean gauntlet, List<String> boards,
+                    int openings, int openingPlies, int threads, long seed) {
+    this(strategies, gauntlet, boards, openings, openingPlies, threads, seed, null, null);
+  }
+
+  /**
+   * Creates a tournament played on clocks.
+   *
+   * @param strategies   names of the strategies taking part, see {@link StrategyCatalog}.
+   * @param gauntlet     true to only pair the first strategy with the others.
+   * @param boards       the boards every pairing is played on, as "type:size".
+   * @param openings     number of random openings per pairing and board.
+   * @param openingPlies number of random moves in each opening.
+   * @param threads      number of worker threads.
+   * @param seed         seed for the random openings.
+   * @param bank         the time each side starts a game with, or null to play without clocks.
+   * @param increment    the time added after each move, or null for none.
+   */
+  public Tournament(List<String> strategies, boolean gauntlet, List<String> boards,
+                    int openings, int openingPlies, int threads, long seed,
+                    Duration bank, Duration increment) {
+    if (strategies.size() < 2) {
+      throw new IllegalArgumentException("A tournament needs at least two strategies");
+    }
+    if (openings < 1 || openingPlies < 0 || threads < 1) {
+      throw new IllegalArgumentException("Invalid tournament settings");
+    }
+    for (String name : strategies) {
+      StrategyCatalog.create(name);
+    }
+    this.strategies = new ArrayList<>(strategies);
+    this.gauntlet = gauntlet;
+    this.boards = new ArrayList<>();
+    for (String board : boards) {
+      this.boards.add(Board.parse(board));
+    }
+    this.openings = openings;
+    this.openingPlies = openingPlies;
+    this.threads = threads;
+    this.seed = seed;
+    this.bank = bank;
+    this.increment = increment;
+  }
+
+  /**
+   * Runs a tournament described by command line arguments and prints the results.
+   *
+   * @param args the options described in the class comment.
+   */
+  public static void main(String[] args) {
+    Map<String, String> options = parseOptions(args);
+    Duration bank = null;
+    Duration increment = null;
+    if (options.containsKey("clock")) {
+      String[] clock = options.get("clock").split("\\+");
+      bank = seconds(clock[0]);
+      increment = clock.length > 1 ? seconds(clock[1]) : Duration.ZERO;
+    }
+    Tournament tournament = new Tournament(
+            Arrays.asList(options.getOrDefault("strategies",
+                    String.join(",", StrategyCatalog.names())).split(",")),
+            options.getOrDefault("mode", "roundrobin").equals("gauntlet"),
+            Arrays.asList(options.getOrDefault("boards", "hex:4,square:8").split(",")),
+            Integer.parseInt(options.getOrDefault("openings", "20")),
+            Integer.parseInt(options.getOrDefault("opening-plies", "4")),
+            Integer.parseInt(options.getOrDefault("threads",
+                    String.valueOf(Runtime.getRuntime().availableProcessors()))),
+            Long.parseLong(options.getOrDefault("seed", "1")), bank, increment);
+    tournament.run(System.out);
+  }
+
+  private static Duration seconds(String text) {
+    return Duration.ofNanos((long) (Double.parseDouble(text) * 1e9));
+  }
+
+  /**
+   * Reads "--name value" pairs into a map keyed by name.
+   *
+   * @param args the command line arguments.
+   * @return the options by name.
+   * @throws IllegalArgumentException if an option is malformed or has no value.
+   */
+  public static Map<String, String> parseOptions(String[] args) {
+    Map<String, String> options = new LinkedHashMap<>();
+    for (int i = 0; i < args.length; i += 2) {
+      if (!args[i].startsWith("--") || i + 1 >= args.length) {
+        throw new IllegalArgumentException("Expected --option value but got " + args[i]);
+      }
+      options.put(args[i].substring(2), args[i + 1]);
+    }
+    return options;
+  }
+
+  /**
+   * Plays every game of the tournament and prints a table per board followed by the overall
+   * standings and the throughput.
+   *
+   * @param out where the report is printed.
+   */
+  public void run(PrintStream out) {
+    List<String[]> pairings = pairings();
+    List<Future<GameResult>> futures = new ArrayList<>();
+    List<Tally> tallies = new ArrayList<>();
+    List<Tally> gameTallies = new ArrayList<>();
+    List<CellColor> firstColors = new ArrayList<>();
+
+    ExecutorService pool = Executors.newWorkStealingPool(threads);
+    long start = System.nanoTime();
+    try {
+      for (int b = 0; b < boards.size(); b++) {
+        Board board = boards.get(b);
+        Random random = new Random(seed + b);
+        List<List<CoordinateSystem>> book = new ArrayList<>();
+        for (int i = 0; i < openings; i++) {
+          book.add(HeadlessGame.randomOpening(board.type, board.size, openingPlies, random));
+        }
+        for (String[] pairing : pairings) {
+          Tally tally = new Tally(board, pairing[0], pairing[1]);
+          tallies.add(tally);
+          for (List<CoordinateSystem> opening : book) {
+            futures.add(pool.submit(() -> HeadlessGame.play(board.type, board.size,
+                    StrategyCatalog.create(pairing[0]), StrategyCatalog.create(pairing[1]),
+                    opening, bank, increment)));
+            gameTallies.add(tally);
+            firstColors.add(CellColor.BLACK);
+            futures.add(pool.submit(() -> HeadlessGame.play(board.type, board.size,
+                    StrategyCatalog.create(pairing[1]), StrategyCatalog.create(pairing[0]),
+                    opening, bank, increment)));
+            gameTallies.add(tally);
+            firstColors.add(CellColor.WHITE);
+          }
+        }
+      }
+
+      for (int i = 0; i < futures.size(); i++) {
+        gameTallies.get(i).add(futures.get(i).get(), firstColors.get(i));
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Tournament was interrupted", e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("A game failed to run", e.getCause());
+    } finally {
+      pool.shutdownNow();
+    }
+    double seconds = (System.nanoTime() - start) / 1e9;
+
+    report(out, tallies, futures.size(), seconds);
+  }
+
+  /**
+   * Lists the pairings to play, each as {first, second}.
+   */
+  private List<String[]> pairings() {
+    List<String[]> pairings = new ArrayList<>();
+    for (int i = 0; i < strategies.size(); i++) {
+      for (int j = i + 1; j < strategies.size(); j++) {
+        if (!gauntlet || i == 0) {
+          pairings.add(new String[]{strategies.get(i), strategies.get(j)});
+        }
+      }
+    }
+    return pairings;
+  }
+
+  private void report(PrintStream out, List<Tally> tallies, int games, double seconds) {
+    Map<String, long[]> standings = new LinkedHashMap<>();
+    for (String name : strategies) {
+      standings.put(name, new long[3]);
+    }
+
+    Board current = null;
+    for (Tally tally : tallies) {
+      if (tally.board != current) {
+        current = tally.board;
+        out.printf("%n%s size %d%n", current.type, current.size);
+        out.printf("%-32s %6s %6s %6s %8s %16s %10s%n",
+                "pairing", "wins", "draws", "losses", "forfeits", "elo", "avg plies");
+      }
+      out.printf("%-32s %6d %6d %6d %8d %16s %10.1f%n",
+              tally.first + " vs " + tally.second, tally.wins, tally.draws, tally.losses,
+              tally.forfeits, EloEstimate.of(tally.wins, tally.draws, tally.losses),
+              tally.averagePlies());
+      long[] first = standings.get(tally.first);
+      first[0] += tally.wins;
+      first[1] += tally.draws;
+      first[2] += tally.losses;
+      long[] second = standings.get(tally.second);
+      second[0] += tally.losses;
+      second[1] += tally.draws;
+      second[2] += tally.wins;
+    }
+
+    out.printf("%nStandings (performance against the field)%n");
+    out.printf("%-20s %6s %8s %16s%n", "strategy", "games", "points", "elo");
+    for (Map.Entry<String, long[]> entry : standings.entrySet()) {
+      long[] record = entry.getValue();
+      out.printf("%-20s %6d %8.1f %16s%n", entry.getKey(), record[0] + record[1] + record[2],
+              record[0] + 0.5 * record[1], EloEstimate.of(record[0], record[1], record[2]));
+    }
+    out.printf("%nPlayed %d games in %.2f s (%.1f games/s) on %d threads%n",
+            games, seconds, games / seconds, threads);
+  }
+
+  /**
+   * A board shape together with its size.
+   */
+  private static final class Board {
+    private final BoardType type;
+    private final int size;
+
+    private Board(BoardType type, int size) {
+      this.type = type;
+      this.size = size;
+    }
+
+    private static Board parse(String description) {
+      String[] parts = description.split(":");
+      BoardType type = BoardType.parse(parts[0]);
+      int size = parts.length > 1 ? Integer.parseInt(parts[1]) : (type == BoardType.HEX ? 4 : 8);
+      return new Board(type, size);
+    }
+  }
+
+  /**
+   * Win, draw and loss counts of one pairing on one board, seen from the first strategy.
+   */
+  private static final class Tally {
+    private final Board board;
+    private final String first;
+    private final String second;
+    private long wins;
+    private long draws;
+    private long losses;
+    private long forfeits;
+    private long plies;
+
+    private Tally(Board board, String first, String second) {
+      this.board = board;
+      this.first = first;
+      this.second = second;
+    }
+
+    private void add(GameResult result, CellColor firstColor) {
+      double points = result.pointsFor(firstColor);
+      if (points == 1.0) {
+        wins++;
+      } else if (points == 0.0) {
+        losses++;
+      } else {
+        draws++;
+      }
+      if (result.getForfeitedBy() != null) {
+        forfeits++;
+      }
+      plies += result.getPlies();
+    }
+
+    private double averagePlies() {
+      long games = wins + draws + losses;
+      return games == 0 ? 0 : (double) plies / games;
+    }
+  }
+}